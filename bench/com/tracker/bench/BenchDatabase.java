@@ -0,0 +1,123 @@
+package com.tracker.bench;
+
+import com.tracker.database.ConnectionPool;
+import com.tracker.database.MigrationRunner;
+import com.tracker.model.Category;
+import com.tracker.model.Money;
+import com.tracker.model.Transaction;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// The database the benchmarks run against: its own schema on a running MySQL/MariaDB server
+// (localhost:3306 unless -Dbench.db.url says otherwise), created on first use and filled by
+// TransactionGenerator. There is no in-process stand-in: the benchmarks measure the JDBC path.
+// The seed data is regenerated whenever the row count does not match, so a given size always
+// means the same rows.
+public class BenchDatabase {
+    public static final String DEFAULT_URL =
+        "jdbc:mysql://localhost:3306/allowance_tracker_bench?useSSL=false&serverTimezone=UTC" +
+        "&createDatabaseIfNotExist=true&rewriteBatchedStatements=true&useServerPrepStmts=true";
+
+    // Every generated row belongs to this user
+    public static final int USER_ID = 1;
+
+    private static final int SEED_BATCH = 5000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    public BenchDatabase(String url, String user, String password) {
+        // Seeding empties the transactions table, so never let it near the real database
+        if (!url.contains("_bench")) {
+            throw new IllegalArgumentException("Benchmark database name must contain '_bench': " + url);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public String getUrl() { return url; }
+    public String getUser() { return user; }
+    public String getPassword() { return password; }
+
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    // The app's own migrations build the schema, so the benchmarks always measure the tables and
+    // indexes DatabaseManager runs against; only the bench user and categories are added here
+    public void createSchema() throws SQLException {
+        ConnectionPool pool = new ConnectionPool(url, user, password, 1, 1, 60_000, 600_000, 30_000);
+        try {
+            new MigrationRunner(pool).migrate();
+        } finally {
+            pool.close();
+        }
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT IGNORE INTO users (user_id, name, email) VALUES (" + USER_ID + ", 'Bench', 'bench@example.com')");
+        }
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT IGNORE INTO categories (category_id, name, type, icon) VALUES (?, ?, ?, ?)")) {
+            for (Category category : TransactionGenerator.CATEGORIES) {
+                pstmt.setInt(1, category.getCategoryId());
+                pstmt.setString(2, category.getName());
+                pstmt.setString(3, category.getType());
+                pstmt.setString(4, category.getIcon());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // Leaves exactly `rows` generated transactions in the table. Empties the rollups so the next
+    // DatabaseManager rebuilds them from the new data.
+    public void seed(int rows) throws SQLException {
+        if (countTransactions() == rows) return;
+
+        long start = System.nanoTime();
+        try (Connection conn = connect()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM transaction_rollups");
+                stmt.executeUpdate("TRUNCATE TABLE transactions");
+            }
+            conn.setAutoCommit(false);
+            TransactionGenerator generator = new TransactionGenerator();
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO transactions (user_id, category_id, description, amount, transaction_type, " +
+                    "is_expected, payment_method, transaction_date) VALUES (" + USER_ID + ", ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= rows; i++) {
+                    Transaction t = generator.next();
+                    pstmt.setInt(1, t.getCategoryId());
+                    pstmt.setString(2, t.getDescription());
+                    pstmt.setBigDecimal(3, Money.toDecimal(t.getAmountCents()));
+                    pstmt.setString(4, t.getType());
+                    pstmt.setBoolean(5, t.isExpected());
+                    pstmt.setString(6, t.getPaymentMethod());
+                    pstmt.setDate(7, Date.valueOf(t.getDate()));
+                    pstmt.addBatch();
+                    if (i % SEED_BATCH == 0 || i == rows) {
+                        pstmt.executeBatch();
+                        conn.commit();
+                    }
+                }
+            }
+        }
+        System.out.println(String.format("  seeded %,d rows in %.1f s", rows, (System.nanoTime() - start) / 1e9));
+    }
+
+    public int countTransactions() throws SQLException {
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM transactions")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.tracker.bench;
+
+import com.tracker.database.CategoryCache;
+import com.tracker.database.ColumnarTransactionStore;
+import com.tracker.database.DatabaseManager;
+import com.tracker.database.MoneyKernels;
+import com.tracker.database.RowMapping;
+import com.tracker.model.Transaction;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Benchmarks for the data layer and the summary path.
+//
+//   java -Xmx3g -cp bin-bench:lib/* com.tracker.bench.DataLayerBenchmarks
+//        [--filter regex] [--rows 1000,100000,1000000] [--quick]
+//
+// Runs against BenchDatabase (allowance_tracker_bench on the local server, override with
+// -Dbench.db.url / -Dbench.db.user / -Dbench.db.password), seeded deterministically per size.
+// The write benchmarks run last because they change the row count.
+public class DataLayerBenchmarks {
+    private static final int MAPPING_ROWS = 10_000;
+    private static final int KERNEL_ROWS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        String filter = null;
+        String rowSizes = "1000,100000,1000000";
+        boolean quick = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter" -> filter = args[++i];
+                case "--rows" -> rowSizes = args[++i];
+                case "--quick" -> quick = true;
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        BenchDatabase database = new BenchDatabase(
+            System.getProperty("bench.db.url", BenchDatabase.DEFAULT_URL),
+            System.getProperty("bench.db.user", "root"),
+            System.getProperty("bench.db.password", ""));
+        // DatabaseManager reads these when its class is initialized, so nothing here may touch it earlier
+        System.setProperty("tracker.db.url", database.getUrl());
+        System.setProperty("tracker.db.user", database.getUser());
+        System.setProperty("tracker.db.password", database.getPassword());
+        // No background reconcile in the middle of a measurement
+        System.setProperty("tracker.summary.reconcileMinutes", "0");
+        database.createSchema();
+
+        Harness harness = quick ? new Harness(1, 3, 500, filter) : new Harness(3, 5, 1000, filter);
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : rowSizes.split(",")) sizes.add(Integer.parseInt(size.trim()));
+
+        objectBenchmarks(harness);
+        kernelBenchmarks(harness);
+        pivotBenchmark(harness);
+        mappingBenchmark(harness, database);
+        for (int rows : sizes) {
+            readBenchmarks(harness, database, rows);
+        }
+        writeBenchmarks(harness, database, sizes.get(0));
+        harness.printSummary();
+    }
+
+    // Transaction construction on its own, from pre-generated field values
+    private static void objectBenchmarks(Harness harness) throws Exception {
+        TransactionGenerator generator = new TransactionGenerator();
+        Transaction[] source = new Transaction[4096];
+        for (int i = 0; i < source.length; i++) source[i] = generator.next();
+
+        harness.run("Transaction.new", Harness.Mode.THROUGHPUT, "ops/s", () -> {
+            for (int i = 0; i < source.length; i++) {
+                Transaction t = source[i];
+                harness.consume(new Transaction(i, t.getCategoryId(), "Food", t.getDate(), t.getDescription(),
+                    t.getAmount(), t.getType(), t.isExpected(), t.getPaymentMethod()));
+            }
+            return source.length;
+        });
+    }
+
+    // MoneyKernels over long centavos against the same loops over double amounts, which is
+    // what the summary path did before amounts became centavos. In-memory only, no database.
+    private static void kernelBenchmarks(Harness harness) throws Exception {
+        int n = KERNEL_ROWS;
+        double[] amounts = new double[n];
+        long[] cents = new long[n];
+        byte[] flags = new byte[n];
+        int[] epochDays = new int[n];
+        int[] categoryIds = new int[n];
+        TransactionGenerator generator = new TransactionGenerator();
+        for (int i = 0; i < n; i++) {
+            Transaction t = generator.next();
+            amounts[i] = t.getAmount();
+            cents[i] = t.getAmountCents();
+            flags[i] = (byte) (ColumnarTransactionStore.typeCode(t.getType()) |
+                               (t.isExpected() ? ColumnarTransactionStore.EXPECTED_BIT : 0));
+            epochDays[i] = (int) t.getDate().toEpochDay();
+            categoryIds[i] = t.getCategoryId();
+        }
+        int expense = ColumnarTransactionStore.TYPE_EXPENSE;
+        int fromDay = (int) LocalDate.of(2025, 1, 1).toEpochDay();
+        int toDay = (int) LocalDate.of(2025, 6, 30).toEpochDay();
+        int firstMonth = ColumnarTransactionStore.epochMonth(LocalDate.of(2023, 1, 1));
+        long[] byKey = new long[16];
+        double[] byKeyDouble = new double[16];
+        long[] byMonth = new long[48];
+        double[] byMonthDouble = new double[48];
+
+        double doubleTotal = 0;
+        for (double amount : amounts) doubleTotal += amount;
+        long exactTotal = MoneyKernels.sum(cents, n);
+        System.out.println(String.format("  → %d rows: double sum is off by %.6f pesos",
+                n, doubleTotal - exactTotal / 100.0));
+
+        String rows = " rows=" + n;
+        harness.run("sum double" + rows, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            double total = 0;
+            for (int i = 0; i < n; i++) total += amounts[i];
+            harness.consume(Double.doubleToRawLongBits(total));
+            return n;
+        });
+        harness.run("sum cents" + rows, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            harness.consume(MoneyKernels.sum(cents, n));
+            return n;
+        });
+        harness.run("filtered sum double" + rows, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                int day = epochDays[i];
+                if (flags[i] == expense && day >= fromDay && day <= toDay) total += amounts[i];
+            }
+            harness.consume(Double.doubleToRawLongBits(total));
+            return n;
+        });
+        harness.run("filtered sum cents" + rows, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            harness.consume(MoneyKernels.sumWhere(cents, flags, expense, epochDays, fromDay, toDay, n));
+            return n;
+        });
+        harness.run("by category double" + rows, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            Arrays.fill(byKeyDouble, 0);
+            for (int i = 0; i < n; i++) {
+                if (flags[i] == expense) byKeyDouble[categoryIds[i]] += amounts[i];
+            }
+            harness.consume(Double.doubleToRawLongBits(byKeyDouble[2]));
+            return n;
+        });
+        harness.run("by category cents" + rows, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            Arrays.fill(byKey, 0);
+            MoneyKernels.sumByKey(cents, flags, expense, categoryIds, byKey, n);
+            harness.consume(byKey[2]);
+            return n;
+        });
+        harness.run("by month double" + rows, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            Arrays.fill(byMonthDouble, 0);
+            for (int i = 0; i < n; i++) {
+                if (flags[i] != expense) continue;
+                int bucket = ColumnarTransactionStore.epochMonth(epochDays[i]) - firstMonth;
+                if (bucket >= 0 && bucket < byMonthDouble.length) byMonthDouble[bucket] += amounts[i];
+            }
+            harness.consume(Double.doubleToRawLongBits(byMonthDouble[0]));
+            return n;
+        });
+        harness.run("by month cents" + rows, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            Arrays.fill(byMonth, 0);
+            MoneyKernels.sumByMonth(cents, flags, expense, epochDays, firstMonth, byMonth, n);
+            harness.consume(byMonth[0]);
+            return n;
+        });
+    }
+
+    // One category x month pivot over three years, as ReportEngine runs it. Rows are split across
+    // the common fork-join pool; -Dtracker.reports.parallelRows=2000000 gives the one-thread baseline.
+    private static void pivotBenchmark(Harness harness) throws Exception {
+        String name = "sumByCategoryAndMonth rows=" + KERNEL_ROWS;
+        if (!harness.isSelected(name)) return;
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        TransactionGenerator generator = new TransactionGenerator();
+        for (int id = 1; id <= KERNEL_ROWS; id++) {
+            Transaction t = generator.next();
+            store.loadRow(id, t.getDate(), t.getCategoryId(), t.getAmountCents(), t.getType(), t.isExpected(),
+                    t.getPaymentMethod());
+        }
+        int fromDay = (int) LocalDate.of(2023, 1, 1).toEpochDay();
+        int toDay = (int) LocalDate.of(2025, 12, 31).toEpochDay();
+        harness.run(name, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+            harness.consume(store.sumByCategoryAndMonth(ColumnarTransactionStore.TYPE_EXPENSE, fromDay, toDay)
+                    .getCents(2, 0));
+            return KERNEL_ROWS;
+        });
+    }
+
+    // ResultSet -> Transaction mapping over rows already buffered by the driver, so no network
+    // time is included: a scrollable result is rewound and mapped again on each call
+    private static void mappingBenchmark(Harness harness, BenchDatabase database) throws Exception {
+        String name = "mapTransaction rows=" + MAPPING_ROWS;
+        if (!harness.isSelected(name)) return;
+        database.seed(Math.max(MAPPING_ROWS, database.countTransactions()));
+
+        CategoryCache categories = new CategoryCache();
+        categories.load(TransactionGenerator.CATEGORIES, categories.getVersion());
+        try (Connection conn = database.connect();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "SELECT " + RowMapping.COLUMNS + " FROM transactions t ORDER BY t.transaction_id LIMIT " + MAPPING_ROWS,
+                 ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = pstmt.executeQuery()) {
+            harness.run(name, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+                rs.beforeFirst();
+                long rows = 0;
+                while (rs.next()) {
+                    harness.consume(RowMapping.map(rs, categories));
+                    rows++;
+                }
+                return rows;
+            });
+        }
+    }
+
+    private static void readBenchmarks(Harness harness, BenchDatabase database, int rows) throws Exception {
+        String getAll = "getAllTransactions rows=" + rows;
+        String cached = "calculateSummary rows=" + rows;
+        String full = "reconcileSummary rows=" + rows;
+        if (!harness.isSelected(getAll) && !harness.isSelected(cached) && !harness.isSelected(full)) return;
+
+        database.seed(rows);
+        DatabaseManager manager = new DatabaseManager();
+        try {
+            harness.run(getAll, Harness.Mode.AVERAGE_TIME, "ms/op", () -> {
+                harness.consume(manager.getAllTransactions(BenchDatabase.USER_ID).size());
+                return 1;
+            });
+            // Served from the in-memory totals
+            harness.run(cached, Harness.Mode.THROUGHPUT, "ops/s", () -> {
+                harness.consume(manager.calculateSummary(BenchDatabase.USER_ID));
+                return 1;
+            });
+            // The full SUM over transactions that calculateSummary replaced
+            harness.run(full, Harness.Mode.AVERAGE_TIME, "ms/op", () -> {
+                harness.consume(manager.reconcileSummary(BenchDatabase.USER_ID));
+                return 1;
+            });
+        } finally {
+            manager.close();
+        }
+    }
+
+    private static void writeBenchmarks(Harness harness, BenchDatabase database, int rows) throws Exception {
+        int batchSize = DatabaseManager.DEFAULT_BATCH_SIZE;
+        String single = "addTransaction single";
+        String batched = "addTransactions batch=" + batchSize;
+        if (!harness.isSelected(single) && !harness.isSelected(batched)) return;
+
+        database.seed(rows);
+        DatabaseManager manager = new DatabaseManager();
+        TransactionGenerator generator = new TransactionGenerator(7L);
+        try {
+            // One commit per row
+            harness.run(single, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+                harness.consume(manager.addTransaction(BenchDatabase.USER_ID, generator.next()));
+                return 1;
+            });
+            harness.run(batched, Harness.Mode.THROUGHPUT, "rows/s", () -> {
+                List<Transaction> batch = new ArrayList<>(batchSize);
+                for (int i = 0; i < batchSize; i++) batch.add(generator.next());
+                return manager.addTransactions(BenchDatabase.USER_ID, batch, batchSize);
+            });
+        } finally {
+            manager.close();
+        }
+    }
+}
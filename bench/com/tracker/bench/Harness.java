@@ -0,0 +1,103 @@
+package com.tracker.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// A small JMH-style harness: each benchmark gets warmup iterations, then time-boxed
+// measurement iterations, and is reported as mean ± 99.9% error like JMH does.
+// Everything the app prints while a benchmark runs is swallowed so it cannot skew the timings.
+public class Harness {
+    public enum Mode { THROUGHPUT, AVERAGE_TIME }
+
+    public interface Benchmark {
+        // Returns how many operations this call performed (e.g. rows in a batch)
+        long run() throws Exception;
+    }
+
+    private static final PrintStream NULL_OUT = new PrintStream(OutputStream.nullOutputStream());
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final Pattern filter;
+    private final PrintStream report = System.out;
+    private final List<String> results = new ArrayList<>();
+    // Results are folded in here so the JIT cannot drop the work that produced them
+    private long sink;
+
+    public Harness(int warmupIterations, int measurementIterations, long iterationMillis, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+        this.filter = Pattern.compile(filter == null ? ".*" : filter);
+    }
+
+    public boolean isSelected(String name) {
+        return filter.matcher(name).find();
+    }
+
+    public void consume(Object value) {
+        sink += value == null ? 0 : value.hashCode();
+    }
+
+    public void consume(long value) {
+        sink += value;
+    }
+
+    public void run(String name, Mode mode, String unit, Benchmark benchmark) throws Exception {
+        if (!isSelected(name)) return;
+        report.println("# Benchmark: " + name);
+
+        double[] scores = new double[measurementIterations];
+        PrintStream appOut = System.out;
+        System.setOut(NULL_OUT);
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                double score = iteration(mode, benchmark);
+                report.println(String.format("  Warmup %d: %.3f %s", i + 1, score, unit));
+            }
+            for (int i = 0; i < measurementIterations; i++) {
+                scores[i] = iteration(mode, benchmark);
+                report.println(String.format("  Iteration %d: %.3f %s", i + 1, scores[i], unit));
+            }
+        } finally {
+            System.setOut(appOut);
+        }
+
+        double mean = 0;
+        for (double score : scores) mean += score;
+        mean /= scores.length;
+        double variance = 0;
+        for (double score : scores) variance += (score - mean) * (score - mean);
+        double stdev = scores.length > 1 ? Math.sqrt(variance / (scores.length - 1)) : 0;
+        // 3.29 standard errors ~ a 99.9% interval, which is what JMH prints
+        double error = 3.29 * stdev / Math.sqrt(scores.length);
+
+        results.add(String.format("%-48s %5s %4d %14.3f ± %10.3f  %s",
+            name, mode == Mode.THROUGHPUT ? "thrpt" : "avgt", scores.length, mean, error, unit));
+    }
+
+    // THROUGHPUT: operations per second. AVERAGE_TIME: milliseconds per call.
+    private double iteration(Mode mode, Benchmark benchmark) throws Exception {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000L;
+        long start = System.nanoTime();
+        long operations = 0;
+        long calls = 0;
+        do {
+            operations += benchmark.run();
+            calls++;
+        } while (System.nanoTime() < deadline);
+        long elapsed = System.nanoTime() - start;
+        return mode == Mode.THROUGHPUT ? operations * 1e9 / elapsed : elapsed / 1e6 / calls;
+    }
+
+    public void printSummary() {
+        report.println();
+        report.println(String.format("%-48s %5s %4s %14s   %10s  %s", "Benchmark", "Mode", "Cnt", "Score", "Error", "Units"));
+        for (String line : results) report.println(line);
+        if (sink == 42) report.println(); // Keeps sink observable
+    }
+}
@@ -0,0 +1,67 @@
+package com.tracker.bench;
+
+import com.tracker.model.Category;
+import com.tracker.model.Transaction;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Deterministic transaction data: the same seed always produces the same rows, so numbers
+// from different machines and runs are measured against identical data.
+public class TransactionGenerator {
+    public static final long DEFAULT_SEED = 20240901L;
+
+    // Fixed ids so generated rows can be inserted without looking categories up
+    public static final List<Category> CATEGORIES = List.of(
+        new Category(1, "Allowance", "allowance", "A"),
+        new Category(2, "Food", "expense", "F"),
+        new Category(3, "Transport", "expense", "T"),
+        new Category(4, "School", "expense", "S"),
+        new Category(5, "Load", "expense", "L"),
+        new Category(6, "Savings", "savings", "V")
+    );
+
+    private static final String[] WORDS = {
+        "lunch", "jeep", "fare", "snacks", "load", "project", "printing", "coffee",
+        "weekly", "allowance", "books", "merienda", "tricycle", "canteen", "supplies", "gcash"
+    };
+    private static final String[] PAYMENT_METHODS = { "Cash", "GCash", "Maya", "Card" };
+    // Three years of history ending on a fixed date, never "today"
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 12, 31);
+    private static final int DAYS = 3 * 365;
+
+    private final SplittableRandom random;
+
+    public TransactionGenerator() {
+        this(DEFAULT_SEED);
+    }
+
+    public TransactionGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public Transaction next() {
+        int roll = random.nextInt(100);
+        String type;
+        int categoryId;
+        double amount;
+        if (roll < 20) {
+            type = "allowance";
+            categoryId = 1;
+            amount = (200 + random.nextInt(20) * 50);
+        } else if (roll < 25) {
+            type = "savings";
+            categoryId = 6;
+            amount = (50 + random.nextInt(10) * 25);
+        } else {
+            type = "expense";
+            categoryId = 2 + random.nextInt(4);
+            amount = (500 + random.nextInt(30_000)) / 100.0;
+        }
+        boolean isExpected = random.nextInt(10) == 0;
+        LocalDate date = LAST_DAY.minusDays(random.nextInt(DAYS));
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        String paymentMethod = PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)];
+        return new Transaction(0, categoryId, null, date, description, amount, type, isExpected, paymentMethod);
+    }
+}
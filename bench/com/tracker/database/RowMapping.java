@@ -0,0 +1,18 @@
+package com.tracker.database;
+
+import com.tracker.model.Transaction;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Lets the benchmarks reach DatabaseManager's package-private row mapping
+public class RowMapping {
+    // Columns mapTransaction reads, for a "SELECT ... FROM transactions t"
+    public static final String COLUMNS = DatabaseManager.TRANSACTION_COLUMNS;
+
+    private RowMapping() {
+    }
+
+    public static Transaction map(ResultSet rs, CategoryCache categories) throws SQLException {
+        return DatabaseManager.mapTransaction(rs, categories);
+    }
+}
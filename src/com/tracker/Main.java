@@ -1,10 +1,17 @@
 package com.tracker;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
-import com.tracker.database.DatabaseManager;
+import com.tracker.database.MappedLogStorage;
+import com.tracker.database.TrackerStorage;
 import com.tracker.view.TrackerView;
 import com.tracker.controller.TrackerController;
+import com.tracker.io.WorkingSetSnapshot;
+import com.tracker.metrics.Metrics;
+import com.tracker.server.ApiServer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 public class Main extends Application {
     @Override
@@ -12,24 +19,42 @@ public class Main extends Application {
         try {
             System.out.println("=== ALLOWANCE TRACKER STARTING ===");
             
-            // Initialize database connection
-            DatabaseManager dbManager = new DatabaseManager();
-            
-            // Test connection
-            if (!dbManager.testConnection()) {
-                System.err.println("Failed to connect to database!");
-                System.err.println("Make sure XAMPP MySQL is running on port 3306");
-                return;
-            }
-            
-            // Create controller
-            TrackerController controller = new TrackerController(dbManager);
-            
-            // Create and show view
-            TrackerView view = new TrackerView(primaryStage, controller);
+            int userId = TrackerStorage.DEFAULT_USER_ID;
+
+            // The window comes up straight away, drawn from the last session's snapshot
+            // (if there is one); opening storage can take seconds and happens behind it
+            TrackerView view = new TrackerView(primaryStage, WorkingSetSnapshot.load(userId));
             view.show();
-            
-            System.out.println("=== APPLICATION STARTED SUCCESSFULLY ===");
+
+            // Open storage: MySQL by default, -Dtracker.storage=mapped for the local log file
+            CompletableFuture.supplyAsync(TrackerStorage::open).thenAcceptAsync(storage -> {
+                // Test connection
+                if (!storage.testConnection()) {
+                    if (storage instanceof MappedLogStorage) {
+                        System.err.println("Failed to open local storage!");
+                        view.connectFailed("Failed to open local storage.");
+                    } else {
+                        System.err.println("Failed to connect to database!");
+                        System.err.println("Make sure XAMPP MySQL is running on port 3306");
+                        view.connectFailed("Failed to connect to database. Make sure XAMPP MySQL is running on port 3306.");
+                    }
+                    return;
+                }
+
+                // Latency summary in the log; the same numbers are live over JMX (jconsole)
+                Metrics.startReporter(Long.getLong("tracker.metrics.logSeconds", 60L));
+
+                // Create controller
+                // Runs as -Dtracker.userId (default 1)
+                TrackerController controller = new TrackerController(storage, userId);
+                view.connect(controller);
+
+                System.out.println("=== APPLICATION STARTED SUCCESSFULLY ===");
+            }, Platform::runLater).exceptionally(e -> {
+                System.err.println("Error starting application:");
+                e.printStackTrace();
+                return null;
+            });
             
         } catch (Exception e) {
             System.err.println("Error starting application:");
@@ -40,9 +65,15 @@ public class Main extends Application {
     @Override
     public void stop() {
         System.out.println("=== APPLICATION CLOSING ===");
+        Metrics.stopReporter();
     }
 
+    // --server runs the JSON API (see ApiServer) instead of the window
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains("--server")) {
+            ApiServer.run();
+            return;
+        }
         launch(args);
     }
 }
\ No newline at end of file
@@ -1,44 +1,384 @@
 package com.tracker.controller;
 
-import com.tracker.database.DatabaseManager;
+import com.tracker.database.ReportEngine;
+import com.tracker.database.TrackerStorage;
+import com.tracker.events.ChangeEventBus;
+import com.tracker.io.CsvTransactionImporter;
+import com.tracker.io.TransactionExporter;
+import com.tracker.io.WorkingSetSnapshot;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.OperationStats;
 import com.tracker.model.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
+// One controller per signed-in user: every call it makes is for that user's data
 public class TrackerController {
-    private DatabaseManager dbManager;
+    private TrackerStorage storage;
+    private final int userId;
+    // JDBC calls block, so async work runs on virtual threads instead of the caller's thread
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Null unless startSnapshotJournal() was called
+    private WorkingSetSnapshot.Journal journal;
+    private ChangeEventBus.Subscription journalSubscription;
 
-    public TrackerController(DatabaseManager dbManager) {
-        this.dbManager = dbManager;
+    public TrackerController(TrackerStorage storage, int userId) {
+        this.storage = storage;
+        this.userId = userId;
     }
 
-    public void addTransaction(LocalDate date, String description, double amount,
-                              String type, boolean isExpected, int categoryId, 
-                              String paymentMethod) {
-        Transaction transaction = new Transaction(
-            0, categoryId, "", date, description, 
-            amount, type, isExpected, paymentMethod
+    public int getUserId() {
+        return userId;
+    }
+
+    // Returns the saved row (id 0 if the insert failed), ready to show in the table
+    public Transaction addTransaction(LocalDate date, String description, double amount,
+                                      String type, boolean isExpected, int categoryId,
+                                      String paymentMethod) {
+        return addTransactionCents(date, description, Money.toCents(amount), type, isExpected, categoryId, paymentMethod);
+    }
+
+    // Same, with the amount already in centavos (the API server reads them from the JSON text)
+    public Transaction addTransactionCents(LocalDate date, String description, long amountCents,
+                                           String type, boolean isExpected, int categoryId,
+                                           String paymentMethod) {
+        Transaction transaction = newTransaction(date, description, amountCents, type, isExpected, categoryId, paymentMethod);
+        storage.addTransaction(userId, transaction);
+        return transaction;
+    }
+
+    private Transaction newTransaction(LocalDate date, String description, long amountCents,
+                                       String type, boolean isExpected, int categoryId,
+                                       String paymentMethod) {
+        return Transaction.ofCents(
+            0, categoryId, storage.getCategoryName(categoryId), date, description,
+            amountCents, type, isExpected, paymentMethod
         );
-        dbManager.addTransaction(transaction);
+    }
+
+    public int addTransactions(List<Transaction> transactions) {
+        return storage.addTransactions(userId, transactions);
+    }
+
+    public CsvTransactionImporter.ImportResult importCsv(Path file) throws IOException {
+        return new CsvTransactionImporter(storage, userId).importFile(file);
+    }
+
+    // Format and compression follow the file name (.csv / .jsonl, optional .gz)
+    public TransactionExporter.ExportResult exportTransactions(Path file) throws IOException {
+        return TransactionExporter.forFile(storage, userId, file).exportTo(file);
     }
 
     public List<Transaction> getAllTransactions() {
-        return dbManager.getAllTransactions();
+        return storage.getAllTransactions(userId);
+    }
+
+    public List<Transaction> getTransactionsPage(LocalDate afterDate, int afterId, int limit) {
+        return storage.getTransactionsPage(userId, afterDate, afterId, limit);
+    }
+
+    public int countTransactions() {
+        return storage.countTransactions(userId);
+    }
+
+    public List<Transaction> getTransactionsAfterId(int afterId, int limit) {
+        return storage.getTransactionsAfterId(userId, afterId, limit);
     }
 
     public List<Category> getAllCategories() {
-        return dbManager.getAllCategories();
+        return storage.getAllCategories();
+    }
+
+    // Type and expected flag stay as they were. Returns the rows changed: 0 if there is no
+    // such transaction, -1 if the write failed (see TrackerStorage)
+    public int updateTransaction(int id, String description, double amount, int categoryId,
+                                 String paymentMethod, LocalDate date) {
+        return storage.updateTransaction(userId, id, description, amount, categoryId, paymentMethod, date);
     }
 
-    public void deleteTransaction(int id) {
-        dbManager.deleteTransaction(id);
+    public int updateTransactionCents(int id, String description, long amountCents, int categoryId,
+                                      String paymentMethod, LocalDate date) {
+        return storage.updateTransactionCents(userId, id, description, amountCents, categoryId, paymentMethod, date);
+    }
+
+    public int deleteTransaction(int id) {
+        return storage.deleteTransaction(userId, id);
     }
 
     public Summary calculateSummary() {
-        return dbManager.calculateSummary();
+        return storage.calculateSummary(userId);
+    }
+
+    public Summary reconcileSummary() {
+        return storage.reconcileSummary(userId);
+    }
+
+    // ASYNC VARIANTS (results complete on a background thread; UI code must hop back itself)
+    public CompletableFuture<Transaction> addTransactionAsync(LocalDate date, String description, double amount,
+                                                             String type, boolean isExpected, int categoryId,
+                                                             String paymentMethod) {
+        return addTransactionCentsAsync(date, description, Money.toCents(amount), type, isExpected, categoryId, paymentMethod);
+    }
+
+    public CompletableFuture<Transaction> addTransactionCentsAsync(LocalDate date, String description, long amountCents,
+                                                                  String type, boolean isExpected, int categoryId,
+                                                                  String paymentMethod) {
+        if (storage.isWriteBehindEnabled()) {
+            // Completes when the queued insert is committed; nothing blocks in the meantime
+            Transaction transaction = newTransaction(date, description, amountCents, type, isExpected, categoryId, paymentMethod);
+            return timed("controller.addTransaction",
+                    () -> storage.submitAddTransaction(userId, transaction).thenApply(id -> transaction));
+        }
+        return timed("controller.addTransaction", () -> CompletableFuture.supplyAsync(() -> addTransactionCents(
+            date, description, amountCents, type, isExpected, categoryId, paymentMethod), executor));
+    }
+
+    public CompletableFuture<Integer> addTransactionsAsync(List<Transaction> transactions) {
+        return timed("controller.addTransactions",
+                () -> CompletableFuture.supplyAsync(() -> addTransactions(transactions), executor));
+    }
+
+    public CompletableFuture<CsvTransactionImporter.ImportResult> importCsvAsync(Path file) {
+        return timed("controller.importCsv", () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return importCsv(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor));
+    }
+
+    public CompletableFuture<TransactionExporter.ExportResult> exportTransactionsAsync(Path file) {
+        return timed("controller.exportTransactions", () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return exportTransactions(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor));
+    }
+
+    public CompletableFuture<List<Transaction>> getAllTransactionsAsync() {
+        return timed("controller.getAllTransactions",
+                () -> CompletableFuture.supplyAsync(this::getAllTransactions, executor));
+    }
+
+    public CompletableFuture<List<Transaction>> getTransactionsPageAsync(LocalDate afterDate, int afterId, int limit) {
+        return timed("controller.getTransactionsPage",
+                () -> CompletableFuture.supplyAsync(() -> getTransactionsPage(afterDate, afterId, limit), executor));
+    }
+
+    public CompletableFuture<Integer> countTransactionsAsync() {
+        return timed("controller.countTransactions",
+                () -> CompletableFuture.supplyAsync(this::countTransactions, executor));
+    }
+
+    public CompletableFuture<List<Transaction>> getTransactionsAfterIdAsync(int afterId, int limit) {
+        return timed("controller.getTransactionsAfterId",
+                () -> CompletableFuture.supplyAsync(() -> getTransactionsAfterId(afterId, limit), executor));
+    }
+
+    public CompletableFuture<List<Category>> getAllCategoriesAsync() {
+        return timed("controller.getAllCategories",
+                () -> CompletableFuture.supplyAsync(this::getAllCategories, executor));
+    }
+
+    // Completes with the rows changed, as updateTransaction returns them
+    public CompletableFuture<Integer> updateTransactionAsync(int id, String description, double amount, int categoryId,
+                                                             String paymentMethod, LocalDate date) {
+        return updateTransactionCentsAsync(id, description, Money.toCents(amount), categoryId, paymentMethod, date);
+    }
+
+    public CompletableFuture<Integer> updateTransactionCentsAsync(int id, String description, long amountCents, int categoryId,
+                                                                  String paymentMethod, LocalDate date) {
+        if (storage.isWriteBehindEnabled()) {
+            return timed("controller.updateTransaction", () -> storage.submitUpdateTransactionCents(
+                userId, id, description, amountCents, categoryId, paymentMethod, date));
+        }
+        return timed("controller.updateTransaction", () -> CompletableFuture.supplyAsync(() -> updateTransactionCents(
+            id, description, amountCents, categoryId, paymentMethod, date), executor));
+    }
+
+    public CompletableFuture<Void> deleteTransactionAsync(int id) {
+        if (storage.isWriteBehindEnabled()) {
+            return timed("controller.deleteTransaction",
+                    () -> storage.submitDeleteTransaction(userId, id).thenAccept(rows -> { }));
+        }
+        return timed("controller.deleteTransaction",
+                () -> CompletableFuture.runAsync(() -> deleteTransaction(id), executor));
+    }
+
+    public CompletableFuture<Summary> calculateSummaryAsync() {
+        return timed("controller.calculateSummary",
+                () -> CompletableFuture.supplyAsync(this::calculateSummary, executor));
+    }
+
+    public CompletableFuture<Summary> reconcileSummaryAsync() {
+        return timed("controller.reconcileSummary",
+                () -> CompletableFuture.supplyAsync(this::reconcileSummary, executor));
+    }
+
+    // ROLLUP REPORTS
+    public Map<YearMonth, Summary> getMonthlySummaries(YearMonth from, YearMonth to) {
+        return storage.getMonthlySummaries(userId, from, to);
+    }
+
+    public List<CategoryTotal> getCategoryTotals(YearMonth from, YearMonth to, String type) {
+        return storage.getCategoryTotals(userId, from, to, type);
+    }
+
+    public CompletableFuture<Map<YearMonth, Summary>> getMonthlySummariesAsync(YearMonth from, YearMonth to) {
+        return timed("controller.getMonthlySummaries",
+                () -> CompletableFuture.supplyAsync(() -> getMonthlySummaries(from, to), executor));
+    }
+
+    public CompletableFuture<List<CategoryTotal>> getCategoryTotalsAsync(YearMonth from, YearMonth to, String type) {
+        return timed("controller.getCategoryTotals",
+                () -> CompletableFuture.supplyAsync(() -> getCategoryTotals(from, to, type), executor));
+    }
+
+    // PIVOT REPORTS (computed in memory, cached until a write lands in their range)
+    public CategoryMonthPivot getCategoryMonthPivot(YearMonth from, YearMonth to, String type) {
+        return reports().pivot(userId, from, to, type);
+    }
+
+    public List<CategoryTotal> getTopCategories(YearMonth from, YearMonth to, String type, int n) {
+        return reports().topCategories(userId, from, to, type, n);
+    }
+
+    public List<YearOverYear> getYearOverYear(YearMonth through, String type) {
+        return reports().yearOverYear(userId, through, type);
+    }
+
+    public CompletableFuture<CategoryMonthPivot> getCategoryMonthPivotAsync(YearMonth from, YearMonth to, String type) {
+        return timed("controller.getCategoryMonthPivot",
+                () -> CompletableFuture.supplyAsync(() -> getCategoryMonthPivot(from, to, type), executor));
+    }
+
+    public CompletableFuture<List<CategoryTotal>> getTopCategoriesAsync(YearMonth from, YearMonth to, String type, int n) {
+        return timed("controller.getTopCategories",
+                () -> CompletableFuture.supplyAsync(() -> getTopCategories(from, to, type, n), executor));
+    }
+
+    public CompletableFuture<List<YearOverYear>> getYearOverYearAsync(YearMonth through, String type) {
+        return timed("controller.getYearOverYear",
+                () -> CompletableFuture.supplyAsync(() -> getYearOverYear(through, type), executor));
+    }
+
+    // Shared by every controller of the storage
+    private ReportEngine reports() {
+        return storage.getReportEngine();
+    }
+
+    // SEARCH
+    // Filtered in storage (see TransactionQuery); only matching rows come back
+    public List<Transaction> queryTransactions(TransactionQuery query) {
+        return storage.queryTransactions(userId, query);
+    }
+
+    public CompletableFuture<List<Transaction>> queryTransactionsAsync(TransactionQuery query) {
+        return timed("controller.queryTransactions",
+                () -> CompletableFuture.supplyAsync(() -> queryTransactions(query), executor));
+    }
+
+    public List<Transaction> searchTransactions(String query, int limit) {
+        return storage.searchTransactions(userId, query, limit);
+    }
+
+    public CompletableFuture<List<Transaction>> searchTransactionsAsync(String query, int limit) {
+        return timed("controller.searchTransactions",
+                () -> CompletableFuture.supplyAsync(() -> searchTransactions(query, limit), executor));
+    }
+
+    // Builds the index ahead of the first search so typing never waits for the load
+    public CompletableFuture<Void> enableSearchIndexAsync() {
+        return timed("controller.enableSearchIndex",
+                () -> CompletableFuture.runAsync(() -> storage.enableSearchIndex(userId), executor));
+    }
+
+    // BUDGETS
+    public void setBudget(int categoryId, double monthlyLimit, double alertThreshold, YearMonth month) {
+        storage.addBudget(userId, categoryId, monthlyLimit, alertThreshold, month.toString());
+    }
+
+    public List<BudgetStatus> getBudgetStatuses(YearMonth month) {
+        return storage.getBudgetStatuses(userId, month);
+    }
+
+    public CompletableFuture<Void> setBudgetAsync(int categoryId, double monthlyLimit, double alertThreshold, YearMonth month) {
+        return timed("controller.setBudget",
+                () -> CompletableFuture.runAsync(() -> setBudget(categoryId, monthlyLimit, alertThreshold, month), executor));
+    }
+
+    public CompletableFuture<List<BudgetStatus>> getBudgetStatusesAsync(YearMonth month) {
+        return timed("controller.getBudgetStatuses",
+                () -> CompletableFuture.supplyAsync(() -> getBudgetStatuses(month), executor));
+    }
+
+    // CHANGE EVENTS
+    // This user's committed changes, from any source (this window, imports, other clients),
+    // delivered in batches on executor
+    public ChangeEventBus.Subscription subscribe(Executor executor, ChangeEventBus.Listener listener) {
+        return storage.getEventBus().subscribe(userId, executor, listener);
+    }
+
+    // Times each async call from submission to completion, so queueing for an executor
+    // thread shows up too; shown next to the db.* timings under com.tracker > Operation
+    private static <T> CompletableFuture<T> timed(String operation, Supplier<CompletableFuture<T>> call) {
+        OperationStats.Sample sample = Metrics.operation(operation).start();
+        return call.get().whenComplete((result, error) -> {
+            if (error != null) sample.fail();
+            if (result instanceof Collection<?> rows) sample.rows(rows.size());
+            sample.close();
+        });
+    }
+
+    // STARTUP SNAPSHOT
+    // Journals this user's changes from now on; closeDatabase() then saves a fresh snapshot
+    public void startSnapshotJournal() {
+        if (!WorkingSetSnapshot.ENABLED || journal != null) return;
+        try {
+            journal = WorkingSetSnapshot.openJournal(userId, this::calculateSummary);
+            journalSubscription = subscribe(executor, journal);
+        } catch (IOException e) {
+            System.err.println("⚠ Snapshot journal disabled: " + e.getMessage());
+        }
+    }
+
+    // The table's first page plus what the window shows around it, read from storage
+    public WorkingSetSnapshot takeSnapshot() {
+        return new WorkingSetSnapshot(countTransactions(), storage.getMaxTransactionId(userId), calculateSummary(),
+                getTransactionsPage(null, 0, WorkingSetSnapshot.ROWS));
     }
 
     public void closeDatabase() {
-        dbManager.close();
+        if (journal != null) {
+            journalSubscription.close();
+            journal.close();
+            try {
+                takeSnapshot().save(userId);
+            } catch (IOException e) {
+                System.err.println("⚠ Could not save startup snapshot: " + e.getMessage());
+            }
+        }
+        close();
+        storage.close();
+    }
+
+    // Stops this controller's own work but leaves storage open, for when several controllers
+    // share one storage (the API server keeps one per user)
+    public void close() {
+        executor.shutdown();
     }
-}
\ No newline at end of file
+}
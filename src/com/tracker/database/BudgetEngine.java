@@ -0,0 +1,164 @@
+package com.tracker.database;
+
+import com.tracker.model.BudgetStatus;
+import com.tracker.model.Money;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+
+// Keeps actual-expense totals per (category, month) next to the budgets table so a month's
+// List<BudgetStatus> is built from the budgets alone, without re-aggregating transactions.
+// DatabaseManager feeds it every committed write; when a write pushes a budget across its
+// alert threshold or past 100%, listeners are told straight away.
+public class BudgetEngine {
+    public interface AlertListener {
+        void onBudgetAlert(int categoryId, YearMonth month, BudgetStatus status);
+    }
+
+    private static class Budget {
+        private final int categoryId;
+        private double monthlyLimit;
+        private double alertThreshold;
+
+        Budget(int categoryId, double monthlyLimit, double alertThreshold) {
+            this.categoryId = categoryId;
+            this.monthlyLimit = monthlyLimit;
+            this.alertThreshold = alertThreshold;
+        }
+    }
+
+    // Centavos, keyed by (categoryId << 32 | year * 12 + month - 1)
+    private final Map<Long, Long> spending = new HashMap<>();
+    private final Map<Long, Budget> budgets = new HashMap<>();
+    private final Map<YearMonth, List<Budget>> budgetsByMonth = new HashMap<>();
+    private final IntFunction<String> categoryNames;
+    private final List<AlertListener> listeners = new CopyOnWriteArrayList<>();
+
+    public BudgetEngine(IntFunction<String> categoryNames) {
+        this.categoryNames = categoryNames;
+    }
+
+    public void addAlertListener(AlertListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeAlertListener(AlertListener listener) {
+        listeners.remove(listener);
+    }
+
+    // LOADING (DatabaseManager fills these from the budgets table and one GROUP BY at startup)
+    public synchronized void loadSpending(int categoryId, YearMonth month, long cents) {
+        spending.merge(key(categoryId, month), cents, Long::sum);
+    }
+
+    public synchronized void loadBudget(int categoryId, YearMonth month, double monthlyLimit, double alertThreshold) {
+        putBudget(categoryId, month, monthlyLimit, alertThreshold);
+    }
+
+    // WRITES
+    // Only actual (non-expected) expenses count against a budget
+    public void recordExpense(String type, boolean isExpected, int categoryId, LocalDate date, long centsDelta) {
+        if (!"expense".equals(type) || isExpected || centsDelta == 0) return;
+        YearMonth month = YearMonth.from(date);
+        BudgetStatus alert = null;
+        synchronized (this) {
+            long key = key(categoryId, month);
+            long before = spending.getOrDefault(key, 0L);
+            long after = before + centsDelta;
+            spending.put(key, after);
+
+            Budget budget = budgets.get(key);
+            if (budget != null && crossedAlertLevel(budget, before, after)) {
+                alert = status(budget, after);
+            }
+        }
+        if (alert != null) fire(categoryId, month, alert);
+    }
+
+    public void setBudget(int categoryId, YearMonth month, double monthlyLimit, double alertThreshold) {
+        BudgetStatus alert = null;
+        synchronized (this) {
+            long key = key(categoryId, month);
+            Budget old = budgets.get(key);
+            long spent = spending.getOrDefault(key, 0L);
+            boolean wasAlerting = old != null && utilization(old, spent) >= old.alertThreshold;
+
+            Budget budget = putBudget(categoryId, month, monthlyLimit, alertThreshold);
+            if (!wasAlerting && utilization(budget, spent) >= budget.alertThreshold) {
+                alert = status(budget, spent);
+            }
+        }
+        if (alert != null) fire(categoryId, month, alert);
+    }
+
+    // READS
+    // O(budgets in that month): every number comes from the accumulators
+    public synchronized List<BudgetStatus> getBudgetStatuses(YearMonth month) {
+        List<BudgetStatus> statuses = new ArrayList<>();
+        for (Budget budget : budgetsByMonth.getOrDefault(month, List.of())) {
+            statuses.add(status(budget, spending.getOrDefault(key(budget.categoryId, month), 0L)));
+        }
+        return statuses;
+    }
+
+    // null if no budget is set for that category and month
+    public synchronized BudgetStatus getBudgetStatus(int categoryId, YearMonth month) {
+        long key = key(categoryId, month);
+        Budget budget = budgets.get(key);
+        return budget == null ? null : status(budget, spending.getOrDefault(key, 0L));
+    }
+
+    // Centavos
+    public synchronized long getSpending(int categoryId, YearMonth month) {
+        return spending.getOrDefault(key(categoryId, month), 0L);
+    }
+
+    private Budget putBudget(int categoryId, YearMonth month, double monthlyLimit, double alertThreshold) {
+        long key = key(categoryId, month);
+        Budget budget = budgets.get(key);
+        if (budget == null) {
+            budget = new Budget(categoryId, monthlyLimit, alertThreshold);
+            budgets.put(key, budget);
+            budgetsByMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(budget);
+        } else {
+            budget.monthlyLimit = monthlyLimit;
+            budget.alertThreshold = alertThreshold;
+        }
+        return budget;
+    }
+
+    // True when the write moved utilization from below a level to at/above it,
+    // for either the alert threshold or the limit itself
+    private static boolean crossedAlertLevel(Budget budget, long before, long after) {
+        double from = utilization(budget, before);
+        double to = utilization(budget, after);
+        return (from < budget.alertThreshold && to >= budget.alertThreshold) || (from < 100 && to >= 100);
+    }
+
+    private static double utilization(Budget budget, long spentCents) {
+        return budget.monthlyLimit > 0 ? Money.toDouble(spentCents) * 100 / budget.monthlyLimit : 0;
+    }
+
+    private BudgetStatus status(Budget budget, long spentCents) {
+        return new BudgetStatus(categoryNames.apply(budget.categoryId), budget.monthlyLimit,
+                                Money.toDouble(spentCents), utilization(budget, spentCents), budget.alertThreshold);
+    }
+
+    // Listeners run outside the lock so they may call back into the engine
+    private void fire(int categoryId, YearMonth month, BudgetStatus status) {
+        System.out.println("⚠ Budget " + status.getStatus() + ": " + status.getCategoryName() +
+            String.format(" at %.0f%% of ₱%.2f", status.getUtilizationPercent(), status.getMonthlyLimit()));
+        for (AlertListener listener : listeners) {
+            listener.onBudgetAlert(categoryId, month, status);
+        }
+    }
+
+    private static long key(int categoryId, YearMonth month) {
+        return ((long) categoryId << 32) | (month.getYear() * 12 + month.getMonthValue() - 1);
+    }
+}
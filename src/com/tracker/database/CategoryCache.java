@@ -0,0 +1,81 @@
+package com.tracker.database;
+
+import com.tracker.model.Category;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Categories keyed by categoryId in an open-addressing int map, so transaction rows can be
+// given their category name without a JOIN. Readers never lock: each load builds a new
+// immutable table and publishes it in one volatile write. Any code that changes the
+// categories table calls invalidate(), and the next read reloads.
+public class CategoryCache {
+    private final AtomicLong version = new AtomicLong();
+    private volatile Table table = new Table(Collections.emptyList(), -1);
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    public boolean isCurrent() {
+        return table.loadedVersion == version.get();
+    }
+
+    // versionAtQuery must be read before the categories were queried, so an
+    // invalidate() that races with the query still forces another reload
+    public void load(List<Category> categories, long versionAtQuery) {
+        table = new Table(categories, versionAtQuery);
+    }
+
+    public Category get(int categoryId) {
+        return table.get(categoryId);
+    }
+
+    // In "ORDER BY type, name" order, as loaded
+    public List<Category> getAll() {
+        return table.ordered;
+    }
+
+    private static class Table {
+        private final int[] keys;
+        private final Category[] values;
+        private final int mask;
+        private final List<Category> ordered;
+        private final long loadedVersion;
+
+        Table(List<Category> categories, long loadedVersion) {
+            this.ordered = Collections.unmodifiableList(categories);
+            this.loadedVersion = loadedVersion;
+            // Power-of-two capacity at most half full keeps probe chains short
+            int capacity = Integer.highestOneBit(Math.max(4, categories.size() * 2 - 1)) << 1;
+            keys = new int[capacity];
+            values = new Category[capacity];
+            mask = capacity - 1;
+            for (Category category : categories) {
+                int slot = slot(category.getCategoryId());
+                while (values[slot] != null && keys[slot] != category.getCategoryId()) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = category.getCategoryId();
+                values[slot] = category;
+            }
+        }
+
+        Category get(int categoryId) {
+            int slot = slot(categoryId);
+            while (values[slot] != null) {
+                if (keys[slot] == categoryId) return values[slot];
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slot(int key) {
+            return (key * 0x9E3779B9) >>> 16 & mask;
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package com.tracker.database;
+
+import com.tracker.model.Transaction;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Column-per-field copy of the transactions table for analytics. Each row is ~23 bytes of
+// primitives spread over parallel arrays instead of a Transaction object with a LocalDate
+// and three Strings, and the aggregation methods below run MoneyKernels over those arrays.
+// Loaded by DatabaseManager.enableColumnarStore() and kept in sync by its write paths.
+public class ColumnarTransactionStore {
+    // Type codes stored in the low two bits of flags; bit 2 is is_expected
+    public static final int TYPE_ALLOWANCE = 0;
+    public static final int TYPE_EXPENSE = 1;
+    public static final int TYPE_SAVINGS = 2;
+    public static final int TYPE_OTHER = 3;
+    private static final int TYPE_MASK = 0b011;
+    public static final int EXPECTED_BIT = 0b100;
+    // Payment methods are free text (CSV, API); the distinct ones past this share OTHER_PAYMENT
+    private static final int MAX_PAYMENT_METHODS = Character.MAX_VALUE - 1;
+    private static final char OTHER_PAYMENT = Character.MAX_VALUE;
+    public static final String OTHER_PAYMENT_METHOD = "Other";
+    // sumByCategoryAndMonth never splits a row range shorter than this, and with one core not at all
+    private static final int PARALLEL_ROWS = Integer.getInteger("tracker.reports.parallelRows", 1 << 16);
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    private int[] ids = new int[0];
+    private int[] epochDays = new int[0];
+    private int[] categoryIds = new int[0];
+    private long[] amountCents = new long[0];
+    private byte[] flags = new byte[0];
+    // Index into paymentMethods (unsigned 16 bits); 0 means no payment method
+    private char[] paymentCodes = new char[0];
+    private final List<String> paymentMethods = new ArrayList<>(List.of(""));
+    private final Map<String, Integer> paymentCodeByName = new HashMap<>();
+    private int size;
+    // Largest category id ever stored; sizes the per-category result arrays
+    private int maxCategoryId;
+
+    // transaction_id -> row, open addressing with linear probing (key 0 = empty slot)
+    private int[] indexKeys = new int[16];
+    private int[] indexRows = new int[16];
+    private int indexCount;
+
+    // Ids written through the hooks while the initial load streams in; the load must not
+    // overwrite them with its older snapshot of the row
+    private Set<Integer> touchedDuringLoad;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // LOADING
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void loadRow(int id, LocalDate date, int categoryId, long amountCents, String type,
+                        boolean isExpected, String paymentMethod) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad != null && touchedDuringLoad.contains(id)) return;
+            put(id, date, categoryId, amountCents, type, isExpected, paymentMethod);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // WRITES (called by DatabaseManager after a successful commit)
+    // Insert, or overwrite if the id is already present
+    public void upsert(int id, LocalDate date, int categoryId, long amountCents, String type,
+                       boolean isExpected, String paymentMethod) {
+        lock.writeLock().lock();
+        try {
+            touch(id);
+            put(id, date, categoryId, amountCents, type, isExpected, paymentMethod);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Transaction t) {
+        upsert(t.getId(), t.getDate(), t.getCategoryId(), t.getAmountCents(), t.getType(),
+               t.isExpected(), t.getPaymentMethod());
+    }
+
+    // updateTransaction() can't change type or expected, so those columns are left alone
+    public void update(int id, LocalDate date, int categoryId, long amountCents, String paymentMethod) {
+        lock.writeLock().lock();
+        try {
+            touch(id);
+            int row = findRow(id);
+            if (row < 0) return;
+            epochDays[row] = (int) date.toEpochDay();
+            categoryIds[row] = categoryId;
+            maxCategoryId = Math.max(maxCategoryId, categoryId);
+            this.amountCents[row] = amountCents;
+            paymentCodes[row] = paymentCode(paymentMethod);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves the last row into the hole, so rows are not kept in any particular order
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            touch(id);
+            int row = findRow(id);
+            if (row < 0) return;
+            indexRemove(id);
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                epochDays[row] = epochDays[last];
+                categoryIds[row] = categoryIds[last];
+                amountCents[row] = amountCents[last];
+                flags[row] = flags[last];
+                paymentCodes[row] = paymentCodes[last];
+                indexPut(ids[row], row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            Arrays.fill(indexKeys, 0);
+            indexCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // AGGREGATION (allocation-free; results go into caller-supplied arrays)
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every row's cents
+    public long sumAll() {
+        lock.readLock().lock();
+        try {
+            return MoneyKernels.sum(amountCents, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // out[typeCode * 2 + (expected ? 1 : 0)] += cents, for all rows; out must have length >= 8
+    public void sumByTypeAndExpected(long[] out) {
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                int f = flags[i];
+                out[((f & TYPE_MASK) << 1) | ((f & EXPECTED_BIT) >>> 2)] += amountCents[i];
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Total cents for one type/expected pair between two epoch days (inclusive)
+    public long sumCents(int typeCode, boolean expected, int fromEpochDay, int toEpochDay) {
+        int wanted = typeCode | (expected ? EXPECTED_BIT : 0);
+        lock.readLock().lock();
+        try {
+            return MoneyKernels.sumWhere(amountCents, flags, wanted, epochDays, fromEpochDay, toEpochDay, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // out[categoryId] += cents for actual (non-expected) rows of the given type;
+    // out must be longer than the largest categoryId
+    public void sumByCategory(int typeCode, long[] out) {
+        lock.readLock().lock();
+        try {
+            MoneyKernels.sumByKey(amountCents, flags, typeCode, categoryIds, out, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // out[epochMonth - firstEpochMonth] += cents for actual rows of the given type,
+    // where epochMonth = year * 12 + (month - 1); rows outside the window are skipped
+    public void sumByMonth(int typeCode, int firstEpochMonth, long[] out) {
+        lock.readLock().lock();
+        try {
+            MoneyKernels.sumByMonth(amountCents, flags, typeCode, epochDays, firstEpochMonth, out, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Actual rows of one type dated within [fromEpochDay, toEpochDay], summed per (category, month),
+    // where the months run from firstEpochMonth for as many as the window needs. Rows are not
+    // kept in date order, so the work is split by row range instead: halves are summed as
+    // fork-join tasks on the common pool, each into its own primitive arrays, and the arrays
+    // are added together on the way back up. Writers wait for the whole scan.
+    public CategoryMonthTotals sumByCategoryAndMonth(int typeCode, int fromEpochDay, int toEpochDay) {
+        int firstEpochMonth = epochMonth(fromEpochDay);
+        int months = epochMonth(toEpochDay) - firstEpochMonth + 1;
+        lock.readLock().lock();
+        try {
+            int categories = maxCategoryId + 1;
+            // About four ranges per core, so a slow one can be balanced by stealing
+            int grain = CORES == 1 ? Integer.MAX_VALUE : Math.max(PARALLEL_ROWS, size / (CORES * 4));
+            long[][] sums = new PivotTask(typeCode, fromEpochDay, toEpochDay, firstEpochMonth, months,
+                    categories, grain, 0, size).invoke();
+            return new CategoryMonthTotals(firstEpochMonth, months, categories, sums[0], sums[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Result of sumByCategoryAndMonth; cell (categoryId, month index) is categoryId * months + month
+    public static class CategoryMonthTotals {
+        private final int firstEpochMonth;
+        private final int months;
+        private final int categories;
+        private final long[] cents;
+        private final long[] counts;
+
+        CategoryMonthTotals(int firstEpochMonth, int months, int categories, long[] cents, long[] counts) {
+            this.firstEpochMonth = firstEpochMonth;
+            this.months = months;
+            this.categories = categories;
+            this.cents = cents;
+            this.counts = counts;
+        }
+
+        public int getFirstEpochMonth() { return firstEpochMonth; }
+        public int getMonths() { return months; }
+        // Category ids run from 0 to getCategories() - 1
+        public int getCategories() { return categories; }
+        public long getCents(int categoryId, int month) { return cents[categoryId * months + month]; }
+        public long getCount(int categoryId, int month) { return counts[categoryId * months + month]; }
+    }
+
+    // Runs inside sumByCategoryAndMonth's read lock: the caller holds it until invoke() returns,
+    // and fork/join orders the workers' reads after the caller took it. Never serialized,
+    // although RecursiveTask is Serializable.
+    @SuppressWarnings("serial")
+    private class PivotTask extends RecursiveTask<long[][]> {
+        private final int typeCode;
+        private final int fromEpochDay;
+        private final int toEpochDay;
+        private final int firstEpochMonth;
+        private final int months;
+        private final int categories;
+        private final int grain;
+        private final int start;
+        private final int end;
+
+        PivotTask(int typeCode, int fromEpochDay, int toEpochDay, int firstEpochMonth, int months,
+                  int categories, int grain, int start, int end) {
+            this.typeCode = typeCode;
+            this.fromEpochDay = fromEpochDay;
+            this.toEpochDay = toEpochDay;
+            this.firstEpochMonth = firstEpochMonth;
+            this.months = months;
+            this.categories = categories;
+            this.grain = grain;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (end - start <= grain) {
+                long[] cents = new long[categories * months];
+                long[] counts = new long[categories * months];
+                MoneyKernels.sumByKeyAndMonth(amountCents, flags, typeCode, categoryIds, epochDays, fromEpochDay,
+                        toEpochDay, firstEpochMonth, months, cents, counts, start, end);
+                return new long[][] { cents, counts };
+            }
+            int middle = (start + end) >>> 1;
+            PivotTask left = new PivotTask(typeCode, fromEpochDay, toEpochDay, firstEpochMonth, months,
+                    categories, grain, start, middle);
+            left.fork();
+            long[][] right = new PivotTask(typeCode, fromEpochDay, toEpochDay, firstEpochMonth, months,
+                    categories, grain, middle, end).compute();
+            long[][] merged = left.join();
+            for (int i = 0; i < merged[0].length; i++) {
+                merged[0][i] += right[0][i];
+                merged[1][i] += right[1][i];
+            }
+            return merged;
+        }
+    }
+
+    // year * 12 + (month - 1) for an epoch day, without going through LocalDate
+    // (civil-from-days, H. Hinnant)
+    public static int epochMonth(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    public static int epochMonth(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    public static int typeCode(String type) {
+        if ("allowance".equals(type)) return TYPE_ALLOWANCE;
+        if ("expense".equals(type)) return TYPE_EXPENSE;
+        if ("savings".equals(type)) return TYPE_SAVINGS;
+        return TYPE_OTHER;
+    }
+
+    // MEMORY
+    // Bytes per row held by the arrays and the id index at their current capacity
+    public double bytesPerRow() {
+        lock.readLock().lock();
+        try {
+            if (size == 0) return 0;
+            long bytes = ids.length * (4L + 4 + 4 + 8 + 1 + 2) + indexKeys.length * 8L;
+            return (double) bytes / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Shallow estimate of what the same rows cost as a List<Transaction>, assuming a 64-bit
+    // JVM with compressed oops (12-byte headers, 4-byte references, 8-byte alignment)
+    public static double transactionListBytesPerRow(List<Transaction> transactions) {
+        if (transactions.isEmpty()) return 0;
+        long bytes = 0;
+        for (Transaction t : transactions) {
+            bytes += 4;                        // ArrayList slot
+            bytes += align(12 + 4 + 4 + 5 * 4 + 8 + 1); // Transaction
+            bytes += align(12 + 4 + 2 + 2);    // LocalDate
+            bytes += stringBytes(t.getDescription());
+            bytes += stringBytes(t.getPaymentMethod());
+            // categoryName and type are usually shared instances, so not counted
+        }
+        return (double) bytes / transactions.size();
+    }
+
+    public void printMemoryReport(List<Transaction> sample) {
+        System.out.println(String.format(
+            "  → Columnar store: %d rows, %.1f bytes/row (List<Transaction>: ~%.1f bytes/row)",
+            size(), bytesPerRow(), transactionListBytesPerRow(sample)));
+    }
+
+    private static long stringBytes(String s) {
+        if (s == null) return 0;
+        return align(12 + 4 + 4 + 1 + 1) + align(16 + s.length()); // String + Latin-1 byte[]
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // INTERNALS (callers hold the write lock)
+    private void touch(int id) {
+        if (touchedDuringLoad != null) touchedDuringLoad.add(id);
+    }
+
+    private void put(int id, LocalDate date, int categoryId, long amountCents, String type,
+                     boolean isExpected, String paymentMethod) {
+        int row = findRow(id);
+        if (row < 0) {
+            ensureCapacity(size + 1);
+            row = size++;
+            ids[row] = id;
+            indexPut(id, row);
+        }
+        epochDays[row] = (int) date.toEpochDay();
+        categoryIds[row] = categoryId;
+        maxCategoryId = Math.max(maxCategoryId, categoryId);
+        this.amountCents[row] = amountCents;
+        flags[row] = (byte) (typeCode(type) | (isExpected ? EXPECTED_BIT : 0));
+        paymentCodes[row] = paymentCode(paymentMethod);
+    }
+
+    // Runs inside the write hooks after the row is stored, so it must never throw
+    private char paymentCode(String paymentMethod) {
+        if (paymentMethod == null || paymentMethod.isEmpty()) return 0;
+        Integer code = paymentCodeByName.get(paymentMethod);
+        if (code == null) {
+            if (paymentMethods.size() > MAX_PAYMENT_METHODS) return OTHER_PAYMENT;
+            code = paymentMethods.size();
+            paymentMethods.add(paymentMethod);
+            paymentCodeByName.put(paymentMethod, code);
+        }
+        return (char) code.intValue();
+    }
+
+    public String paymentMethodAt(int code) {
+        lock.readLock().lock();
+        try {
+            if (code == 0) return null;
+            return code == OTHER_PAYMENT ? OTHER_PAYMENT_METHOD : paymentMethods.get(code);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int capacity = Math.max(needed, Math.max(16, ids.length + (ids.length >> 1)));
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        paymentCodes = Arrays.copyOf(paymentCodes, capacity);
+    }
+
+    private int findRow(int id) {
+        int mask = indexKeys.length - 1;
+        for (int slot = hash(id) & mask; indexKeys[slot] != 0; slot = (slot + 1) & mask) {
+            if (indexKeys[slot] == id) return indexRows[slot];
+        }
+        return -1;
+    }
+
+    private void indexPut(int id, int row) {
+        if ((indexCount + 1) * 2 > indexKeys.length) rehash(indexKeys.length * 2);
+        int mask = indexKeys.length - 1;
+        int slot = hash(id) & mask;
+        while (indexKeys[slot] != 0 && indexKeys[slot] != id) slot = (slot + 1) & mask;
+        if (indexKeys[slot] == 0) indexCount++;
+        indexKeys[slot] = id;
+        indexRows[slot] = row;
+    }
+
+    private void indexRemove(int id) {
+        int mask = indexKeys.length - 1;
+        int slot = hash(id) & mask;
+        while (indexKeys[slot] != id) {
+            if (indexKeys[slot] == 0) return;
+            slot = (slot + 1) & mask;
+        }
+        indexKeys[slot] = 0;
+        indexCount--;
+        // Re-insert the rest of the probe chain so lookups past the hole still work
+        for (int next = (slot + 1) & mask; indexKeys[next] != 0; next = (next + 1) & mask) {
+            int key = indexKeys[next];
+            int row = indexRows[next];
+            indexKeys[next] = 0;
+            indexCount--;
+            indexPut(key, row);
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = indexKeys;
+        int[] oldRows = indexRows;
+        indexKeys = new int[capacity];
+        indexRows = new int[capacity];
+        indexCount = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) indexPut(oldKeys[i], oldRows[i]);
+        }
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,447 @@
+package com.tracker.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Small JDBC connection pool so DatabaseManager calls can run in parallel.
+// Connections handed out are proxies: calling close() returns them to the pool.
+// Each physical connection also keeps an LRU cache of its PreparedStatements keyed by SQL
+// text, so a repeated query skips the prepare round trip; closing a cached statement just
+// hands it back to the cache.
+public class ConnectionPool implements ConnectionPoolMBean {
+    // Connections used within this window are trusted without a validation ping
+    private static final long VALIDATION_SKIP_MILLIS = 500;
+    private static final long HOUSEKEEPING_INTERVAL_SECONDS = 30;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long borrowTimeoutMillis)
+            throws SQLException {
+        this(url, user, password, minSize, maxSize, idleTimeoutMillis, maxLifetimeMillis, borrowTimeoutMillis, 0);
+    }
+
+    // statementCacheSize is per connection; 0 turns statement caching off
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long borrowTimeoutMillis,
+                          int statementCacheSize) throws SQLException {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        // Open the minimum up front so a bad URL/password fails fast
+        fillToMinimum();
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, HOUSEKEEPING_INTERVAL_SECONDS,
+                HOUSEKEEPING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                    "Timed out after " + borrowTimeoutMillis + " ms waiting for a connection (" +
+                    activeConnections.get() + "/" + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            int active = activeConnections.incrementAndGet();
+            peakActive.accumulateAndGet(active, Math::max);
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        // LIFO keeps the hottest connections in use and lets the rest age out
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) return pooled;
+            discard(pooled);
+        }
+        return create();
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (now - pooled.createdAt >= maxLifetimeMillis) return false;
+        if (now - pooled.lastUsedAt < VALIDATION_SKIP_MILLIS) return true;
+        try {
+            return pooled.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        activeConnections.decrementAndGet();
+        try {
+            boolean reusable = !closed && !pooled.physical.isClosed()
+                && System.currentTimeMillis() - pooled.createdAt < maxLifetimeMillis;
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                // Never hand out a connection with someone else's open transaction
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                discard(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        evictedCount.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    private void fillToMinimum() throws SQLException {
+        while (!closed && totalConnections.get() < minSize) {
+            idle.offerLast(create());
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pooled = it.next();
+            boolean expired = now - pooled.createdAt >= maxLifetimeMillis;
+            boolean idleTooLong = now - pooled.lastUsedAt >= idleTimeoutMillis
+                && totalConnections.get() > minSize;
+            if ((expired || idleTooLong) && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+        try {
+            fillToMinimum();
+        } catch (SQLException e) {
+            System.err.println("⚠ Connection pool could not refill: " + e.getMessage());
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // STATISTICS
+    public int getActiveCount() { return activeConnections.get(); }
+    public int getIdleCount() { return idle.size(); }
+    public int getTotalCount() { return totalConnections.get(); }
+    public int getMaxSize() { return maxSize; }
+    public int getPeakActiveCount() { return peakActive.get(); }
+    public int getWaitingThreadCount() { return permits.getQueueLength(); }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getTimeoutCount() { return timeoutCount.get(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getEvictedCount() { return evictedCount.get(); }
+    public long getStatementCacheHits() { return statementHits.get(); }
+    public long getStatementCacheMisses() { return statementMisses.get(); }
+    public long getStatementCacheEvictions() { return statementEvictions.get(); }
+
+    public double getStatementCacheHitPercent() {
+        long lookups = statementHits.get() + statementMisses.get();
+        return lookups == 0 ? 0 : statementHits.get() * 100.0 / lookups;
+    }
+
+    // Share of the maximum pool size currently checked out, 0-100
+    public double getUtilizationPercent() {
+        return activeConnections.get() * 100.0 / maxSize;
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public void printStats() {
+        System.out.println(String.format(
+            "  → Pool: %d active / %d idle / %d max (peak %d, %.0f%% used), " +
+            "avg wait %.3f ms, max wait %.3f ms, %d timeouts",
+            getActiveCount(), getIdleCount(), maxSize, getPeakActiveCount(), getUtilizationPercent(),
+            getAverageWaitMillis(), getMaxWaitMillis(), getTimeoutCount()));
+        if (statementCacheSize > 0) {
+            System.out.println(String.format(
+                "  → Statement cache: %d hits / %d misses (%.1f%% hit), %d evicted, %d per connection",
+                getStatementCacheHits(), getStatementCacheMisses(), getStatementCacheHitPercent(),
+                getStatementCacheEvictions(), statementCacheSize));
+        }
+    }
+
+    public void close() {
+        closed = true;
+        if (housekeeper != null) housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    // One physical connection plus the bookkeeping the pool needs
+    private class PooledConnection {
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsedAt = createdAt;
+
+        // Access order makes this an LRU; only the current borrower touches it
+        private final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= statementCacheSize) return false;
+                statementEvictions.incrementAndGet();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement prepareCached(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "keys:" + sql : sql;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.evicted) {
+                // Its statement was closed after a failed reset; prepare a fresh one in its place
+                statements.remove(key);
+                cached = null;
+            }
+            if (cached != null && !cached.inUse) {
+                statementHits.incrementAndGet();
+                cached.inUse = true;
+                return cached.proxy;
+            }
+            statementMisses.incrementAndGet();
+            PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+            // The same SQL is already open on this lease: hand out a plain, uncached statement
+            if (cached != null) return statement;
+
+            cached = new CachedStatement(key, statement);
+            cached.inUse = true;
+            statements.put(key, cached);
+            return cached.proxy;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new LeaseHandler(this));
+        }
+    }
+
+    // Routes calls to the physical connection until the borrower closes it
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pooled.physical + "]";
+                case "prepareStatement":
+                    // Only prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached;
+                    // the result-set-type variants are used for streaming and keep their own settings
+                    if (!returned && statementCacheSize > 0 && (args.length == 1
+                            || (args.length == 2 && args[1] instanceof Integer))) {
+                        return pooled.prepareCached((String) args[0],
+                            args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS);
+                    }
+                    return forward(method, args);
+                default:
+                    return forward(method, args);
+            }
+        }
+
+        private Object forward(Method method, Object[] args) throws Throwable {
+            if (returned) throw new SQLException("Connection already returned to the pool");
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // A PreparedStatement that stays open in its connection's cache. The proxy's close()
+    // clears parameters and batch and marks it free; the physical statement is only closed
+    // when it is evicted or its connection is discarded.
+    private class CachedStatement implements InvocationHandler {
+        private final String key;
+        private final PreparedStatement physical;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(String key, PreparedStatement physical) {
+            this.key = key;
+            this.physical = physical;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                this);
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) closePhysical();
+        }
+
+        private void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // The connection is probably gone; nothing else to do
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!inUse) return null;
+                    inUse = false;
+                    if (evicted) {
+                        closePhysical();
+                        return null;
+                    }
+                    try {
+                        physical.clearParameters();
+                        physical.clearBatch();
+                    } catch (SQLException e) {
+                        evicted = true;
+                        closePhysical();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + key + "]";
+                default:
+                    if (!inUse) throw new SQLException("Statement already closed");
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.tracker.database;
+
+// Pool gauges and counters as JMX sees them (com.tracker:type=ConnectionPool)
+public interface ConnectionPoolMBean {
+    int getActiveCount();
+    int getIdleCount();
+    int getTotalCount();
+    int getMaxSize();
+    int getPeakActiveCount();
+    int getWaitingThreadCount();
+    long getBorrowCount();
+    long getTimeoutCount();
+    long getCreatedCount();
+    long getEvictedCount();
+    double getUtilizationPercent();
+    double getAverageWaitMillis();
+    double getMaxWaitMillis();
+    long getStatementCacheHits();
+    long getStatementCacheMisses();
+    long getStatementCacheEvictions();
+    double getStatementCacheHitPercent();
+}
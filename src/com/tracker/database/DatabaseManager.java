@@ -1,20 +1,96 @@
 package com.tracker.database;
 
+import com.tracker.events.ChangeEvent;
+import com.tracker.events.ChangeEventBus;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.OperationStats;
 import com.tracker.model.*;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
-public class DatabaseManager {
-    // XAMPP MySQL Connection Settings
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/allowance_tracker?useSSL=false&serverTimezone=UTC";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "";  // XAMPP default: empty password
+public class DatabaseManager implements TrackerStorage {
+    // XAMPP MySQL Connection Settings (-Dtracker.db.url etc. point the app at another database)
+    private static final String DB_URL = System.getProperty("tracker.db.url",
+                                         "jdbc:mysql://localhost:3306/allowance_tracker?useSSL=false&serverTimezone=UTC" +
+                                         "&rewriteBatchedStatements=true&useServerPrepStmts=true");
+    private static final String DB_USER = System.getProperty("tracker.db.user", "root");
+    private static final String DB_PASSWORD = System.getProperty("tracker.db.password", "");  // XAMPP default: empty password
+
+    // Connection pool settings (override with -Dtracker.pool.maxSize=20 etc.)
+    private static final int POOL_MIN_SIZE = Integer.getInteger("tracker.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("tracker.pool.maxSize", 10);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("tracker.pool.idleTimeoutMs", 10 * 60 * 1000L);
+    private static final long POOL_MAX_LIFETIME_MS = Long.getLong("tracker.pool.maxLifetimeMs", 30 * 60 * 1000L);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("tracker.pool.borrowTimeoutMs", 5000L);
+    // Prepared statements kept open per connection (0 disables the cache)
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("tracker.pool.statementCacheSize", 64);
+    
+    // Users whose summary and budgets are kept in memory; the least recently used are dropped
+    private static final int MAX_CACHED_USERS = Integer.getInteger("tracker.cache.maxUsers", 256);
+    // Recent change events kept for replay; a subscriber further behind than this resyncs
+    private static final int EVENT_RING_SIZE = Integer.getInteger("tracker.events.ringSize", 4096);
+
+    // How often the in-memory summary is re-checked against a full SUM (0 disables)
+    private static final long SUMMARY_RECONCILE_MINUTES = Long.getLong("tracker.summary.reconcileMinutes", 5L);
+    // Group commit for single-row writes: a group is committed after WRITE_BEHIND_MAX_DELAY_MS
+    // or WRITE_BEHIND_MAX_GROUP writes, whichever comes first
+    private static final boolean WRITE_BEHIND = Boolean.getBoolean("tracker.writeBehind");
+    private static final long WRITE_BEHIND_MAX_DELAY_MS = Long.getLong("tracker.writeBehind.maxDelayMs", 5L);
+    private static final int WRITE_BEHIND_MAX_GROUP = Integer.getInteger("tracker.writeBehind.maxGroup", 500);
+    private static final int WRITE_BEHIND_CAPACITY = Integer.getInteger("tracker.writeBehind.capacity", 10_000);
     
-    private Connection connection;
+    // Timings per operation; browse them over JMX under com.tracker > Operation
+    private static final OperationStats ADD_TRANSACTION = Metrics.operation("db.addTransaction");
+    private static final OperationStats ADD_TRANSACTIONS = Metrics.operation("db.addTransactions");
+    private static final OperationStats ADD_BUDGET = Metrics.operation("db.addBudget");
+    private static final OperationStats GET_ALL_TRANSACTIONS = Metrics.operation("db.getAllTransactions");
+    private static final OperationStats GET_TRANSACTIONS_PAGE = Metrics.operation("db.getTransactionsPage");
+    private static final OperationStats STREAM_TRANSACTIONS = Metrics.operation("db.streamTransactions");
+    private static final OperationStats QUERY_TRANSACTIONS = Metrics.operation("db.queryTransactions");
+    private static final OperationStats COUNT_TRANSACTIONS = Metrics.operation("db.countTransactions");
+    private static final OperationStats GET_TRANSACTIONS_AFTER_ID = Metrics.operation("db.getTransactionsAfterId");
+    private static final OperationStats LOAD_CATEGORIES = Metrics.operation("db.loadCategories");
+    private static final OperationStats UPDATE_TRANSACTION = Metrics.operation("db.updateTransaction");
+    private static final OperationStats DELETE_TRANSACTION = Metrics.operation("db.deleteTransaction");
+    private static final OperationStats WRITE_GROUP = Metrics.operation("db.writeBehindGroup");
+    private static final OperationStats CALCULATE_SUMMARY = Metrics.operation("db.calculateSummary");
+    private static final OperationStats RECONCILE_SUMMARY = Metrics.operation("db.reconcileSummary");
+    private static final OperationStats REBUILD_ROLLUPS = Metrics.operation("db.rebuildRollups");
+    private static final OperationStats GET_MONTHLY_SUMMARIES = Metrics.operation("db.getMonthlySummaries");
+    private static final OperationStats GET_CATEGORY_TOTALS = Metrics.operation("db.getCategoryTotals");
+    private static final OperationStats GET_BUDGET_STATUSES = Metrics.operation("db.getBudgetStatuses");
+    private static final OperationStats LOAD_BUDGET_ENGINE = Metrics.operation("db.loadBudgetEngine");
+    private static final OperationStats ENABLE_COLUMNAR_STORE = Metrics.operation("db.enableColumnarStore");
+    private static final OperationStats ENABLE_SEARCH_INDEX = Metrics.operation("db.enableSearchIndex");
+    private static final OperationStats SEARCH_TRANSACTIONS = Metrics.operation("db.searchTransactions");
+    
+    private ConnectionPool pool;
+    // Per-user in-memory state; categories are shared by every user
+    private final UserPartitions partitions = new UserPartitions(MAX_CACHED_USERS,
+            userId -> new UserPartition(userId, this::getCategoryName));
+    private final CategoryCache categoryCache = new CategoryCache();
+    private volatile long lastCategoryMissReload;
+    // Every committed change is published here; subscribers outlive partition eviction
+    private final ChangeEventBus events = new ChangeEventBus(EVENT_RING_SIZE);
+    // Created on the first report; see getReportEngine()
+    private volatile ReportEngine reports;
+    private final Object reportsLock = new Object();
+    private ScheduledExecutorService maintenance;
+    private WriteBehindQueue writeBehind;
 
     public DatabaseManager() {
         initializeDatabase();
@@ -23,13 +99,39 @@ public class DatabaseManager {
     private void initializeDatabase() {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
-            connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            System.out.println("✓ Connected to MySQL (XAMPP) successfully!");
+            pool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                    POOL_IDLE_TIMEOUT_MS, POOL_MAX_LIFETIME_MS, POOL_BORROW_TIMEOUT_MS, POOL_STATEMENT_CACHE_SIZE);
+            Metrics.registerMBean("com.tracker:type=ConnectionPool", pool);
+            System.out.println("✓ Connected to MySQL (XAMPP) successfully! (pool " +
+                    POOL_MIN_SIZE + "-" + POOL_MAX_SIZE + " connections)");
+
+            // Creates missing tables and indexes before anything queries them
+            new MigrationRunner(pool).migrate();
+            checkQueryPlans();
             
             // Auto-create default user if missing
             ensureDefaultUserExists();
             
             printDatabaseStats();
+
+            backfillRollupsIfEmpty();
+            // Other users are loaded on first use; the default user is warmed up here
+            partition(DEFAULT_USER_ID);
+            startMaintenance();
+            
+            if (WRITE_BEHIND) {
+                writeBehind = new WriteBehindQueue(new WriteBehindQueue.GroupWriter() {
+                    public void writeGroup(List<WriteBehindQueue.Write> group) throws SQLException {
+                        DatabaseManager.this.writeGroup(group);
+                    }
+                    public void writeFailed(WriteBehindQueue.Write write, Exception error) {
+                        DatabaseManager.this.writeFailed(write, error);
+                    }
+                }, WRITE_BEHIND_CAPACITY, WRITE_BEHIND_MAX_DELAY_MS, WRITE_BEHIND_MAX_GROUP);
+                Metrics.registerMBean("com.tracker:type=WriteBehindQueue", writeBehind);
+                System.out.println("✓ Write-behind enabled (group commit every " + WRITE_BEHIND_MAX_DELAY_MS +
+                        " ms or " + WRITE_BEHIND_MAX_GROUP + " writes)");
+            }
         } catch (ClassNotFoundException e) {
             System.err.println("✗ MySQL JDBC Driver not found!");
             System.err.println("  Add mysql-connector-java-8.0.33.jar to lib/ folder");
@@ -46,190 +148,1452 @@ public class DatabaseManager {
     // Auto-create default user if not exists
     private void ensureDefaultUserExists() {
         try {
-            Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users WHERE user_id = 1");
-            
-            if (rs.next() && rs.getInt(1) == 0) {
+            if (!userExists(DEFAULT_USER_ID)) {
                 // TODO: Change these to your personal details!
                 String userName = "Your Name";  // ← CHANGE THIS
                 String userEmail = "your.email@gmail.com";  // ← CHANGE THIS
                 
-                String insertUser = String.format(
-                    "INSERT INTO users (user_id, name, email) VALUES (1, '%s', '%s')",
-                    userName, userEmail
-                );
-                stmt.executeUpdate(insertUser);
+                try (Connection conn = pool.getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(
+                         "INSERT INTO users (user_id, name, email) VALUES (?, ?, ?)")) {
+                    pstmt.setInt(1, DEFAULT_USER_ID);
+                    pstmt.setString(2, userName);
+                    pstmt.setString(3, userEmail);
+                    pstmt.executeUpdate();
+                }
                 System.out.println("✓ Personal account created: " + userName);
             } else {
                 System.out.println("✓ Personal account ready");
             }
-            stmt.close();
         } catch (SQLException e) {
             System.err.println("⚠ Warning: Could not verify user account");
             e.printStackTrace();
         }
     }
 
-    // CREATE
-    public int addTransaction(Transaction transaction) {
-        String sql = "INSERT INTO transactions (user_id, category_id, description, amount, " +
-                    "transaction_type, is_expected, payment_method, transaction_date) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setInt(1, 1);
-            pstmt.setInt(2, transaction.getCategoryId());
-            pstmt.setString(3, transaction.getDescription());
-            pstmt.setDouble(4, transaction.getAmount());
-            pstmt.setString(5, transaction.getType());
-            pstmt.setBoolean(6, transaction.isExpected());
-            pstmt.setString(7, transaction.getPaymentMethod());
-            pstmt.setDate(8, Date.valueOf(transaction.getDate()));
-            
+    // USERS
+    // False if the lookup fails as well
+    public boolean userExists(int userId) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM users WHERE user_id = ?")) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            System.err.println("✗ Error looking up user " + userId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Returns the new user's id, or -1 on error
+    public int addUser(String name, String email) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO users (name, email) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, name);
+            pstmt.setString(2, email);
             pstmt.executeUpdate();
-            ResultSet keys = pstmt.getGeneratedKeys();
-            if (keys.next()) {
-                System.out.println("✓ Transaction added: ID " + keys.getInt(1));
-                return keys.getInt(1);
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    System.out.println("✓ User created: " + name + " (ID " + keys.getInt(1) + ")");
+                    return keys.getInt(1);
+                }
             }
         } catch (SQLException e) {
-            System.err.println("✗ Error adding transaction: " + e.getMessage());
+            System.err.println("✗ Error creating user: " + e.getMessage());
         }
         return -1;
     }
 
-    public void addBudget(int categoryId, double monthlyLimit, double alertThreshold, String monthYear) {
-        String sql = "INSERT INTO budgets (user_id, category_id, monthly_limit, alert_threshold, month_year) " +
-                    "VALUES (1, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
-                    "monthly_limit = VALUES(monthly_limit), alert_threshold = VALUES(alert_threshold)";
+    // PARTITIONS
+    // The user's in-memory state, loaded from the database the first time it is needed
+    private UserPartition partition(int userId) {
+        UserPartition partition = partitions.get(userId);
+        ensureLoaded(partition);
+        return partition;
+    }
+
+    // Same, pinned against eviction until partition.getSummary().endWrite()
+    private UserPartition beginWrite(int userId) {
+        UserPartition partition = partitions.beginWrite(userId);
+        ensureLoaded(partition);
+        return partition;
+    }
+
+    // Writers pin the partition before loading it and only touch the table afterwards, so
+    // the load sees exactly the writes committed before it and deltas cover the rest
+    private void ensureLoaded(UserPartition partition) {
+        if (partition.isLoaded()) return;
+        synchronized (partition) {
+            if (partition.isLoaded()) return;
+            int userId = partition.getUserId();
+            reconcileSummary(partition);
+            loadBudgetEngine(partition);
+            partition.getBudgets().addAlertListener((categoryId, month, status) ->
+                events.publish(new ChangeEvent.BudgetChanged(userId, categoryId, month, status, true)));
+            partition.markLoaded();
+        }
+    }
+
+    // CREATE
+    public int addTransaction(int userId, Transaction transaction) {
+        try (OperationStats.Sample sample = ADD_TRANSACTION.start()) {
+            if (writeBehind != null) return awaitWrite(submitAddTransaction(userId, transaction));
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, categoryId);
-            pstmt.setDouble(2, monthlyLimit);
-            pstmt.setDouble(3, alertThreshold);
-            pstmt.setString(4, monthYear);
-            pstmt.executeUpdate();
-            System.out.println("✓ Budget set for category " + categoryId);
+            UserPartition partition = beginWrite(userId);
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                // The rollup row changes in the same transaction as the insert
+                insertRows(conn, userId, List.of(transaction));
+                conn.commit();
+            
+                if (transaction.getId() > 0) {
+                    applyInserted(partition, transaction);
+                    System.out.println("✓ Transaction added: ID " + transaction.getId());
+                    sample.rows(1);
+                    return transaction.getId();
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error adding transaction: " + e.getMessage());
+            } finally {
+                partition.getSummary().endWrite();
+            }
+            return -1;
+        }
+    }
+
+    // Bulk insert: rows are sent with addBatch/executeBatch and each chunk of batchSize rows
+    // is committed as one transaction. Generated ids are written back into the Transaction
+    // objects. Returns how many rows were inserted; a failed chunk is rolled back and stops the run.
+    public int addTransactions(int userId, Iterable<Transaction> transactions) {
+        return addTransactions(userId, transactions, DEFAULT_BATCH_SIZE);
+    }
+
+    public int addTransactions(int userId, Iterable<Transaction> transactions, int batchSize) {
+        try (OperationStats.Sample sample = ADD_TRANSACTIONS.start()) {
+            int inserted = 0;
+        
+            UserPartition partition = beginWrite(userId);
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                List<Transaction> chunk = new ArrayList<>(batchSize);
+            
+                for (Transaction transaction : transactions) {
+                    chunk.add(transaction);
+                    if (chunk.size() >= batchSize) {
+                        inserted += flushBatch(conn, partition, chunk);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    inserted += flushBatch(conn, partition, chunk);
+                }
+                System.out.println("✓ Batch insert: " + inserted + " transactions added");
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error in batch insert after " + inserted + " rows: " + e.getMessage());
+            } finally {
+                partition.getSummary().endWrite();
+            }
+            sample.rows(inserted);
+            return inserted;
+        }
+    }
+
+    private int flushBatch(Connection conn, UserPartition partition, List<Transaction> chunk) throws SQLException {
+        try {
+            insertRows(conn, partition.getUserId(), chunk);
+            conn.commit();
         } catch (SQLException e) {
-            System.err.println("✗ Error setting budget: " + e.getMessage());
+            conn.rollback();
+            throw e;
+        }
+        
+        for (Transaction transaction : chunk) {
+            applyInserted(partition, transaction);
+        }
+        int count = chunk.size();
+        chunk.clear();
+        return count;
+    }
+
+    public void addBudget(int userId, int categoryId, double monthlyLimit, double alertThreshold, String monthYear) {
+        try (OperationStats.Sample sample = ADD_BUDGET.start()) {
+            String sql = "INSERT INTO budgets (user_id, category_id, monthly_limit, alert_threshold, month_year) " +
+                        "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                        "monthly_limit = VALUES(monthly_limit), alert_threshold = VALUES(alert_threshold)";
+        
+            UserPartition partition = partition(userId);
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, categoryId);
+                pstmt.setDouble(3, monthlyLimit);
+                pstmt.setDouble(4, alertThreshold);
+                pstmt.setString(5, monthYear);
+                pstmt.executeUpdate();
+                System.out.println("✓ Budget set for category " + categoryId);
+                YearMonth month = parseMonthYear(monthYear);
+                if (month != null) {
+                    partition.getBudgets().setBudget(categoryId, month, monthlyLimit, alertThreshold);
+                    events.publish(new ChangeEvent.BudgetChanged(userId, categoryId, month,
+                            partition.getBudgets().getBudgetStatus(categoryId, month), false));
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error setting budget: " + e.getMessage());
+            }
         }
     }
 
     // READ
-    public List<Transaction> getAllTransactions() {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT t.*, c.name as category_name, c.icon FROM transactions t " +
-                    "JOIN categories c ON t.category_id = c.category_id " +
-                    "WHERE t.user_id = 1 ORDER BY t.transaction_date DESC, t.transaction_id DESC";
+    // Category names come from categoryCache rather than a JOIN on every row
+    static final String TRANSACTION_COLUMNS =
+        "t.transaction_id, t.category_id, t.transaction_date, t.description, t.amount, " +
+        "t.transaction_type, t.is_expected, t.payment_method";
+
+    public List<Transaction> getAllTransactions(int userId) {
+        try (OperationStats.Sample sample = GET_ALL_TRANSACTIONS.start()) {
+            List<Transaction> transactions = new ArrayList<>();
+            String sql = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions t " +
+                        "WHERE t.user_id = ? ORDER BY t.transaction_date DESC, t.transaction_id DESC";
+            if (!categoryCache.isCurrent()) loadCategories();
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                transactions.add(new Transaction(
-                    rs.getInt("transaction_id"),
-                    rs.getInt("category_id"),
-                    rs.getString("category_name"),
-                    rs.getDate("transaction_date").toLocalDate(),
-                    rs.getString("description"),
-                    rs.getDouble("amount"),
-                    rs.getString("transaction_type"),
-                    rs.getBoolean("is_expected"),
-                    rs.getString("payment_method")
-                ));
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(mapTransaction(rs, categoryCache));
+                    }
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error fetching transactions: " + e.getMessage());
+            }
+            fillMissingCategoryNames(transactions);
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    // Keyset pagination in the same order as getAllTransactions(). Pass afterDate = null for the
+    // first page, otherwise the date and id of the last row of the previous page. Seeking past
+    // (date, id) stays cheap however deep the page is, unlike OFFSET.
+    private static String transactionsPageSql(boolean seek) {
+        return "SELECT " + TRANSACTION_COLUMNS + " FROM transactions t " +
+               "WHERE t.user_id = ?" +
+               (seek ? " AND (t.transaction_date < ? OR (t.transaction_date = ? AND t.transaction_id < ?))" : "") +
+               " ORDER BY t.transaction_date DESC, t.transaction_id DESC LIMIT ?";
+    }
+
+    public List<Transaction> getTransactionsPage(int userId, LocalDate afterDate, int afterId, int limit) {
+        try (OperationStats.Sample sample = GET_TRANSACTIONS_PAGE.start()) {
+            List<Transaction> transactions = new ArrayList<>();
+            String sql = transactionsPageSql(afterDate != null);
+            if (!categoryCache.isCurrent()) loadCategories();
+
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                int i = 2;
+                if (afterDate != null) {
+                    pstmt.setDate(i++, Date.valueOf(afterDate));
+                    pstmt.setDate(i++, Date.valueOf(afterDate));
+                    pstmt.setInt(i++, afterId);
+                }
+                pstmt.setInt(i, limit);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(mapTransaction(rs, categoryCache));
+                    }
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error fetching transaction page: " + e.getMessage());
+            }
+            fillMissingCategoryNames(transactions);
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    // Streams matching rows to the handler straight off the socket (Connector/J streaming
+    // mode), so memory use does not grow with the result size. Any filter left null is
+    // not applied. Returns the number of rows handed to the handler, or -1 on error.
+    public long streamTransactions(int userId, LocalDate fromDate, LocalDate toDate, Integer categoryId,
+                                   String type, TransactionRowHandler handler) {
+        try (OperationStats.Sample sample = STREAM_TRANSACTIONS.start()) {
+            StringBuilder sql = new StringBuilder(
+                "SELECT " + TRANSACTION_COLUMNS + " FROM transactions t WHERE t.user_id = ?");
+            if (fromDate != null) sql.append(" AND t.transaction_date >= ?");
+            if (toDate != null) sql.append(" AND t.transaction_date <= ?");
+            if (categoryId != null) sql.append(" AND t.category_id = ?");
+            if (type != null) sql.append(" AND t.transaction_type = ?");
+            sql.append(" ORDER BY t.transaction_date, t.transaction_id");
+            if (!categoryCache.isCurrent()) loadCategories();
+
+            long rows = 0;
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql.toString(),
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // MIN_VALUE tells Connector/J to stream rows one at a time instead of buffering them all
+                pstmt.setFetchSize(Integer.MIN_VALUE);
+                pstmt.setInt(1, userId);
+                int i = 2;
+                if (fromDate != null) pstmt.setDate(i++, Date.valueOf(fromDate));
+                if (toDate != null) pstmt.setDate(i++, Date.valueOf(toDate));
+                if (categoryId != null) pstmt.setInt(i++, categoryId);
+                if (type != null) pstmt.setString(i++, type);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        handler.onRow(rs);
+                        rows++;
+                    }
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error streaming transactions after " + rows + " rows: " + e.getMessage());
+                return -1;
+            }
+            sample.rows(rows);
+            return rows;
+        }
+    }
+
+    // streamTransactions() for callers that should not depend on JDBC; category names are filled in
+    public long forEachTransaction(int userId, LocalDate fromDate, LocalDate toDate, Integer categoryId,
+                                   String type, Consumer<Transaction> action) {
+        return streamTransactions(userId, fromDate, toDate, categoryId, type,
+                rs -> action.accept(mapTransaction(rs, categoryCache)));
+    }
+
+    // Filtered reads (TransactionQuery). Each query is compiled to SQL once per shape: which
+    // filters are set, the padded size of the category IN list, the sort and whether it seeks
+    // past a previous page. Values are always bound as parameters, so one shape is one SQL
+    // string, and the pool's statement cache keeps it prepared on every connection. There are
+    // at most a few hundred shapes, so the map is never trimmed.
+    private static final Map<String, String> COMPILED_QUERIES = new ConcurrentHashMap<>();
+
+    public List<Transaction> queryTransactions(int userId, TransactionQuery query) {
+        try (OperationStats.Sample sample = QUERY_TRANSACTIONS.start()) {
+            List<Transaction> transactions = new ArrayList<>();
+            String sql = COMPILED_QUERIES.computeIfAbsent(queryShape(query), shape -> compileQuery(query));
+            if (!categoryCache.isCurrent()) loadCategories();
+
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                bindQuery(pstmt, userId, query);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(mapTransaction(rs, categoryCache));
+                    }
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error querying transactions: " + e.getMessage());
+            }
+            fillMissingCategoryNames(transactions);
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    // IN lists are padded to a power of two, like getTransactionsByIds()
+    private static int categoryParams(TransactionQuery query) {
+        int n = query.getCategoryIds().size();
+        return n <= 1 ? n : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static String queryShape(TransactionQuery query) {
+        int filters = (query.getFromDate() != null ? 1 : 0) | (query.getToDate() != null ? 2 : 0) |
+                      (query.getType() != null ? 4 : 0) | (query.getExpected() != null ? 8 : 0) |
+                      (query.getPaymentMethod() != null ? 16 : 0) | (query.getMinAmountCents() != null ? 32 : 0) |
+                      (query.getMaxAmountCents() != null ? 64 : 0) | (query.getAfter() != null ? 128 : 0);
+        return filters + "/" + categoryParams(query) + "/" + query.getSort();
+    }
+
+    // Plain column comparisons only, so user_id plus a date range (or a category) is a range
+    // scan on idx_transactions_user_date (or idx_transactions_user_category), and the date
+    // sorts read that index in order and stop at LIMIT
+    private static String compileQuery(TransactionQuery query) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT " + TRANSACTION_COLUMNS + " FROM transactions t WHERE t.user_id = ?");
+        if (query.getFromDate() != null) sql.append(" AND t.transaction_date >= ?");
+        if (query.getToDate() != null) sql.append(" AND t.transaction_date <= ?");
+        int categories = categoryParams(query);
+        if (categories > 0) sql.append(" AND t.category_id IN (").append("?, ".repeat(categories - 1)).append("?)");
+        if (query.getType() != null) sql.append(" AND t.transaction_type = ?");
+        if (query.getExpected() != null) sql.append(" AND t.is_expected = ?");
+        if (query.getPaymentMethod() != null) sql.append(" AND t.payment_method = ?");
+        if (query.getMinAmountCents() != null) sql.append(" AND t.amount >= ?");
+        if (query.getMaxAmountCents() != null) sql.append(" AND t.amount <= ?");
+
+        boolean byDate = query.getSort() == TransactionQuery.Sort.DATE_DESC || query.getSort() == TransactionQuery.Sort.DATE_ASC;
+        boolean descending = query.getSort() == TransactionQuery.Sort.DATE_DESC || query.getSort() == TransactionQuery.Sort.AMOUNT_DESC;
+        String key = byDate ? "t.transaction_date" : "t.amount";
+        String direction = descending ? " DESC" : "";
+        if (query.getAfter() != null) {
+            // Keyset seek past the previous page's last row, as in getTransactionsPage()
+            String past = descending ? " < ?" : " > ?";
+            sql.append(" AND (").append(key).append(past).append(" OR (").append(key)
+               .append(" = ? AND t.transaction_id").append(past).append("))");
+        }
+        sql.append(" ORDER BY ").append(key).append(direction).append(", t.transaction_id").append(direction)
+           .append(" LIMIT ?");
+        return sql.toString();
+    }
+
+    // Same order as compileQuery() appends the placeholders
+    private static void bindQuery(PreparedStatement pstmt, int userId, TransactionQuery query) throws SQLException {
+        int i = 1;
+        pstmt.setInt(i++, userId);
+        if (query.getFromDate() != null) pstmt.setDate(i++, Date.valueOf(query.getFromDate()));
+        if (query.getToDate() != null) pstmt.setDate(i++, Date.valueOf(query.getToDate()));
+        int categories = categoryParams(query);
+        int lastCategory = 0;
+        for (int categoryId : query.getCategoryIds()) {
+            pstmt.setInt(i++, categoryId);
+            lastCategory = categoryId;
+        }
+        // Padding repeats the last id, which changes nothing
+        for (int pad = query.getCategoryIds().size(); pad < categories; pad++) pstmt.setInt(i++, lastCategory);
+        if (query.getType() != null) pstmt.setString(i++, query.getType());
+        if (query.getExpected() != null) pstmt.setBoolean(i++, query.getExpected());
+        if (query.getPaymentMethod() != null) pstmt.setString(i++, query.getPaymentMethod());
+        if (query.getMinAmountCents() != null) pstmt.setBigDecimal(i++, Money.toDecimal(query.getMinAmountCents()));
+        if (query.getMaxAmountCents() != null) pstmt.setBigDecimal(i++, Money.toDecimal(query.getMaxAmountCents()));
+        Transaction after = query.getAfter();
+        if (after != null) {
+            boolean byDate = query.getSort() == TransactionQuery.Sort.DATE_DESC || query.getSort() == TransactionQuery.Sort.DATE_ASC;
+            for (int k = 0; k < 2; k++) {
+                if (byDate) pstmt.setDate(i++, Date.valueOf(after.getDate()));
+                else pstmt.setBigDecimal(i++, Money.toDecimal(after.getAmountCents()));
+            }
+            pstmt.setInt(i++, after.getId());
+        }
+        pstmt.setInt(i, query.getLimit());
+    }
+
+    private static final String COUNT_TRANSACTIONS_SQL = "SELECT COUNT(*) FROM transactions WHERE user_id = ?";
+
+    public int countTransactions(int userId) {
+        try (OperationStats.Sample sample = COUNT_TRANSACTIONS.start()) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(COUNT_TRANSACTIONS_SQL)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) return rs.getInt(1);
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error counting transactions: " + e.getMessage());
+            }
+            return 0;
+        }
+    }
+
+    // Both seek on the primary key: ids only grow, so the rows a client has not seen yet are
+    // at the top of it and neither query walks the user's older rows
+    private static final String TRANSACTIONS_AFTER_ID_SQL = "SELECT " + TRANSACTION_COLUMNS +
+        " FROM transactions t WHERE t.transaction_id > ? AND t.user_id = ? ORDER BY t.transaction_id LIMIT ?";
+    private static final String MAX_TRANSACTION_ID_SQL =
+        "SELECT transaction_id FROM transactions WHERE user_id = ? ORDER BY transaction_id DESC LIMIT 1";
+
+    public List<Transaction> getTransactionsAfterId(int userId, int afterId, int limit) {
+        try (OperationStats.Sample sample = GET_TRANSACTIONS_AFTER_ID.start()) {
+            List<Transaction> transactions = new ArrayList<>();
+            if (!categoryCache.isCurrent()) loadCategories();
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(TRANSACTIONS_AFTER_ID_SQL)) {
+                pstmt.setInt(1, afterId);
+                pstmt.setInt(2, userId);
+                pstmt.setInt(3, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(mapTransaction(rs, categoryCache));
+                    }
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error fetching new transactions: " + e.getMessage());
+            }
+            fillMissingCategoryNames(transactions);
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    public int getMaxTransactionId(int userId) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(MAX_TRANSACTION_ID_SQL)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("✗ Error fetching transactions: " + e.getMessage());
+            System.err.println("✗ Error reading the last transaction id: " + e.getMessage());
         }
-        return transactions;
+        return 0;
     }
 
+    // Static and package-private so the benchmarks can time it on its own.
+    // Names come only from the cache: no database access while the caller holds a connection.
+    static Transaction mapTransaction(ResultSet rs, CategoryCache categories) throws SQLException {
+        Category category = categories.get(rs.getInt("category_id"));
+        return Transaction.ofCents(
+            rs.getInt("transaction_id"),
+            rs.getInt("category_id"),
+            category == null ? null : category.getName(),
+            rs.getDate("transaction_date").toLocalDate(),
+            rs.getString("description"),
+            getCents(rs, "amount"),
+            rs.getString("transaction_type"),
+            rs.getBoolean("is_expected"),
+            rs.getString("payment_method")
+        );
+    }
+
+    // DECIMAL(10,2) -> centavos, exactly; getDouble would round through binary floating point
+    static long getCents(ResultSet rs, String column) throws SQLException {
+        return Money.toCents(rs.getBigDecimal(column));
+    }
+
+    // Served from categoryCache; only hits the database after invalidateCategories()
     public List<Category> getAllCategories() {
-        List<Category> categories = new ArrayList<>();
-        String sql = "SELECT * FROM categories ORDER BY type, name";
+        if (!categoryCache.isCurrent()) loadCategories();
+        return new ArrayList<>(categoryCache.getAll());
+    }
+
+    public Category getCategory(int categoryId) {
+        if (!categoryCache.isCurrent()) loadCategories();
+        Category category = categoryCache.get(categoryId);
+        long now = System.currentTimeMillis();
+        if (category == null && now - lastCategoryMissReload > 1000) {
+            // Probably added by someone else since we loaded; reload, but at most once a second
+            lastCategoryMissReload = now;
+            categoryCache.invalidate();
+            loadCategories();
+            category = categoryCache.get(categoryId);
+        }
+        return category;
+    }
+
+    public String getCategoryName(int categoryId) {
+        Category category = getCategory(categoryId);
+        return category == null ? "" : category.getName();
+    }
+
+    // Used while a query holds a connection, so it never goes back to the database;
+    // rows it could not name are fixed up by fillMissingCategoryNames afterwards
+    private void fillMissingCategoryNames(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            if (transaction.getCategoryName() == null) {
+                transaction.setCategoryName(getCategoryName(transaction.getCategoryId()));
+            }
+        }
+    }
+
+    // Call after anything that changes the categories table
+    public void invalidateCategories() {
+        categoryCache.invalidate();
+    }
+
+    private synchronized void loadCategories() {
+        try (OperationStats.Sample sample = LOAD_CATEGORIES.start()) {
+            if (categoryCache.isCurrent()) return;
+            long version = categoryCache.getVersion();
+            List<Category> categories = new ArrayList<>();
+            String sql = "SELECT category_id, name, type, icon FROM categories ORDER BY type, name";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
             
-            while (rs.next()) {
-                categories.add(new Category(
-                    rs.getInt("category_id"),
-                    rs.getString("name"),
-                    rs.getString("type"),
-                    rs.getString("icon")
-                ));
+                while (rs.next()) {
+                    categories.add(new Category(
+                        rs.getInt("category_id"),
+                        rs.getString("name"),
+                        rs.getString("type"),
+                        rs.getString("icon")
+                    ));
+                }
+                categoryCache.load(categories, version);
+                sample.rows(categories.size());
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error fetching categories: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("✗ Error fetching categories: " + e.getMessage());
         }
-        return categories;
     }
 
     // UPDATE
-    public void updateTransaction(int id, String description, double amount, 
-                                  int categoryId, String paymentMethod, LocalDate date) {
+    public int updateTransactionCents(int userId, int id, String description, long amountCents,
+                                      int categoryId, String paymentMethod, LocalDate date) {
+        try (OperationStats.Sample sample = UPDATE_TRANSACTION.start()) {
+            if (writeBehind != null) {
+                return awaitWrite(submitUpdate(userId, Transaction.ofCents(id, categoryId, null, date, description,
+                        amountCents, null, false, paymentMethod)));
+            }
+        
+            UserPartition partition = beginWrite(userId);
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                StoredRow old = updateRow(conn, userId, id, description, amountCents, categoryId, paymentMethod, date);
+                conn.commit();
+                if (old != null) {
+                    applyUpdated(partition, id, old, description, amountCents, categoryId, paymentMethod, date);
+                    System.out.println("✓ Transaction " + id + " updated");
+                    return 1;
+                }
+                System.err.println("⚠ Transaction " + id + " not found for user " + userId);
+                return 0;
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error updating transaction: " + e.getMessage());
+                return -1;
+            } finally {
+                partition.getSummary().endWrite();
+            }
+        }
+    }
+
+    // DELETE
+    public int deleteTransaction(int userId, int transactionId) {
+        try (OperationStats.Sample sample = DELETE_TRANSACTION.start()) {
+            if (writeBehind != null) {
+                return awaitWrite(submitDeleteTransaction(userId, transactionId));
+            }
+        
+            UserPartition partition = beginWrite(userId);
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                StoredRow old = deleteRow(conn, userId, transactionId);
+                conn.commit();
+                if (old != null) {
+                    applyDeleted(partition, transactionId, old);
+                    System.out.println("✓ Transaction " + transactionId + " deleted");
+                    return 1;
+                }
+                System.err.println("⚠ Transaction " + transactionId + " not found for user " + userId);
+                return 0;
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error deleting transaction: " + e.getMessage());
+                return -1;
+            } finally {
+                partition.getSummary().endWrite();
+            }
+        }
+    }
+
+    // ROW WRITES
+    // Each helper runs inside the caller's transaction and keeps transaction_rollups in step
+    private static final String INSERT_TRANSACTION =
+        "INSERT INTO transactions (user_id, category_id, description, amount, " +
+        "transaction_type, is_expected, payment_method, transaction_date) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // One executeBatch for all rows; generated ids are written back into the Transactions
+    private void insertRows(Connection conn, int userId, List<Transaction> rows) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TRANSACTION, Statement.RETURN_GENERATED_KEYS)) {
+            for (Transaction transaction : rows) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, transaction.getCategoryId());
+                pstmt.setString(3, transaction.getDescription());
+                pstmt.setBigDecimal(4, Money.toDecimal(transaction.getAmountCents()));
+                pstmt.setString(5, transaction.getType());
+                pstmt.setBoolean(6, transaction.isExpected());
+                pstmt.setString(7, transaction.getPaymentMethod());
+                pstmt.setDate(8, Date.valueOf(transaction.getDate()));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                for (int i = 0; i < rows.size() && keys.next(); i++) {
+                    rows.get(i).setId(keys.getInt(1));
+                }
+            }
+        }
+        applyRollupDeltas(conn, userId, rows);
+    }
+
+    // Returns the row as it was before the update, or null if the user has no such row
+    private StoredRow updateRow(Connection conn, int userId, int id, String description, long amountCents,
+                                int categoryId, String paymentMethod, LocalDate date) throws SQLException {
         String sql = "UPDATE transactions SET description=?, amount=?, category_id=?, " +
                     "payment_method=?, transaction_date=? WHERE transaction_id=?";
+        // Lock the row and read the old values so the aggregates can be adjusted by the difference
+        StoredRow old = lockStoredRow(conn, userId, id);
+        if (old == null) return null;
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, description);
-            pstmt.setDouble(2, amount);
+            pstmt.setBigDecimal(2, Money.toDecimal(amountCents));
             pstmt.setInt(3, categoryId);
             pstmt.setString(4, paymentMethod);
             pstmt.setDate(5, Date.valueOf(date));
             pstmt.setInt(6, id);
             pstmt.executeUpdate();
-            System.out.println("✓ Transaction " + id + " updated");
-        } catch (SQLException e) {
-            System.err.println("✗ Error updating transaction: " + e.getMessage());
         }
+        // Category and month may change, so move the old amount out and the new one in
+        applyRollupDelta(conn, userId, old.date, old.categoryId, old.type, old.isExpected, -old.amountCents, -1);
+        applyRollupDelta(conn, userId, date, categoryId, old.type, old.isExpected, amountCents, 1);
+        return old;
     }
 
-    // DELETE
-    public void deleteTransaction(int transactionId) {
-        String sql = "DELETE FROM transactions WHERE transaction_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    // Returns the deleted row, or null if the user has no such row
+    private StoredRow deleteRow(Connection conn, int userId, int transactionId) throws SQLException {
+        StoredRow old = lockStoredRow(conn, userId, transactionId);
+        if (old == null) return null;
+        
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM transactions WHERE transaction_id = ?")) {
             pstmt.setInt(1, transactionId);
             pstmt.executeUpdate();
-            System.out.println("✓ Transaction " + transactionId + " deleted");
-        } catch (SQLException e) {
-            System.err.println("✗ Error deleting transaction: " + e.getMessage());
         }
+        applyRollupDelta(conn, userId, old.date, old.categoryId, old.type, old.isExpected, -old.amountCents, -1);
+        return old;
     }
 
-    // SUMMARY CALCULATION
-    public Summary calculateSummary() {
-        String sql = "SELECT " +
-                    "COALESCE(SUM(CASE WHEN transaction_type='allowance' AND is_expected=0 THEN amount ELSE 0 END), 0) as actual_allowance, " +
-                    "COALESCE(SUM(CASE WHEN transaction_type='allowance' AND is_expected=1 THEN amount ELSE 0 END), 0) as expected_allowance, " +
-                    "COALESCE(SUM(CASE WHEN transaction_type='expense' AND is_expected=0 THEN amount ELSE 0 END), 0) as actual_expenses, " +
-                    "COALESCE(SUM(CASE WHEN transaction_type='expense' AND is_expected=1 THEN amount ELSE 0 END), 0) as expected_expenses " +
-                    "FROM transactions WHERE user_id = 1";
+    // Reads the columns the in-memory aggregates depend on and locks the row until the caller commits.
+    // Checking user_id here is what stops one user changing another's rows by id.
+    private StoredRow lockStoredRow(Connection conn, int userId, int transactionId) throws SQLException {
+        String sql = "SELECT amount, transaction_type, is_expected, category_id, transaction_date FROM transactions " +
+                    "WHERE transaction_id = ? AND user_id = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, transactionId);
+            pstmt.setInt(2, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) return null;
+                return new StoredRow(rs.getString("transaction_type"), rs.getBoolean("is_expected"),
+                        getCents(rs, "amount"), rs.getInt("category_id"),
+                        rs.getDate("transaction_date").toLocalDate());
+            }
+        }
+    }
+
+    // IN-MEMORY AGGREGATES (called after commit, so they only ever see durable changes;
+    // write-behind inserts are the exception, see submitAddTransaction). These stay direct
+    // calls rather than bus subscribers: they need the old row values and must never miss
+    // a change. Each one publishes the change once its partition is up to date.
+    private void applyInserted(UserPartition partition, Transaction t) {
+        applyInsertedTotals(partition, t, 1);
+        applyInsertedRow(partition, t);
+    }
+
+    // Everything but the totals, which write-behind applies when the insert is queued
+    private void applyInsertedRow(UserPartition partition, Transaction t) {
+        ColumnarTransactionStore store = partition.getColumnarStore();
+        if (store != null) store.upsert(t);
+        TransactionSearchIndex index = partition.getSearchIndex();
+        if (index != null) index.upsert(t);
+        if (t.getCategoryName() == null || t.getCategoryName().isEmpty()) {
+            t.setCategoryName(getCategoryName(t.getCategoryId()));
+        }
+        events.publish(new ChangeEvent.TransactionAdded(partition.getUserId(), t));
+    }
+
+    private static void applyInsertedTotals(UserPartition partition, Transaction t, int sign) {
+        partition.getSummary().apply(t.getType(), t.isExpected(), sign * t.getAmountCents());
+        partition.getBudgets().recordExpense(t.getType(), t.isExpected(), t.getCategoryId(), t.getDate(),
+                sign * t.getAmountCents());
+    }
+
+    private void applyUpdated(UserPartition partition, int id, StoredRow old, String description, long amountCents,
+                              int categoryId, String paymentMethod, LocalDate date) {
+        partition.getSummary().apply(old.type, old.isExpected, amountCents - old.amountCents);
+        partition.getBudgets().recordExpense(old.type, old.isExpected, old.categoryId, old.date, -old.amountCents);
+        partition.getBudgets().recordExpense(old.type, old.isExpected, categoryId, date, amountCents);
+        ColumnarTransactionStore store = partition.getColumnarStore();
+        if (store != null) store.update(id, date, categoryId, amountCents, paymentMethod);
+        TransactionSearchIndex index = partition.getSearchIndex();
+        if (index != null) index.upsert(id, date, categoryId, description, paymentMethod);
+        // Type and expected flag cannot be edited, so they come from the stored row
+        Transaction updated = Transaction.ofCents(id, categoryId, getCategoryName(categoryId), date, description,
+                amountCents, old.type, old.isExpected, paymentMethod);
+        events.publish(new ChangeEvent.TransactionUpdated(partition.getUserId(), updated, old.date));
+    }
+
+    private void applyDeleted(UserPartition partition, int id, StoredRow old) {
+        partition.getSummary().apply(old.type, old.isExpected, -old.amountCents);
+        partition.getBudgets().recordExpense(old.type, old.isExpected, old.categoryId, old.date, -old.amountCents);
+        ColumnarTransactionStore store = partition.getColumnarStore();
+        if (store != null) store.remove(id);
+        TransactionSearchIndex index = partition.getSearchIndex();
+        if (index != null) index.remove(id);
+        events.publish(new ChangeEvent.TransactionDeleted(partition.getUserId(), id, old.date));
+    }
+
+    // WRITE-BEHIND (-Dtracker.writeBehind=true)
+    // Writes are queued and committed in groups by one writer thread, so a burst of quick
+    // entries costs one commit instead of one each. The futures complete on commit. Inserts
+    // reach the summary and budgets as soon as they are queued (and are taken back out if the
+    // commit fails); updates and deletes need the stored row, so they apply when their group commits.
+    // Without write-behind these run the write on the calling thread and return a completed future.
+    public boolean isWriteBehindEnabled() {
+        return writeBehind != null;
+    }
+
+    public CompletableFuture<Integer> submitAddTransaction(int userId, Transaction transaction) {
+        if (writeBehind == null) return CompletableFuture.completedFuture(addTransaction(userId, transaction));
+        UserPartition partition = beginWrite(userId);
+        applyInsertedTotals(partition, transaction, 1);
+        return submit(partition, WriteBehindQueue.Write.insert(userId, transaction));
+    }
+
+    public CompletableFuture<Integer> submitUpdateTransaction(int userId, int id, String description, double amount,
+                                                              int categoryId, String paymentMethod, LocalDate date) {
+        return submitUpdateTransactionCents(userId, id, description, Money.toCents(amount), categoryId, paymentMethod, date);
+    }
+
+    public CompletableFuture<Integer> submitUpdateTransactionCents(int userId, int id, String description, long amountCents,
+                                                                   int categoryId, String paymentMethod, LocalDate date) {
+        if (writeBehind == null) {
+            return CompletableFuture.completedFuture(updateTransactionCents(userId, id, description, amountCents, categoryId, paymentMethod, date));
+        }
+        return submitUpdate(userId, Transaction.ofCents(id, categoryId, null, date, description,
+                amountCents, null, false, paymentMethod));
+    }
+
+    // changes carries the new values; type and expected flag are ignored, as in updateRow
+    private CompletableFuture<Integer> submitUpdate(int userId, Transaction changes) {
+        UserPartition partition = beginWrite(userId);
+        return submit(partition, WriteBehindQueue.Write.update(userId, changes));
+    }
+
+    public CompletableFuture<Integer> submitDeleteTransaction(int userId, int transactionId) {
+        if (writeBehind == null) {
+            return CompletableFuture.completedFuture(deleteTransaction(userId, transactionId));
+        }
+        UserPartition partition = beginWrite(userId);
+        return submit(partition, WriteBehindQueue.Write.delete(userId, transactionId));
+    }
+
+    private CompletableFuture<Integer> submit(UserPartition partition, WriteBehindQueue.Write write) {
+        // Every beginWrite above is matched here, however the write ends
+        write.getFuture().whenComplete((result, error) -> partition.getSummary().endWrite());
+        return writeBehind.submit(write);
+    }
+
+    private static int awaitWrite(CompletableFuture<Integer> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            return -1; // Already reported by writeFailed
+        }
+    }
+
+    private void writeGroup(List<WriteBehindQueue.Write> group) throws SQLException {
+        try (OperationStats.Sample sample = WRITE_GROUP.start()) {
+            Map<Integer, List<Transaction>> insertsByUser = new LinkedHashMap<>();
+            StoredRow[] oldRows = new StoredRow[group.size()];
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            if (rs.next()) {
-                return new Summary(
-                    rs.getDouble("actual_allowance"),
-                    rs.getDouble("expected_allowance"),
-                    rs.getDouble("actual_expenses"),
-                    rs.getDouble("expected_expenses")
-                );
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    for (int i = 0; i < group.size(); i++) {
+                        WriteBehindQueue.Write write = group.get(i);
+                        Transaction t = write.getTransaction();
+                        switch (write.getKind()) {
+                            case INSERT -> insertsByUser.computeIfAbsent(write.getUserId(), u -> new ArrayList<>()).add(t);
+                            case UPDATE -> oldRows[i] = updateRow(conn, write.getUserId(), t.getId(), t.getDescription(),
+                                    t.getAmountCents(), t.getCategoryId(), t.getPaymentMethod(), t.getDate());
+                            case DELETE -> oldRows[i] = deleteRow(conn, write.getUserId(), write.getTransactionId());
+                        }
+                    }
+                    // New rows cannot be the target of a queued update, so they can go in one batch per user
+                    for (Map.Entry<Integer, List<Transaction>> inserts : insertsByUser.entrySet()) {
+                        insertRows(conn, inserts.getKey(), inserts.getValue());
+                    }
+                    conn.commit();
+                } catch (SQLException | RuntimeException e) {
+                    sample.fail();
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            sample.rows(group.size());
+
+            // Committed from here on: nothing below may throw, or the queue would retry (and
+            // so repeat) writes that are already in the table
+            for (int i = 0; i < group.size(); i++) {
+                WriteBehindQueue.Write write = group.get(i);
+                Transaction t = write.getTransaction();
+                StoredRow old = oldRows[i];
+                switch (write.getKind()) {
+                    case INSERT -> write.setResult(t.getId());
+                    case UPDATE, DELETE -> write.setResult(old != null ? 1 : 0);
+                }
+                try {
+                    // Pinned since the write was queued, so this is the partition it started with
+                    UserPartition partition = partitions.get(write.getUserId());
+                    switch (write.getKind()) {
+                        // Totals were applied when the write was queued
+                        case INSERT -> applyInsertedRow(partition, t);
+                        case UPDATE -> {
+                            if (old != null) applyUpdated(partition, t.getId(), old, t.getDescription(), t.getAmountCents(),
+                                    t.getCategoryId(), t.getPaymentMethod(), t.getDate());
+                        }
+                        case DELETE -> {
+                            if (old != null) applyDeleted(partition, write.getTransactionId(), old);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("⚠ Queued " + write.getKind().name().toLowerCase() +
+                            " committed, but updating the in-memory copies failed: " + e);
+                }
+            }
+        }
+    }
+
+    private void writeFailed(WriteBehindQueue.Write write, Exception error) {
+        System.err.println("✗ Error in queued " + write.getKind().name().toLowerCase() + ": " + error.getMessage());
+        if (write.getKind() == WriteBehindQueue.Kind.INSERT) {
+            applyInsertedTotals(partitions.get(write.getUserId()), write.getTransaction(), -1);
+        }
+    }
+
+    // SUMMARY CALCULATION
+    // O(1): served from the in-memory totals maintained by the write paths
+    public Summary calculateSummary(int userId) {
+        long start = System.nanoTime();
+        UserPartition partition = partition(userId);
+        if (!partition.getSummary().isLoaded()) reconcileSummary(partition);
+        Summary summary = partition.getSummary().snapshot();
+        CALCULATE_SUMMARY.record(System.nanoTime() - start, 0, false);
+        return summary;
+    }
+
+    // Recomputes the user's totals from the table and replaces the in-memory copy.
+    // Runs when a partition is loaded, periodically, and whenever a caller wants to be sure.
+    public Summary reconcileSummary(int userId) {
+        UserPartition partition = partitions.get(userId);
+        if (!partition.isLoaded()) {
+            // Loading reconciles anyway
+            ensureLoaded(partition);
+            return partition.getSummary().snapshot();
+        }
+        return reconcileSummary(partition);
+    }
+
+    private Summary reconcileSummary(UserPartition partition) {
+        SummaryCache summaryCache = partition.getSummary();
+        try (OperationStats.Sample sample = RECONCILE_SUMMARY.start()) {
+            for (int attempt = 0; attempt < 3; attempt++) {
+                long versionBefore = summaryCache.getVersion();
+                Summary fresh = querySummary(partition.getUserId());
+                if (fresh == null) {
+                    sample.fail();
+                    break;
+                }
+                if (summaryCache.resetIfUnchanged(fresh, versionBefore)) return fresh;
+                // A write landed while we were summing; its delta is already applied, so try again
+            }
+            return summaryCache.snapshot();
+        }
+    }
+
+    private static final String SUMMARY_SQL = "SELECT " +
+        "COALESCE(SUM(CASE WHEN transaction_type='allowance' AND is_expected=0 THEN amount ELSE 0 END), 0) as actual_allowance, " +
+        "COALESCE(SUM(CASE WHEN transaction_type='allowance' AND is_expected=1 THEN amount ELSE 0 END), 0) as expected_allowance, " +
+        "COALESCE(SUM(CASE WHEN transaction_type='expense' AND is_expected=0 THEN amount ELSE 0 END), 0) as actual_expenses, " +
+        "COALESCE(SUM(CASE WHEN transaction_type='expense' AND is_expected=1 THEN amount ELSE 0 END), 0) as expected_expenses " +
+        "FROM transactions WHERE user_id = ?";
+
+    private Summary querySummary(int userId) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SUMMARY_SQL)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Summary.ofCents(
+                        getCents(rs, "actual_allowance"),
+                        getCents(rs, "expected_allowance"),
+                        getCents(rs, "actual_expenses"),
+                        getCents(rs, "expected_expenses")
+                    );
+                }
             }
         } catch (SQLException e) {
             System.err.println("✗ Error calculating summary: " + e.getMessage());
         }
-        return new Summary(0, 0, 0, 0);
+        return null;
     }
 
-    public boolean testConnection() {
+    private void startMaintenance() {
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "database-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        if (SUMMARY_RECONCILE_MINUTES > 0) {
+            maintenance.scheduleWithFixedDelay(this::reconcileResidentSummaries, SUMMARY_RECONCILE_MINUTES,
+                    SUMMARY_RECONCILE_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    // Only users currently in memory; the rest are reconciled when they are next loaded
+    private void reconcileResidentSummaries() {
+        for (UserPartition partition : partitions.snapshot()) {
+            if (partition.isLoaded()) reconcileSummary(partition);
+        }
+    }
+
+    // QUERY PLANS
+    // EXPLAIN on the queries every refresh runs. A full scan (type ALL) over more than a handful
+    // of rows means an index from MigrationRunner is missing or the query no longer matches it.
+    private static final long FULL_SCAN_WARN_ROWS = 1000;
+
+    private void checkQueryPlans() {
+        Date today = Date.valueOf(LocalDate.now());
+        int user = DEFAULT_USER_ID;
+        explain("first transaction page", transactionsPageSql(false), user, 200);
+        explain("next transaction page", transactionsPageSql(true), user, today, today, Integer.MAX_VALUE, 200);
+        explain("transaction count", COUNT_TRANSACTIONS_SQL, user);
+        explain("transactions added since startup snapshot", TRANSACTIONS_AFTER_ID_SQL, Integer.MAX_VALUE, user, 100);
+        explain("summary totals", SUMMARY_SQL, user);
+        explain("monthly summaries", MONTHLY_SUMMARIES_SQL, user, "2000-01", "2999-12");
+    }
+
+    private void explain(String label, String sql, Object... params) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long rows = rs.getLong("rows");
+                    if ("ALL".equals(rs.getString("type")) && rows >= FULL_SCAN_WARN_ROWS) {
+                        System.err.println("⚠ Query plan: " + label + " does a full scan of " +
+                                rs.getString("table") + " (~" + rows + " rows, possible keys: " +
+                                rs.getString("possible_keys") + ")");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠ Could not EXPLAIN " + label + ": " + e.getMessage());
+        }
+    }
+
+    // ROLLUPS
+    // transaction_rollups holds SUM(amount) and COUNT(*) per (user, month, category, type,
+    // is_expected). Every write adjusts it inside its own transaction, so range and trend
+    // queries read a few rows per month instead of scanning transactions.
+    private static final String ROLLUP_UPSERT =
+        "INSERT INTO transaction_rollups (user_id, month_year, category_id, transaction_type, " +
+        "is_expected, total_amount, txn_count) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE total_amount = total_amount + VALUES(total_amount), " +
+        "txn_count = txn_count + VALUES(txn_count)";
+
+    // The table itself comes from MigrationRunner (V2)
+    private void backfillRollupsIfEmpty() throws SQLException {
+        boolean empty;
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT EXISTS(SELECT 1 FROM transaction_rollups), EXISTS(SELECT 1 FROM transactions)")) {
+            rs.next();
+            empty = !rs.getBoolean(1) && rs.getBoolean(2);
+        }
+        // First run against an existing database: build the rollups from history
+        if (empty) rebuildRollups();
+    }
+
+    private void applyRollupDelta(Connection conn, int userId, LocalDate date, int categoryId, String type,
+                                  boolean isExpected, long centsDelta, int countDelta) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(ROLLUP_UPSERT)) {
+            bindRollupDelta(pstmt, userId, YearMonth.from(date), categoryId, type, isExpected, centsDelta, countDelta);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // One upsert per distinct rollup key in the chunk rather than one per row
+    private void applyRollupDeltas(Connection conn, int userId, List<Transaction> chunk) throws SQLException {
+        // [cents, count] per key
+        Map<String, long[]> deltas = new HashMap<>();
+        Map<String, Transaction> samples = new HashMap<>();
+        for (Transaction t : chunk) {
+            String key = YearMonth.from(t.getDate()) + "|" + t.getCategoryId() + "|" + t.getType() + "|" + t.isExpected();
+            long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+            delta[0] += t.getAmountCents();
+            delta[1]++;
+            samples.putIfAbsent(key, t);
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(ROLLUP_UPSERT)) {
+            for (Map.Entry<String, long[]> entry : deltas.entrySet()) {
+                Transaction t = samples.get(entry.getKey());
+                bindRollupDelta(pstmt, userId, YearMonth.from(t.getDate()), t.getCategoryId(), t.getType(),
+                        t.isExpected(), entry.getValue()[0], (int) entry.getValue()[1]);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void bindRollupDelta(PreparedStatement pstmt, int userId, YearMonth month, int categoryId, String type,
+                                        boolean isExpected, long centsDelta, int countDelta) throws SQLException {
+        pstmt.setInt(1, userId);
+        pstmt.setString(2, month.toString());
+        pstmt.setInt(3, categoryId);
+        pstmt.setString(4, type);
+        pstmt.setBoolean(5, isExpected);
+        pstmt.setBigDecimal(6, Money.toDecimal(centsDelta));
+        pstmt.setInt(7, countDelta);
+    }
+
+    // Backfill: recomputes every user's rollup rows from transactions in one transaction.
+    // INSERT ... SELECT locks the rows it reads, so concurrent writes wait rather than get lost.
+    public void rebuildRollups() {
+        try (OperationStats.Sample sample = REBUILD_ROLLUPS.start()) {
+            long start = System.nanoTime();
+            try (Connection conn = pool.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                conn.setAutoCommit(false);
+                try {
+                    stmt.executeUpdate("DELETE FROM transaction_rollups");
+                    int rows = stmt.executeUpdate(
+                        "INSERT INTO transaction_rollups (user_id, month_year, category_id, transaction_type, " +
+                        "is_expected, total_amount, txn_count) " +
+                        "SELECT user_id, DATE_FORMAT(transaction_date, '%Y-%m'), category_id, transaction_type, " +
+                        "is_expected, SUM(amount), COUNT(*) FROM transactions " +
+                        "GROUP BY user_id, DATE_FORMAT(transaction_date, '%Y-%m'), category_id, transaction_type, is_expected");
+                    conn.commit();
+                    sample.rows(rows);
+                    System.out.println(String.format("✓ Rollups rebuilt: %d rows in %.0f ms",
+                            rows, (System.nanoTime() - start) / 1e6));
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error rebuilding rollups: " + e.getMessage());
+            }
+        }
+    }
+
+    private static final String MONTHLY_SUMMARIES_SQL = "SELECT month_year, " +
+        "SUM(CASE WHEN transaction_type='allowance' AND is_expected=0 THEN total_amount ELSE 0 END) as actual_allowance, " +
+        "SUM(CASE WHEN transaction_type='allowance' AND is_expected=1 THEN total_amount ELSE 0 END) as expected_allowance, " +
+        "SUM(CASE WHEN transaction_type='expense' AND is_expected=0 THEN total_amount ELSE 0 END) as actual_expenses, " +
+        "SUM(CASE WHEN transaction_type='expense' AND is_expected=1 THEN total_amount ELSE 0 END) as expected_expenses " +
+        "FROM transaction_rollups WHERE user_id = ? AND month_year BETWEEN ? AND ? " +
+        "GROUP BY month_year ORDER BY month_year";
+
+    // Per-month Summary for every month in [from, to] that has data, oldest first (trend views)
+    public Map<YearMonth, Summary> getMonthlySummaries(int userId, YearMonth from, YearMonth to) {
+        try (OperationStats.Sample sample = GET_MONTHLY_SUMMARIES.start()) {
+            Map<YearMonth, Summary> summaries = new LinkedHashMap<>();
+        
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(MONTHLY_SUMMARIES_SQL)) {
+                pstmt.setInt(1, userId);
+                pstmt.setString(2, from.toString());
+                pstmt.setString(3, to.toString());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        summaries.put(YearMonth.parse(rs.getString("month_year")), Summary.ofCents(
+                            getCents(rs, "actual_allowance"),
+                            getCents(rs, "expected_allowance"),
+                            getCents(rs, "actual_expenses"),
+                            getCents(rs, "expected_expenses")
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error fetching monthly summaries: " + e.getMessage());
+            }
+            sample.rows(summaries.size());
+            return summaries;
+        }
+    }
+
+    // One Summary for the whole [from, to] range
+    public Summary getSummary(int userId, YearMonth from, YearMonth to) {
+        long actualAllowance = 0, expectedAllowance = 0, actualExpenses = 0, expectedExpenses = 0;
+        for (Summary month : getMonthlySummaries(userId, from, to).values()) {
+            actualAllowance += month.getActualAllowanceCents();
+            expectedAllowance += month.getExpectedAllowanceCents();
+            actualExpenses += month.getActualExpensesCents();
+            expectedExpenses += month.getExpectedExpensesCents();
+        }
+        return Summary.ofCents(actualAllowance, expectedAllowance, actualExpenses, expectedExpenses);
+    }
+
+    // Actual (non-expected) totals per category for [from, to], largest first; type may be null for all
+    public List<CategoryTotal> getCategoryTotals(int userId, YearMonth from, YearMonth to, String type) {
+        try (OperationStats.Sample sample = GET_CATEGORY_TOTALS.start()) {
+            String sql = "SELECT category_id, transaction_type, SUM(total_amount) AS total, SUM(txn_count) AS txn_count " +
+                        "FROM transaction_rollups WHERE user_id = ? AND is_expected = 0 AND month_year BETWEEN ? AND ?" +
+                        (type == null ? "" : " AND transaction_type = ?") +
+                        " GROUP BY category_id, transaction_type HAVING SUM(txn_count) > 0 ORDER BY total DESC";
+            List<CategoryTotal> totals = new ArrayList<>();
+        
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setString(2, from.toString());
+                pstmt.setString(3, to.toString());
+                if (type != null) pstmt.setString(4, type);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        totals.add(new CategoryTotal(
+                            rs.getInt("category_id"),
+                            null,
+                            rs.getString("transaction_type"),
+                            getCents(rs, "total"),
+                            rs.getInt("txn_count")
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error fetching category totals: " + e.getMessage());
+            }
+            // Names are resolved once the connection is back in the pool
+            List<CategoryTotal> named = new ArrayList<>(totals.size());
+            for (CategoryTotal total : totals) {
+                named.add(new CategoryTotal(total.getCategoryId(), getCategoryName(total.getCategoryId()),
+                        total.getType(), total.getTotalCents(), total.getCount()));
+            }
+            sample.rows(named.size());
+            return named;
+        }
+    }
+
+    // BUDGETS
+    // Statuses for every budget set for that month, from the in-memory accumulators
+    public List<BudgetStatus> getBudgetStatuses(int userId, YearMonth month) {
+        long start = System.nanoTime();
+        List<BudgetStatus> statuses = partition(userId).getBudgets().getBudgetStatuses(month);
+        GET_BUDGET_STATUSES.record(System.nanoTime() - start, statuses.size(), false);
+        return statuses;
+    }
+
+    // Committed changes of every user, including budget alerts (BudgetChanged.isAlert())
+    public ChangeEventBus getEventBus() {
+        return events;
+    }
+
+    public ReportEngine getReportEngine() {
+        ReportEngine engine = reports;
+        if (engine != null) return engine;
+        synchronized (reportsLock) {
+            if (reports == null) reports = new ReportEngine(this);
+            return reports;
+        }
+    }
+
+    // Reads the user's budgets and expense rollups; writes keep it current after that
+    private void loadBudgetEngine(UserPartition partition) {
+        try (OperationStats.Sample sample = LOAD_BUDGET_ENGINE.start()) {
+            BudgetEngine budgetEngine = partition.getBudgets();
+            String budgetSql = "SELECT category_id, monthly_limit, alert_threshold, month_year FROM budgets WHERE user_id = ?";
+            String spendingSql = "SELECT category_id, month_year, total_amount AS spent FROM transaction_rollups " +
+                                "WHERE user_id = ? AND transaction_type = 'expense' AND is_expected = 0";
+        
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement budgetStmt = conn.prepareStatement(budgetSql);
+                 PreparedStatement spendingStmt = conn.prepareStatement(spendingSql)) {
+                budgetStmt.setInt(1, partition.getUserId());
+                spendingStmt.setInt(1, partition.getUserId());
+                try (ResultSet rs = budgetStmt.executeQuery()) {
+                    while (rs.next()) {
+                        YearMonth month = parseMonthYear(rs.getString("month_year"));
+                        if (month == null) continue;
+                        budgetEngine.loadBudget(rs.getInt("category_id"), month,
+                                rs.getDouble("monthly_limit"), rs.getDouble("alert_threshold"));
+                    }
+                }
+                try (ResultSet rs = spendingStmt.executeQuery()) {
+                    while (rs.next()) {
+                        budgetEngine.loadSpending(rs.getInt("category_id"),
+                                YearMonth.parse(rs.getString("month_year")), getCents(rs, "spent"));
+                    }
+                }
+            } catch (SQLException e) {
+                sample.fail();
+                System.err.println("✗ Error loading budgets: " + e.getMessage());
+            }
+        }
+    }
+
+    // budgets.month_year is stored as YYYY-MM
+    private static YearMonth parseMonthYear(String monthYear) {
         try {
-            if (connection != null && !connection.isClosed()) {
-                Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT 1");
-                return rs.next();
+            return monthYear == null ? null : YearMonth.parse(monthYear.trim());
+        } catch (DateTimeParseException e) {
+            System.err.println("⚠ Ignoring budget with unreadable month_year: " + monthYear);
+            return null;
+        }
+    }
+
+    // ANALYTICS
+    // Loads every transaction of the user into a columnar store and keeps it in sync with later
+    // writes. The load streams rows straight into the arrays without building Transaction objects.
+    // The store lives in the user's partition and goes away with it if the partition is evicted.
+    public ColumnarTransactionStore enableColumnarStore(int userId) {
+        UserPartition partition = partition(userId);
+        synchronized (partition.columnarStoreLock) {
+            return loadColumnarStore(partition);
+        }
+    }
+
+    private ColumnarTransactionStore loadColumnarStore(UserPartition partition) {
+        int userId = partition.getUserId();
+        try (OperationStats.Sample sample = ENABLE_COLUMNAR_STORE.start()) {
+            if (partition.getColumnarStore() != null) return partition.getColumnarStore();
+            ColumnarTransactionStore store = new ColumnarTransactionStore();
+            store.beginLoad();
+            // Published before loading so writes made during the load are not lost
+            partition.setColumnarStore(store);
+            long start = System.nanoTime();
+            long rows = -1;
+            try {
+                rows = streamTransactions(userId, null, null, null, null, rs -> store.loadRow(
+                    rs.getInt("transaction_id"),
+                    rs.getDate("transaction_date").toLocalDate(),
+                    rs.getInt("category_id"),
+                    getCents(rs, "amount"),
+                    rs.getString("transaction_type"),
+                    rs.getBoolean("is_expected"),
+                    rs.getString("payment_method")
+                ));
+            } finally {
+                store.endLoad();
+                // A half-filled store would answer every report with wrong totals; the next one retries
+                if (rows < 0) partition.setColumnarStore(null);
+            }
+            if (rows < 0) {
+                sample.fail();
+                System.err.println("✗ Columnar store for user " + userId + " not loaded");
+                return null;
+            }
+            sample.rows(rows);
+            System.out.println(String.format("✓ Columnar store loaded: %d rows in %.0f ms (%.1f bytes/row)",
+                    rows, (System.nanoTime() - start) / 1e6, store.bytesPerRow()));
+            return store;
+        }
+    }
+
+    public ColumnarTransactionStore getColumnarStore(int userId) {
+        return partition(userId).getColumnarStore();
+    }
+
+    // SEARCH
+    // Builds the user's n-gram index over description, category and payment method, after
+    // which searchTransactions() answers from memory instead of a LIKE scan per keystroke.
+    // Like the columnar store it lives in the partition and is rebuilt on demand after eviction.
+    public TransactionSearchIndex enableSearchIndex(int userId) {
+        UserPartition partition = partition(userId);
+        synchronized (partition.searchIndexLock) {
+            return loadSearchIndex(partition);
+        }
+    }
+
+    private TransactionSearchIndex loadSearchIndex(UserPartition partition) {
+        int userId = partition.getUserId();
+        try (OperationStats.Sample sample = ENABLE_SEARCH_INDEX.start()) {
+            if (partition.getSearchIndex() != null) return partition.getSearchIndex();
+            TransactionSearchIndex index = new TransactionSearchIndex(this::getCategoryName);
+            index.beginLoad();
+            // Published before loading so writes made during the load are not lost
+            partition.setSearchIndex(index);
+            long start = System.nanoTime();
+            long rows = -1;
+            try {
+                // streamTransactions has loaded the categories; the handler must not go back to the database
+                rows = streamTransactions(userId, null, null, null, null, rs -> {
+                    Category category = categoryCache.get(rs.getInt("category_id"));
+                    index.loadRow(
+                        rs.getInt("transaction_id"),
+                        rs.getDate("transaction_date").toLocalDate(),
+                        rs.getString("description"),
+                        category == null ? null : category.getName(),
+                        rs.getString("payment_method"));
+                });
+            } finally {
+                // Even after a failed load, so searches waiting on it do not wait forever
+                index.endLoad();
+                // A partial index would miss rows for good; the next search retries the load
+                if (rows < 0) partition.setSearchIndex(null);
+            }
+            if (rows < 0) {
+                sample.fail();
+                System.err.println("✗ Search index for user " + userId + " not loaded");
+                return null;
+            }
+            sample.rows(rows);
+            System.out.println(String.format("✓ Search index loaded: %d rows, %d grams in %.0f ms",
+                    rows, index.gramCount(), (System.nanoTime() - start) / 1e6));
+            return index;
+        }
+    }
+
+    // Newest first, at most limit rows. Every word of the query has to appear somewhere in the
+    // description, category name or payment method (case-insensitive); a word of one or two
+    // characters only matches the start of a word.
+    public List<Transaction> searchTransactions(int userId, String query, int limit) {
+        TransactionSearchIndex index = partition(userId).getSearchIndex();
+        // Published before its load finishes (see enableSearchIndex); wait for the load rather
+        // than answer from half the rows
+        if (index == null || !index.isLoaded()) index = enableSearchIndex(userId);
+        // The load failed and said so; like the other reads, come back empty
+        if (index == null) return new ArrayList<>();
+        try (OperationStats.Sample sample = SEARCH_TRANSACTIONS.start()) {
+            List<Transaction> transactions = getTransactionsByIds(userId, index.search(query, limit));
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    // Rows in the order of ids; ids the user does not own (or that are gone) are left out.
+    // The IN list is padded to a power of two so the statement cache only ever sees a few shapes.
+    private List<Transaction> getTransactionsByIds(int userId, int[] ids) {
+        List<Transaction> transactions = new ArrayList<>();
+        if (ids.length == 0) return transactions;
+        int params = ids.length == 1 ? 1 : Integer.highestOneBit(ids.length - 1) << 1;
+        String sql = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions t WHERE t.user_id = ? " +
+                     "AND t.transaction_id IN (" + "?, ".repeat(params - 1) + "?)";
+        if (!categoryCache.isCurrent()) loadCategories();
+
+        Map<Integer, Transaction> byId = new HashMap<>();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            for (int i = 0; i < params; i++) {
+                // Ids start at 1, so 0 never matches
+                pstmt.setInt(i + 2, i < ids.length ? ids[i] : 0);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Transaction t = mapTransaction(rs, categoryCache);
+                    byId.put(t.getId(), t);
+                }
             }
+        } catch (SQLException e) {
+            System.err.println("✗ Error fetching search results: " + e.getMessage());
+        }
+        for (int id : ids) {
+            Transaction t = byId.get(id);
+            if (t != null) transactions.add(t);
+        }
+        fillMissingCategoryNames(transactions);
+        return transactions;
+    }
+
+    public boolean testConnection() {
+        if (pool == null) return false;
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            return rs.next();
         } catch (SQLException e) {
             System.err.println("Connection test failed: " + e.getMessage());
         }
@@ -237,8 +1601,8 @@ public class DatabaseManager {
     }
 
     public void printDatabaseStats() {
-        try {
-            Statement stmt = connection.createStatement();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM categories");
             if (rs.next()) System.out.println("  → Categories: " + rs.getInt(1));
             
@@ -249,14 +1613,41 @@ public class DatabaseManager {
         }
     }
 
+    // Old values of a row being changed, used to compute summary and budget deltas
+    private static class StoredRow {
+        private final String type;
+        private final boolean isExpected;
+        private final long amountCents;
+        private final int categoryId;
+        private final LocalDate date;
+
+        StoredRow(String type, boolean isExpected, long amountCents, int categoryId, LocalDate date) {
+            this.type = type;
+            this.isExpected = isExpected;
+            this.amountCents = amountCents;
+            this.categoryId = categoryId;
+            this.date = date;
+        }
+    }
+
+    public ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
     public void close() {
-        try {
-            if (connection != null) {
-                connection.close();
-                System.out.println("✓ Database connection closed");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing connection: " + e.getMessage());
+        // Queued writes are committed before the pool goes away
+        if (writeBehind != null) {
+            writeBehind.close();
+            writeBehind.printStats();
+        }
+        if (maintenance != null) maintenance.shutdownNow();
+        if (reports != null) reports.close();
+        partitions.printStats();
+        events.printStats();
+        if (pool != null) {
+            pool.printStats();
+            pool.close();
+            System.out.println("✓ Database connection pool closed");
         }
     }
 }
@@ -0,0 +1,967 @@
+package com.tracker.database;
+
+import com.tracker.events.ChangeEvent;
+import com.tracker.events.ChangeEventBus;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.OperationStats;
+import com.tracker.model.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Embedded alternative to DatabaseManager (-Dtracker.storage=mapped): transactions live in a
+// memory-mapped TransactionLog in tracker.storage.dir, categories and budgets in two small CSV
+// files next to it. No server, no JDBC, no row mapping: every read is a scan over the mapped
+// records through an in-memory index.
+//
+// - offsetById maps a transaction id to the offset of its newest record
+// - each user has a set of (date, id) keys in display order, so pages, date ranges and the
+//   monthly and category totals walk only that user's rows in that range
+// - summary totals and budget spending are kept up to date by the writes, as in DatabaseManager
+//
+// One writer at a time (write lock); readers share the read lock. Changes are in the mapped
+// file as soon as the write returns; they reach the disk within a second (FORCE_INTERVAL_MS),
+// or before the write returns with -Dtracker.storage.syncEveryWrite=true.
+public class MappedLogStorage implements TrackerStorage {
+    // Configuration (override with -Dtracker.storage.*=...)
+    private static final boolean SYNC_EVERY_WRITE = Boolean.getBoolean("tracker.storage.syncEveryWrite");
+    private static final long FORCE_INTERVAL_MS = Long.getLong("tracker.storage.forceIntervalMs", 1000L);
+    // How often to check whether the log is worth compacting; 0 turns it off
+    private static final long COMPACT_MINUTES = Long.getLong("tracker.storage.compactMinutes", 10L);
+    // Compact once superseded records outnumber live ones and there are at least this many
+    private static final long COMPACT_MIN_RECORDS = Long.getLong("tracker.storage.compactMinRecords", 10_000L);
+    private static final int EVENT_RING_SIZE = Integer.getInteger("tracker.events.ringSize", 4096);
+    // Rows read per read-lock hold in forEachTransaction
+    private static final int SCAN_CHUNK = 1000;
+
+    // Metrics
+    private static final OperationStats OPEN = Metrics.operation("log.open");
+    private static final OperationStats ADD_TRANSACTION = Metrics.operation("log.addTransaction");
+    private static final OperationStats ADD_TRANSACTIONS = Metrics.operation("log.addTransactions");
+    private static final OperationStats UPDATE_TRANSACTION = Metrics.operation("log.updateTransaction");
+    private static final OperationStats DELETE_TRANSACTION = Metrics.operation("log.deleteTransaction");
+    private static final OperationStats GET_ALL_TRANSACTIONS = Metrics.operation("log.getAllTransactions");
+    private static final OperationStats GET_TRANSACTIONS_PAGE = Metrics.operation("log.getTransactionsPage");
+    private static final OperationStats STREAM_TRANSACTIONS = Metrics.operation("log.forEachTransaction");
+    private static final OperationStats QUERY_TRANSACTIONS = Metrics.operation("log.queryTransactions");
+    private static final OperationStats RECONCILE_SUMMARY = Metrics.operation("log.reconcileSummary");
+    private static final OperationStats GET_MONTHLY_SUMMARIES = Metrics.operation("log.getMonthlySummaries");
+    private static final OperationStats GET_CATEGORY_TOTALS = Metrics.operation("log.getCategoryTotals");
+    private static final OperationStats ENABLE_SEARCH_INDEX = Metrics.operation("log.enableSearchIndex");
+    private static final OperationStats ENABLE_COLUMNAR_STORE = Metrics.operation("log.enableColumnarStore");
+    private static final OperationStats SEARCH_TRANSACTIONS = Metrics.operation("log.searchTransactions");
+    private static final OperationStats COMPACT = Metrics.operation("log.compact");
+
+    private final Path dir;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ChangeEventBus events = new ChangeEventBus(EVENT_RING_SIZE);
+    // Created on the first report; see getReportEngine()
+    private volatile ReportEngine reports;
+    private final Object reportsLock = new Object();
+    // Read-only after the constructor
+    private final Map<Integer, Category> categories = new LinkedHashMap<>();
+    // Guarded by lock
+    private TransactionLog log;
+    private long[] offsetById = new long[1024];
+    private final Map<Integer, UserRows> users = new HashMap<>();
+    // "userId,categoryId,YYYY-MM" -> budgets.csv line; guarded by budgetFileLock
+    private final Map<String, String> budgetLines = new TreeMap<>();
+    private final Object budgetFileLock = new Object();
+    private volatile boolean dirty;
+    private ScheduledExecutorService maintenance;
+
+    // A user's rows in display order plus the same in-memory aggregates DatabaseManager keeps
+    private class UserRows {
+        private final UserPartition partition;
+        // (epochDay << 32 | id), ascending
+        private final TreeSet<Long> keys = new TreeSet<>();
+
+        UserRows(int userId) {
+            partition = new UserPartition(userId, MappedLogStorage.this::getCategoryName);
+            // Alerts become events, the same as DatabaseManager's
+            partition.getBudgets().addAlertListener((categoryId, month, status) ->
+                events.publish(new ChangeEvent.BudgetChanged(userId, categoryId, month, status, true)));
+        }
+    }
+
+    public MappedLogStorage(Path dir) {
+        this.dir = dir;
+        try (OperationStats.Sample sample = OPEN.start()) {
+            long start = System.nanoTime();
+            loadCategories();
+            log = TransactionLog.open(dir);
+            replayLog();
+            loadBudgets();
+            sample.rows(log.getRecordCount());
+            System.out.println(String.format("✓ Transaction log opened: %s (%d live of %d records) in %.0f ms",
+                    log.getFile(), log.getLiveRecordCount(), log.getRecordCount(), (System.nanoTime() - start) / 1e6));
+            startMaintenance();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("✗ Could not open transaction log in " + dir + ": " + e.getMessage());
+            if (log != null) log.close();
+            log = null;
+        }
+    }
+
+    public boolean testConnection() {
+        return log != null;
+    }
+
+    // OPENING
+    // The last record of each id wins; then every surviving record is added to its user
+    private void replayLog() {
+        log.scan(offset -> {
+            int id = log.id(offset);
+            ensureCapacity(id);
+            if (offsetById[id] != 0) log.markSuperseded();
+            offsetById[id] = log.state(offset) == TransactionLog.LIVE ? offset : 0;
+        });
+        for (int id = 1; id < offsetById.length; id++) {
+            long offset = offsetById[id];
+            if (offset == 0) continue;
+            UserRows rows = writableUser(log.userId(offset));
+            rows.keys.add(key(log.epochDay(offset), id));
+            long cents = log.amountCents(offset);
+            String type = log.type(offset);
+            boolean isExpected = log.isExpected(offset);
+            if ("expense".equals(type) && !isExpected) {
+                rows.partition.getBudgets().loadSpending(log.categoryId(offset),
+                        YearMonth.from(LocalDate.ofEpochDay(log.epochDay(offset))), cents);
+            }
+        }
+        for (UserRows rows : users.values()) {
+            reconcileSummary(rows);
+            rows.partition.markLoaded();
+        }
+    }
+
+    // categories.csv: category_id,name,type,icon (no commas inside values); written with the
+    // default categories the first time
+    private void loadCategories() throws IOException {
+        Path file = dir.resolve("categories.csv");
+        if (!Files.exists(file)) {
+            Files.createDirectories(dir);
+            Files.write(file, List.of("category_id,name,type,icon",
+                    "1,Allowance,allowance,A", "2,Food,expense,F", "3,Transport,expense,T", "4,Savings,savings,S"),
+                    StandardCharsets.UTF_8);
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) continue;
+            String[] fields = line.split(",", -1);
+            if (fields.length < 4) {
+                System.err.println("⚠ Skipping malformed category line: " + line);
+                continue;
+            }
+            int id = Integer.parseInt(fields[0].trim());
+            categories.put(id, new Category(id, fields[1].trim(), fields[2].trim(), fields[3].trim()));
+        }
+    }
+
+    // budgets.csv: user_id,category_id,month_year,monthly_limit,alert_threshold
+    private void loadBudgets() throws IOException {
+        Path file = dir.resolve("budgets.csv");
+        if (!Files.exists(file)) return;
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) continue;
+            String[] fields = line.split(",", -1);
+            YearMonth month = fields.length == 5 ? parseMonthYear(fields[2]) : null;
+            if (month == null) {
+                System.err.println("⚠ Skipping malformed budget line: " + line);
+                continue;
+            }
+            int userId = Integer.parseInt(fields[0]);
+            int categoryId = Integer.parseInt(fields[1]);
+            budgetLines.put(budgetKey(userId, categoryId, month), line);
+            writableUser(userId).partition.getBudgets().loadBudget(categoryId, month,
+                    Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+        }
+    }
+
+    // CREATE
+    public int addTransaction(int userId, Transaction transaction) {
+        try (OperationStats.Sample sample = ADD_TRANSACTION.start()) {
+            if (append(userId, List.of(transaction)) == 0) {
+                sample.fail();
+                return -1;
+            }
+            System.out.println("✓ Transaction added: ID " + transaction.getId());
+            sample.rows(1);
+            return transaction.getId();
+        }
+    }
+
+    // Appended in chunks of batchSize, one write-lock hold each; stops at the first row that
+    // cannot be stored. Generated ids are written back into the Transaction objects.
+    public int addTransactions(int userId, Iterable<Transaction> transactions, int batchSize) {
+        try (OperationStats.Sample sample = ADD_TRANSACTIONS.start()) {
+            int inserted = 0;
+            List<Transaction> chunk = new ArrayList<>(batchSize);
+            Iterator<Transaction> it = transactions.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                if (chunk.size() < batchSize && it.hasNext()) continue;
+                int appended = append(userId, chunk);
+                inserted += appended;
+                if (appended < chunk.size()) {
+                    sample.fail();
+                    break;
+                }
+                chunk.clear();
+            }
+            System.out.println("✓ Batch insert: " + inserted + " transactions added");
+            sample.rows(inserted);
+            return inserted;
+        }
+    }
+
+    // Returns how many of rows were appended (a prefix of the list)
+    private int append(int userId, List<Transaction> rows) {
+        UserRows user = writableUser(userId);
+        List<Transaction> added = new ArrayList<>(rows.size());
+        lock.writeLock().lock();
+        try {
+            if (log == null) return 0;
+            for (Transaction t : rows) {
+                if (!isStorable(t.getCategoryId(), t.getType(), t.getDescription(), t.getPaymentMethod())) break;
+                int id = log.allocateId();
+                t.setId(id);
+                ensureCapacity(id);
+                offsetById[id] = log.appendLive(userId, t);
+                user.keys.add(key(t.getDate(), id));
+                user.partition.getSummary().apply(t.getType(), t.isExpected(), t.getAmountCents());
+                ColumnarTransactionStore store = user.partition.getColumnarStore();
+                if (store != null) store.upsert(t);
+                TransactionSearchIndex index = user.partition.getSearchIndex();
+                if (index != null) index.upsert(t);
+                added.add(t);
+            }
+            wrote();
+        } catch (UncheckedIOException e) {
+            // The rows appended before the failure stay
+            System.err.println("✗ Error adding transaction: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Alerts and events go out once readers can see the rows
+        for (Transaction t : added) {
+            user.partition.getBudgets().recordExpense(t.getType(), t.isExpected(), t.getCategoryId(), t.getDate(),
+                    t.getAmountCents());
+            if (t.getCategoryName() == null || t.getCategoryName().isEmpty()) {
+                t.setCategoryName(getCategoryName(t.getCategoryId()));
+            }
+            events.publish(new ChangeEvent.TransactionAdded(userId, t));
+        }
+        return added.size();
+    }
+
+    // UPDATE
+    // Appends the new version; type and expected flag cannot be edited, so they come from the old one
+    public int updateTransactionCents(int userId, int id, String description, long amountCents,
+                                      int categoryId, String paymentMethod, LocalDate date) {
+        try (OperationStats.Sample sample = UPDATE_TRANSACTION.start()) {
+            // Looked up once the row is known to be the user's, so made-up ids register nothing
+            UserRows user;
+            Transaction updated;
+            int oldCategoryId;
+            LocalDate oldDate;
+            long oldCents;
+            lock.writeLock().lock();
+            try {
+                long offset = ownedOffset(userId, id);
+                if (offset == 0) {
+                    System.err.println("⚠ Transaction " + id + " not found for user " + userId);
+                    return 0;
+                }
+                // Registered when the row was written (or replayed)
+                user = users.get(userId);
+                if (!isStorable(categoryId, log.type(offset), description, paymentMethod)) {
+                    sample.fail();
+                    return -1;
+                }
+                oldCategoryId = log.categoryId(offset);
+                oldDate = LocalDate.ofEpochDay(log.epochDay(offset));
+                oldCents = log.amountCents(offset);
+                updated = Transaction.ofCents(id, categoryId, getCategoryName(categoryId), date, description,
+                        amountCents, log.type(offset), log.isExpected(offset), paymentMethod);
+
+                offsetById[id] = log.appendLive(userId, updated);
+                log.markSuperseded();
+                user.keys.remove(key(oldDate, id));
+                user.keys.add(key(date, id));
+                user.partition.getSummary().apply(updated.getType(), updated.isExpected(), updated.getAmountCents() - oldCents);
+                ColumnarTransactionStore store = user.partition.getColumnarStore();
+                if (store != null) store.update(id, date, categoryId, updated.getAmountCents(), paymentMethod);
+                TransactionSearchIndex index = user.partition.getSearchIndex();
+                if (index != null) index.upsert(updated);
+                wrote();
+            } catch (UncheckedIOException e) {
+                sample.fail();
+                System.err.println("✗ Error updating transaction: " + e.getMessage());
+                return -1;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            BudgetEngine budgets = user.partition.getBudgets();
+            budgets.recordExpense(updated.getType(), updated.isExpected(), oldCategoryId, oldDate, -oldCents);
+            budgets.recordExpense(updated.getType(), updated.isExpected(), categoryId, date, updated.getAmountCents());
+            System.out.println("✓ Transaction " + id + " updated");
+            events.publish(new ChangeEvent.TransactionUpdated(userId, updated, oldDate));
+            return 1;
+        }
+    }
+
+    // DELETE
+    public int deleteTransaction(int userId, int transactionId) {
+        try (OperationStats.Sample sample = DELETE_TRANSACTION.start()) {
+            UserRows user;
+            Transaction old;
+            lock.writeLock().lock();
+            try {
+                long offset = ownedOffset(userId, transactionId);
+                if (offset == 0) {
+                    System.err.println("⚠ Transaction " + transactionId + " not found for user " + userId);
+                    return 0;
+                }
+                user = users.get(userId);
+                old = log.read(offset, this::getCategoryName);
+                log.appendTombstone(userId, transactionId);
+                log.markSuperseded();
+                offsetById[transactionId] = 0;
+                user.keys.remove(key(old.getDate(), transactionId));
+                user.partition.getSummary().apply(old.getType(), old.isExpected(), -old.getAmountCents());
+                ColumnarTransactionStore store = user.partition.getColumnarStore();
+                if (store != null) store.remove(transactionId);
+                TransactionSearchIndex index = user.partition.getSearchIndex();
+                if (index != null) index.remove(transactionId);
+                wrote();
+            } catch (UncheckedIOException e) {
+                sample.fail();
+                System.err.println("✗ Error deleting transaction: " + e.getMessage());
+                return -1;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            user.partition.getBudgets().recordExpense(old.getType(), old.isExpected(), old.getCategoryId(),
+                    old.getDate(), -old.getAmountCents());
+            System.out.println("✓ Transaction " + transactionId + " deleted");
+            events.publish(new ChangeEvent.TransactionDeleted(userId, transactionId, old.getDate()));
+            return 1;
+        }
+    }
+
+    // READ
+    public List<Transaction> getAllTransactions(int userId) {
+        try (OperationStats.Sample sample = GET_ALL_TRANSACTIONS.start()) {
+            List<Transaction> transactions = readKeys(userId, Long.MAX_VALUE, Integer.MAX_VALUE);
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    public List<Transaction> getTransactionsPage(int userId, LocalDate afterDate, int afterId, int limit) {
+        try (OperationStats.Sample sample = GET_TRANSACTIONS_PAGE.start()) {
+            List<Transaction> transactions = readKeys(userId,
+                    afterDate == null ? Long.MAX_VALUE : key(afterDate, afterId), limit);
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    // Newest first, starting below beforeKey
+    private List<Transaction> readKeys(int userId, long beforeKey, int limit) {
+        List<Transaction> transactions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            UserRows user = users.get(userId);
+            if (user == null || log == null) return transactions;
+            for (long key : user.keys.headSet(beforeKey, false).descendingSet()) {
+                if (transactions.size() >= limit) break;
+                transactions.add(log.read(offsetById[idOf(key)], this::getCategoryName));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return transactions;
+    }
+
+    // Rows are copied out SCAN_CHUNK at a time and handed to the action outside the lock,
+    // so a slow consumer (an export to a network drive) never holds up writers
+    public long forEachTransaction(int userId, LocalDate fromDate, LocalDate toDate, Integer categoryId,
+                                   String type, Consumer<Transaction> action) {
+        try (OperationStats.Sample sample = STREAM_TRANSACTIONS.start()) {
+            long from = fromDate == null ? Long.MIN_VALUE : key(fromDate, 0);
+            long to = toDate == null ? Long.MAX_VALUE : key(toDate.plusDays(1), 0);
+            long count = 0;
+            List<Transaction> chunk = new ArrayList<>(SCAN_CHUNK);
+            while (true) {
+                lock.readLock().lock();
+                try {
+                    UserRows user = users.get(userId);
+                    if (user == null || log == null) break;
+                    for (long key : user.keys.subSet(from, true, to, false)) {
+                        from = key + 1;
+                        long offset = offsetById[idOf(key)];
+                        if (categoryId != null && log.categoryId(offset) != categoryId) continue;
+                        if (type != null && !type.equals(log.type(offset))) continue;
+                        chunk.add(log.read(offset, this::getCategoryName));
+                        if (chunk.size() == SCAN_CHUNK) break;
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+                if (chunk.isEmpty()) break;
+                for (Transaction t : chunk) {
+                    action.accept(t);
+                }
+                count += chunk.size();
+                if (chunk.size() < SCAN_CHUNK) break;
+                chunk.clear();
+            }
+            sample.rows(count);
+            return count;
+        }
+    }
+
+    // Date sorts walk the (date, id) keys inside the date range in order and stop at the limit;
+    // amount sorts have no index here, so they collect every match and sort it
+    public List<Transaction> queryTransactions(int userId, TransactionQuery query) {
+        try (OperationStats.Sample sample = QUERY_TRANSACTIONS.start()) {
+            long from = query.getFromDate() == null ? Long.MIN_VALUE : key(query.getFromDate(), 0);
+            long to = query.getToDate() == null ? Long.MAX_VALUE : key(query.getToDate().plusDays(1), 0);
+            boolean byDate = query.getSort() == TransactionQuery.Sort.DATE_DESC || query.getSort() == TransactionQuery.Sort.DATE_ASC;
+            Transaction after = query.getAfter();
+            if (byDate && after != null) {
+                // A later page starts right past the previous page's last key
+                long afterKey = key(after.getDate(), after.getId());
+                if (query.getSort() == TransactionQuery.Sort.DATE_DESC) to = Math.min(to, afterKey);
+                else from = Math.max(from, afterKey + 1);
+            }
+            List<Transaction> transactions = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                UserRows user = users.get(userId);
+                if (user == null || log == null || from >= to) return transactions;
+                NavigableSet<Long> range = user.keys.subSet(from, true, to, false);
+                if (query.getSort() == TransactionQuery.Sort.DATE_DESC) range = range.descendingSet();
+                for (long key : range) {
+                    long offset = offsetById[idOf(key)];
+                    // Cheap checks on the mapped record before reading the whole row
+                    if (!query.getCategoryIds().isEmpty() && !query.getCategoryIds().contains(log.categoryId(offset))) continue;
+                    if (query.getType() != null && !query.getType().equals(log.type(offset))) continue;
+                    Transaction t = log.read(offset, this::getCategoryName);
+                    if (!query.matches(t)) continue;
+                    transactions.add(t);
+                    if (byDate && transactions.size() == query.getLimit()) break;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (!byDate) {
+                transactions.sort(query.comparator());
+                if (transactions.size() > query.getLimit()) transactions = new ArrayList<>(transactions.subList(0, query.getLimit()));
+            }
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    public int countTransactions(int userId) {
+        lock.readLock().lock();
+        try {
+            UserRows user = users.get(userId);
+            return user == null ? 0 : user.keys.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids index offsetById directly, so this walks up from afterId and stops after limit rows
+    public List<Transaction> getTransactionsAfterId(int userId, int afterId, int limit) {
+        List<Transaction> transactions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (log == null) return transactions;
+            for (int id = Math.max(afterId, 0) + 1; id < offsetById.length && transactions.size() < limit; id++) {
+                long offset = ownedOffset(userId, id);
+                if (offset != 0) transactions.add(log.read(offset, this::getCategoryName));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return transactions;
+    }
+
+    public int getMaxTransactionId(int userId) {
+        lock.readLock().lock();
+        try {
+            if (log == null) return 0;
+            for (int id = offsetById.length - 1; id > 0; id--) {
+                if (ownedOffset(userId, id) != 0) return id;
+            }
+            return 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Built from the mapped records under the read lock; writes keep it current afterwards
+    // Per-user lock: one user's load does not hold up another's
+    public ColumnarTransactionStore enableColumnarStore(int userId) {
+        UserRows user = user(userId);
+        synchronized (user.partition.columnarStoreLock) {
+            return loadColumnarStore(user);
+        }
+    }
+
+    private ColumnarTransactionStore loadColumnarStore(UserRows user) {
+        try (OperationStats.Sample sample = ENABLE_COLUMNAR_STORE.start()) {
+            if (user.partition.getColumnarStore() != null) return user.partition.getColumnarStore();
+            long start = System.nanoTime();
+            ColumnarTransactionStore store = new ColumnarTransactionStore();
+            lock.readLock().lock();
+            try {
+                for (long key : user.keys) {
+                    long offset = offsetById[idOf(key)];
+                    store.loadRow(idOf(key), LocalDate.ofEpochDay(log.epochDay(offset)), log.categoryId(offset),
+                            log.amountCents(offset), log.type(offset), log.isExpected(offset), log.paymentMethod(offset));
+                }
+                user.partition.setColumnarStore(store);
+            } finally {
+                lock.readLock().unlock();
+            }
+            sample.rows(store.size());
+            System.out.println(String.format("✓ Columnar store loaded: %d rows in %.0f ms (%.1f bytes/row)",
+                    store.size(), (System.nanoTime() - start) / 1e6, store.bytesPerRow()));
+            return store;
+        }
+    }
+
+    public TransactionSearchIndex enableSearchIndex(int userId) {
+        UserRows user = user(userId);
+        synchronized (user.partition.searchIndexLock) {
+            return loadSearchIndex(user);
+        }
+    }
+
+    private TransactionSearchIndex loadSearchIndex(UserRows user) {
+        try (OperationStats.Sample sample = ENABLE_SEARCH_INDEX.start()) {
+            if (user.partition.getSearchIndex() != null) return user.partition.getSearchIndex();
+            long start = System.nanoTime();
+            TransactionSearchIndex index = new TransactionSearchIndex(this::getCategoryName);
+            lock.readLock().lock();
+            try {
+                index.beginLoad();
+                for (long key : user.keys) {
+                    long offset = offsetById[idOf(key)];
+                    index.loadRow(idOf(key), LocalDate.ofEpochDay(log.epochDay(offset)), log.description(offset),
+                            getCategoryName(log.categoryId(offset)), log.paymentMethod(offset));
+                }
+                index.endLoad();
+                // Still under the read lock, so no write can slip in between the load and this
+                user.partition.setSearchIndex(index);
+            } finally {
+                lock.readLock().unlock();
+            }
+            sample.rows(index.size());
+            System.out.println(String.format("✓ Search index loaded: %d rows, %d grams in %.0f ms",
+                    index.size(), index.gramCount(), (System.nanoTime() - start) / 1e6));
+            return index;
+        }
+    }
+
+    public List<Transaction> searchTransactions(int userId, String query, int limit) {
+        TransactionSearchIndex index = user(userId).partition.getSearchIndex();
+        if (index == null) index = enableSearchIndex(userId);
+        try (OperationStats.Sample sample = SEARCH_TRANSACTIONS.start()) {
+            int[] ids = index.search(query, limit);
+            List<Transaction> transactions = new ArrayList<>(ids.length);
+            lock.readLock().lock();
+            try {
+                for (int id : ids) {
+                    long offset = ownedOffset(userId, id);
+                    if (offset != 0) transactions.add(log.read(offset, this::getCategoryName));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            sample.rows(transactions.size());
+            return transactions;
+        }
+    }
+
+    // SUMMARIES
+    public Summary calculateSummary(int userId) {
+        return user(userId).partition.getSummary().snapshot();
+    }
+
+    public Summary reconcileSummary(int userId) {
+        return reconcileSummary(user(userId));
+    }
+
+    // Sums in cents so the result does not depend on the order of the rows
+    private Summary reconcileSummary(UserRows user) {
+        try (OperationStats.Sample sample = RECONCILE_SUMMARY.start()) {
+            long[] cents = new long[4];
+            lock.readLock().lock();
+            try {
+                for (long key : user.keys) {
+                    addToSummary(cents, offsetById[idOf(key)]);
+                }
+                // Writers are locked out, so nothing can race with the scan
+                Summary fresh = toSummary(cents);
+                user.partition.getSummary().resetIfUnchanged(fresh, user.partition.getSummary().getVersion());
+                sample.rows(user.keys.size());
+                return fresh;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    public Map<YearMonth, Summary> getMonthlySummaries(int userId, YearMonth from, YearMonth to) {
+        try (OperationStats.Sample sample = GET_MONTHLY_SUMMARIES.start()) {
+            Map<YearMonth, long[]> months = new TreeMap<>();
+            lock.readLock().lock();
+            try {
+                UserRows user = users.get(userId);
+                if (user != null) {
+                    for (long key : monthRange(user, from, to)) {
+                        long offset = offsetById[idOf(key)];
+                        YearMonth month = YearMonth.from(LocalDate.ofEpochDay(log.epochDay(offset)));
+                        addToSummary(months.computeIfAbsent(month, m -> new long[4]), offset);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            Map<YearMonth, Summary> summaries = new LinkedHashMap<>();
+            for (Map.Entry<YearMonth, long[]> month : months.entrySet()) {
+                summaries.put(month.getKey(), toSummary(month.getValue()));
+            }
+            sample.rows(summaries.size());
+            return summaries;
+        }
+    }
+
+    public List<CategoryTotal> getCategoryTotals(int userId, YearMonth from, YearMonth to, String type) {
+        try (OperationStats.Sample sample = GET_CATEGORY_TOTALS.start()) {
+            // (categoryId, type) -> {cents, count}
+            Map<String, long[]> sums = new HashMap<>();
+            lock.readLock().lock();
+            try {
+                UserRows user = users.get(userId);
+                if (user != null) {
+                    for (long key : monthRange(user, from, to)) {
+                        long offset = offsetById[idOf(key)];
+                        if (log.isExpected(offset)) continue;
+                        String rowType = log.type(offset);
+                        if (type != null && !type.equals(rowType)) continue;
+                        long[] sum = sums.computeIfAbsent(log.categoryId(offset) + "," + rowType, k -> new long[2]);
+                        sum[0] += log.amountCents(offset);
+                        sum[1]++;
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            List<CategoryTotal> totals = new ArrayList<>(sums.size());
+            for (Map.Entry<String, long[]> entry : sums.entrySet()) {
+                String[] key = entry.getKey().split(",");
+                int categoryId = Integer.parseInt(key[0]);
+                totals.add(new CategoryTotal(categoryId, getCategoryName(categoryId), key[1],
+                        entry.getValue()[0], (int) entry.getValue()[1]));
+            }
+            totals.sort(Comparator.comparingLong(CategoryTotal::getTotalCents).reversed());
+            sample.rows(totals.size());
+            return totals;
+        }
+    }
+
+    private static NavigableSet<Long> monthRange(UserRows user, YearMonth from, YearMonth to) {
+        return user.keys.subSet(key(from.atDay(1), 0), true, key(to.plusMonths(1).atDay(1), 0), false);
+    }
+
+    // cents: actual allowance, expected allowance, actual expenses, expected expenses
+    private void addToSummary(long[] cents, long offset) {
+        int bucket;
+        switch (log.type(offset)) {
+            case "allowance": bucket = 0; break;
+            case "expense": bucket = 2; break;
+            default: return;
+        }
+        if (log.isExpected(offset)) bucket++;
+        cents[bucket] += log.amountCents(offset);
+    }
+
+    private static Summary toSummary(long[] cents) {
+        return Summary.ofCents(cents[0], cents[1], cents[2], cents[3]);
+    }
+
+    // CATEGORIES AND BUDGETS
+    public List<Category> getAllCategories() {
+        List<Category> sorted = new ArrayList<>(categories.values());
+        // Same order as DatabaseManager: by type, then name
+        sorted.sort(Comparator.comparing(Category::getType).thenComparing(Category::getName));
+        return sorted;
+    }
+
+    public String getCategoryName(int categoryId) {
+        Category category = categories.get(categoryId);
+        return category == null ? "" : category.getName();
+    }
+
+    public void addBudget(int userId, int categoryId, double monthlyLimit, double alertThreshold, String monthYear) {
+        YearMonth month = parseMonthYear(monthYear);
+        if (month == null || !categories.containsKey(categoryId)) {
+            System.err.println("✗ Error setting budget: unknown category " + categoryId + " or month " + monthYear);
+            return;
+        }
+        synchronized (budgetFileLock) {
+            budgetLines.put(budgetKey(userId, categoryId, month),
+                    userId + "," + categoryId + "," + month + "," + monthlyLimit + "," + alertThreshold);
+            try {
+                writeBudgets();
+            } catch (IOException e) {
+                System.err.println("✗ Error setting budget: " + e.getMessage());
+                return;
+            }
+        }
+        System.out.println("✓ Budget set for category " + categoryId);
+        BudgetEngine budgets = writableUser(userId).partition.getBudgets();
+        budgets.setBudget(categoryId, month, monthlyLimit, alertThreshold);
+        events.publish(new ChangeEvent.BudgetChanged(userId, categoryId, month,
+                budgets.getBudgetStatus(categoryId, month), false));
+    }
+
+    // Written to a temporary file and moved over the old one, so a crash leaves one or the other
+    private void writeBudgets() throws IOException {
+        Path file = dir.resolve("budgets.csv");
+        Path temp = dir.resolve("budgets.csv.tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("user_id,category_id,month_year,monthly_limit,alert_threshold");
+            writer.newLine();
+            for (String line : budgetLines.values()) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public List<BudgetStatus> getBudgetStatuses(int userId, YearMonth month) {
+        return user(userId).partition.getBudgets().getBudgetStatuses(month);
+    }
+
+    public ChangeEventBus getEventBus() {
+        return events;
+    }
+
+    public ReportEngine getReportEngine() {
+        ReportEngine engine = reports;
+        if (engine != null) return engine;
+        synchronized (reportsLock) {
+            if (reports == null) reports = new ReportEngine(this);
+            return reports;
+        }
+    }
+
+    private static String budgetKey(int userId, int categoryId, YearMonth month) {
+        return userId + "," + categoryId + "," + month;
+    }
+
+    private static YearMonth parseMonthYear(String monthYear) {
+        try {
+            return monthYear == null ? null : YearMonth.parse(monthYear.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // MAINTENANCE
+    private void startMaintenance() {
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "storage-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        if (!SYNC_EVERY_WRITE) {
+            maintenance.scheduleWithFixedDelay(this::forceIfDirty, FORCE_INTERVAL_MS, FORCE_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+        if (COMPACT_MINUTES > 0) {
+            maintenance.scheduleWithFixedDelay(this::compactIfNeeded, COMPACT_MINUTES, COMPACT_MINUTES,
+                    TimeUnit.MINUTES);
+        }
+    }
+
+    // Called with the write lock held
+    private void wrote() {
+        if (SYNC_EVERY_WRITE) log.force();
+        else dirty = true;
+    }
+
+    private void forceIfDirty() {
+        if (!dirty) return;
+        // The read lock keeps writers (and so new segments) out while the pages are flushed
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            if (log != null) log.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        long records, live;
+        lock.readLock().lock();
+        try {
+            if (log == null) return;
+            records = log.getRecordCount();
+            live = log.getLiveRecordCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (records >= COMPACT_MIN_RECORDS && records - live > live) compact();
+    }
+
+    // Rewrites the log with only the newest record of each live transaction. Readers and
+    // writers wait for it; at 256 bytes a record, a million live rows is a 256 MB copy.
+    public void compact() {
+        try (OperationStats.Sample sample = COMPACT.start()) {
+            lock.writeLock().lock();
+            try {
+                if (log == null) return;
+                long start = System.nanoTime();
+                long before = log.getRecordCount();
+                log.compact(offset -> offsetById[log.id(offset)] == offset);
+                // Every record moved: rebuild the id index from the new file
+                Arrays.fill(offsetById, 0);
+                log.scan(offset -> offsetById[log.id(offset)] = offset);
+                dirty = false;
+                sample.rows(log.getRecordCount());
+                System.out.println(String.format("✓ Transaction log compacted: %d -> %d records in %.0f ms",
+                        before, log.getRecordCount(), (System.nanoTime() - start) / 1e6));
+            } catch (IOException e) {
+                sample.fail();
+                System.err.println("✗ Error compacting transaction log: " + e.getMessage());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void close() {
+        if (maintenance != null) maintenance.shutdownNow();
+        if (reports != null) reports.close();
+        events.printStats();
+        lock.writeLock().lock();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+                System.out.println("✓ Transaction log closed");
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Only users with rows or budgets are kept in memory; the default user always exists
+    public boolean userExists(int userId) {
+        if (userId == DEFAULT_USER_ID) return true;
+        lock.readLock().lock();
+        try {
+            return users.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // HELPERS
+    // For reads: a user nobody has written for gets an empty, unregistered UserRows, so reads
+    // with made-up ids do not grow the users map
+    private UserRows user(int userId) {
+        lock.readLock().lock();
+        try {
+            UserRows user = users.get(userId);
+            if (user != null) return user;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new UserRows(userId);
+    }
+
+    // For writes: the user's registered rows, created on the first write
+    private UserRows writableUser(int userId) {
+        lock.readLock().lock();
+        try {
+            UserRows user = users.get(userId);
+            if (user != null) return user;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            return users.computeIfAbsent(userId, UserRows::new);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Offset of the transaction's newest record if it exists and belongs to userId, else 0
+    private long ownedOffset(int userId, int id) {
+        if (id <= 0 || id >= offsetById.length) return 0;
+        long offset = offsetById[id];
+        return offset != 0 && log.userId(offset) == userId ? offset : 0;
+    }
+
+    // The record has fixed-width text fields, narrower than the MySQL columns
+    private boolean isStorable(int categoryId, String type, String description, String paymentMethod) {
+        if (!categories.containsKey(categoryId)) {
+            System.err.println("✗ Error writing transaction: unknown category " + categoryId);
+            return false;
+        }
+        try {
+            TransactionLog.typeCode(type);
+            TransactionLog.checkFits(description, paymentMethod);
+            return true;
+        } catch (IllegalArgumentException e) {
+            System.err.println("✗ Error writing transaction: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= offsetById.length) {
+            offsetById = Arrays.copyOf(offsetById, Math.max(id + 1, offsetById.length * 2));
+        }
+    }
+
+    private static long key(LocalDate date, int id) {
+        return key(date.toEpochDay(), id);
+    }
+
+    private static long key(long epochDay, int id) {
+        return (epochDay << 32) | id;
+    }
+
+    private static int idOf(long key) {
+        return (int) key;
+    }
+}
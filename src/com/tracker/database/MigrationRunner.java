@@ -0,0 +1,201 @@
+package com.tracker.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Versioned schema changes. Each Migration is applied once, in version order, and recorded in
+// schema_migrations; startup only runs the ones that are missing. MySQL commits DDL as it goes,
+// so every step is written to be safe to repeat (IF NOT EXISTS, index existence checks) in case
+// a migration stopped half way. Never edit a migration that has shipped - add a new version.
+public class MigrationRunner {
+    // Held while migrating so two instances starting together do not race on the same DDL
+    private static final String LOCK_NAME = "allowance_tracker.migrations";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Baseline tables",
+            sql("CREATE TABLE IF NOT EXISTS users (" +
+                "user_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "name VARCHAR(100), " +
+                "email VARCHAR(150), " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)"),
+            sql("CREATE TABLE IF NOT EXISTS categories (" +
+                "category_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "name VARCHAR(50) NOT NULL, " +
+                "type ENUM('allowance','expense','savings') NOT NULL, " +
+                "icon VARCHAR(10))"),
+            sql("CREATE TABLE IF NOT EXISTS transactions (" +
+                "transaction_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "user_id INT NOT NULL, " +
+                "category_id INT NOT NULL, " +
+                "description VARCHAR(255), " +
+                "amount DECIMAL(10,2) NOT NULL, " +
+                "transaction_type ENUM('allowance','expense','savings') NOT NULL, " +
+                "is_expected TINYINT(1) DEFAULT 0, " +
+                "payment_method VARCHAR(50), " +
+                "transaction_date DATE NOT NULL, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (user_id) REFERENCES users(user_id), " +
+                "FOREIGN KEY (category_id) REFERENCES categories(category_id))"),
+            sql("CREATE TABLE IF NOT EXISTS budgets (" +
+                "budget_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "user_id INT NOT NULL, " +
+                "category_id INT NOT NULL, " +
+                "monthly_limit DECIMAL(10,2), " +
+                "alert_threshold DECIMAL(5,2) DEFAULT 80.00, " +
+                "month_year VARCHAR(7))")),
+        new Migration(2, "Monthly rollups",
+            sql("CREATE TABLE IF NOT EXISTS transaction_rollups (" +
+                "user_id INT NOT NULL, " +
+                "month_year CHAR(7) NOT NULL, " +
+                "category_id INT NOT NULL, " +
+                "transaction_type VARCHAR(20) NOT NULL, " +
+                "is_expected TINYINT(1) NOT NULL, " +
+                "total_amount DECIMAL(14,2) NOT NULL DEFAULT 0, " +
+                "txn_count INT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (user_id, month_year, category_id, transaction_type, is_expected))")),
+        // Serves the newest-first listing and keyset paging (ORDER BY date DESC, id DESC) as a
+        // backward index range scan, and COUNT(*) per user without touching the rows
+        new Migration(3, "Index transactions by user and date",
+            index("transactions", "idx_transactions_user_date", "user_id, transaction_date, transaction_id")),
+        // Covering index for the full summary SUM: reconcileSummary reads only the index
+        new Migration(4, "Covering index for summary totals",
+            index("transactions", "idx_transactions_summary", "user_id, transaction_type, is_expected, amount")),
+        // Category filters in queryTransactions: a seek per category, already in date order
+        new Migration(5, "Index transactions by user, category and date",
+            index("transactions", "idx_transactions_user_category", "user_id, category_id, transaction_date, transaction_id"))
+    );
+
+    private final ConnectionPool pool;
+
+    public MigrationRunner(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    // Applies every missing migration; returns how many ran
+    public int migrate() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            acquireLock(conn);
+            try {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "execution_ms INT NOT NULL)");
+
+                Set<Integer> applied = appliedVersions(stmt);
+                int ran = 0;
+                for (Migration migration : MIGRATIONS) {
+                    if (applied.contains(migration.version)) continue;
+                    long start = System.nanoTime();
+                    for (Step step : migration.steps) {
+                        step.apply(conn);
+                    }
+                    long millis = (System.nanoTime() - start) / 1_000_000;
+                    record(conn, migration, millis);
+                    System.out.println("  → Migration V" + migration.version + " applied: " +
+                            migration.description + " (" + millis + " ms)");
+                    ran++;
+                }
+                System.out.println("✓ Schema at version " + latestVersion() +
+                        (ran == 0 ? " (up to date)" : " (" + ran + " migration" + (ran == 1 ? "" : "s") + " applied)"));
+                return ran;
+            } finally {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    private static Set<Integer> appliedVersions(Statement stmt) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (ResultSet rs = stmt.executeQuery("SELECT version FROM schema_migrations")) {
+            while (rs.next()) versions.add(rs.getInt(1));
+        }
+        return versions;
+    }
+
+    private static void record(Connection conn, Migration migration, long millis) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO schema_migrations (version, description, execution_ms) VALUES (?, ?, ?)")) {
+            pstmt.setInt(1, migration.version);
+            pstmt.setString(2, migration.description);
+            pstmt.setLong(3, millis);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another instance to finish migrating");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("⚠ Could not release migration lock: " + e.getMessage());
+        }
+    }
+
+    // STEPS
+    private static Step sql(String ddl) {
+        return conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(ddl);
+            }
+        };
+    }
+
+    // MySQL has no CREATE INDEX IF NOT EXISTS, so look the index up first
+    private static Step index(String table, String name, String columns) {
+        return conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT 1 FROM information_schema.statistics " +
+                    "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1")) {
+                pstmt.setString(1, table);
+                pstmt.setString(2, name);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) return;
+                }
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE INDEX " + name + " ON " + table + " (" + columns + ")");
+            }
+        };
+    }
+
+    private interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final List<Step> steps;
+
+        Migration(int version, String description, Step... steps) {
+            this.version = version;
+            this.description = description;
+            this.steps = List.of(steps);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tracker.database;
+
+// Aggregation loops over centavo columns (see ColumnarTransactionStore). Everything is a
+// primitive array and results go into caller-supplied arrays, so nothing is boxed or
+// allocated per call. Plain sums are spread over four independent accumulators so each add
+// does not wait for the previous one, and filters pick 0 or the amount instead of branching,
+// which the JIT turns into conditional moves. long adds are exact, so the order does not
+// change the result the way it does with doubles.
+public final class MoneyKernels {
+    private MoneyKernels() {
+    }
+
+    // cents[0..size)
+    public static long sum(long[] cents, int size) {
+        long a = 0, b = 0, c = 0, d = 0;
+        int i = 0;
+        for (int end = size & ~3; i < end; i += 4) {
+            a += cents[i];
+            b += cents[i + 1];
+            c += cents[i + 2];
+            d += cents[i + 3];
+        }
+        for (; i < size; i++) a += cents[i];
+        return a + b + c + d;
+    }
+
+    // Rows whose flags equal wanted and whose day is within [fromDay, toDay]
+    public static long sumWhere(long[] cents, byte[] flags, int wanted, int[] epochDays,
+                                int fromDay, int toDay, int size) {
+        long a = 0, b = 0;
+        int i = 0;
+        for (int end = size & ~1; i < end; i += 2) {
+            a += matches(flags[i], wanted, epochDays[i], fromDay, toDay) ? cents[i] : 0;
+            b += matches(flags[i + 1], wanted, epochDays[i + 1], fromDay, toDay) ? cents[i + 1] : 0;
+        }
+        if (i < size) a += matches(flags[i], wanted, epochDays[i], fromDay, toDay) ? cents[i] : 0;
+        return a + b;
+    }
+
+    // out[keys[i]] += cents[i] for rows whose flags equal wanted (group by category);
+    // out must be longer than the largest key
+    public static void sumByKey(long[] cents, byte[] flags, int wanted, int[] keys, long[] out, int size) {
+        for (int i = 0; i < size; i++) {
+            out[keys[i]] += flags[i] == wanted ? cents[i] : 0;
+        }
+    }
+
+    // out[epochMonth - firstEpochMonth] += cents for rows whose flags equal wanted, where
+    // epochMonth = year * 12 + (month - 1); rows outside the window are skipped
+    public static void sumByMonth(long[] cents, byte[] flags, int wanted, int[] epochDays,
+                                  int firstEpochMonth, long[] out, int size) {
+        for (int i = 0; i < size; i++) {
+            if (flags[i] != wanted) continue;
+            int bucket = ColumnarTransactionStore.epochMonth(epochDays[i]) - firstEpochMonth;
+            if (bucket >= 0 && bucket < out.length) out[bucket] += cents[i];
+        }
+    }
+
+    // For rows in [start, end) whose flags equal wanted and whose day is within [fromDay, toDay]:
+    // outCents[keys[i] * months + bucket] += cents and outCounts[same]++, where bucket is the
+    // row's epochMonth - firstEpochMonth. The day window must lie inside the months covered.
+    public static void sumByKeyAndMonth(long[] cents, byte[] flags, int wanted, int[] keys, int[] epochDays,
+                                        int fromDay, int toDay, int firstEpochMonth, int months,
+                                        long[] outCents, long[] outCounts, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int day = epochDays[i];
+            if (!matches(flags[i], wanted, day, fromDay, toDay)) continue;
+            int cell = keys[i] * months + ColumnarTransactionStore.epochMonth(day) - firstEpochMonth;
+            outCents[cell] += cents[i];
+            outCounts[cell]++;
+        }
+    }
+
+    private static boolean matches(byte flags, int wanted, int day, int fromDay, int toDay) {
+        return flags == wanted & day >= fromDay & day <= toDay;
+    }
+}
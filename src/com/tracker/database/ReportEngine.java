@@ -0,0 +1,249 @@
+package com.tracker.database;
+
+import com.tracker.events.ChangeEvent;
+import com.tracker.events.ChangeEventBus;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.OperationStats;
+import com.tracker.model.CategoryMonthPivot;
+import com.tracker.model.CategoryTotal;
+import com.tracker.model.YearOverYear;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// Category x month pivots, top-N categories and year-over-year comparisons, computed from the
+// user's ColumnarTransactionStore with one parallel pass (sumByCategoryAndMonth) per pivot.
+// Results are cached per (user, month range, report); a committed write invalidates every
+// cached report of that user whose range contains the written date (and, for an update, the
+// date it moved from). Invalidation runs on whichever thread drains the subscription, which
+// need not be the writer's, so until the engine has caught up with the bus's last sequence
+// reports bypass the cache: a report asked for after a write returns never sees the old numbers.
+public class ReportEngine implements AutoCloseable {
+    private static final int CACHE_SIZE = Integer.getInteger("tracker.reports.cacheSize", 64);
+
+    private static final OperationStats PIVOT = Metrics.operation("report.pivot");
+    private static final OperationStats TOP_CATEGORIES = Metrics.operation("report.topCategories");
+    private static final OperationStats YEAR_OVER_YEAR = Metrics.operation("report.yearOverYear");
+
+    private enum Kind { PIVOT, TOP_CATEGORIES, YEAR_OVER_YEAR }
+
+    private static class Key {
+        private final int userId;
+        private final YearMonth from;
+        private final YearMonth to;
+        private final Kind kind;
+        private final String type;
+        private final int limit;
+
+        Key(int userId, YearMonth from, YearMonth to, Kind kind, String type, int limit) {
+            this.userId = userId;
+            this.from = from;
+            this.to = to;
+            this.kind = kind;
+            this.type = type;
+            this.limit = limit;
+        }
+
+        boolean covers(int userId, LocalDate date) {
+            YearMonth month = YearMonth.from(date);
+            return this.userId == userId && !month.isBefore(from) && !month.isAfter(to);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key other)) return false;
+            return userId == other.userId && limit == other.limit && kind == other.kind &&
+                   from.equals(other.from) && to.equals(other.to) && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, from, to, kind, type, limit);
+        }
+    }
+
+    private final TrackerStorage storage;
+    private final ChangeEventBus.Subscription subscription;
+    // Least recently used first; guarded by itself
+    private final Map<Key, Object> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    // Bumped by every invalidation, so a report computed across one is not cached
+    private long generation;
+    // Newest bus sequence whose invalidation has been applied
+    private long appliedSequence;
+
+    // Statistics
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    public ReportEngine(TrackerStorage storage) {
+        this.storage = storage;
+        this.appliedSequence = storage.getEventBus().lastSequence();
+        this.subscription = storage.getEventBus().subscribe(ChangeEventBus.ALL_USERS, Runnable::run,
+                new ChangeEventBus.Listener() {
+                    @Override
+                    public void onEvents(List<ChangeEvent> events) {
+                        for (ChangeEvent event : events) invalidate(event);
+                        applied(events.get(events.size() - 1).getSequence());
+                    }
+
+                    @Override
+                    public void onResync() {
+                        clear();
+                        // The cursor has skipped to where the events in the next batch start
+                        if (subscription != null) applied(subscription.getCursor());
+                    }
+                });
+    }
+
+    // REPORTS
+    // Actual rows of one type (e.g. "expense") per category and month in [from, to]
+    public CategoryMonthPivot pivot(int userId, YearMonth from, YearMonth to, String type) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("Report range ends before it starts");
+        return cached(new Key(userId, from, to, Kind.PIVOT, type, 0), PIVOT, () -> {
+            ColumnarTransactionStore store = storage.enableColumnarStore(userId);
+            // Not cached, so the next report tries the load again
+            if (store == null) throw new IllegalStateException("Transactions for the report could not be read");
+            ColumnarTransactionStore.CategoryMonthTotals totals = store.sumByCategoryAndMonth(
+                    ColumnarTransactionStore.typeCode(type), (int) from.atDay(1).toEpochDay(),
+                    (int) to.atEndOfMonth().toEpochDay());
+            List<CategoryMonthPivot.Row> rows = new ArrayList<>();
+            long[] monthCents = new long[totals.getMonths()];
+            for (int categoryId = 0; categoryId < totals.getCategories(); categoryId++) {
+                long count = 0;
+                for (int month = 0; month < monthCents.length; month++) {
+                    monthCents[month] = totals.getCents(categoryId, month);
+                    count += totals.getCount(categoryId, month);
+                }
+                if (count == 0) continue;
+                rows.add(new CategoryMonthPivot.Row(categoryId, storage.getCategoryName(categoryId),
+                        monthCents, (int) count));
+            }
+            rows.sort(Comparator.comparingLong(CategoryMonthPivot.Row::getTotalCents).reversed());
+            return new CategoryMonthPivot(type, from, to, rows);
+        });
+    }
+
+    // The n categories with the largest actual totals of that type in [from, to]
+    public List<CategoryTotal> topCategories(int userId, YearMonth from, YearMonth to, String type, int n) {
+        return cached(new Key(userId, from, to, Kind.TOP_CATEGORIES, type, n), TOP_CATEGORIES, () -> {
+            List<CategoryTotal> top = new ArrayList<>();
+            for (CategoryMonthPivot.Row row : pivot(userId, from, to, type).getRows()) {
+                if (top.size() == n) break;
+                top.add(new CategoryTotal(row.getCategoryId(), row.getCategoryName(), type,
+                        row.getTotalCents(), row.getCount()));
+            }
+            return List.copyOf(top);
+        });
+    }
+
+    // January through `through` of that year against the same months a year earlier, per
+    // category, largest current total first
+    public List<YearOverYear> yearOverYear(int userId, YearMonth through, String type) {
+        YearMonth from = YearMonth.of(through.getYear() - 1, 1);
+        return cached(new Key(userId, from, through, Kind.YEAR_OVER_YEAR, type, 0), YEAR_OVER_YEAR, () -> {
+            CategoryMonthPivot pivot = pivot(userId, from, through, type);
+            int months = through.getMonthValue();
+            List<YearOverYear> rows = new ArrayList<>();
+            for (CategoryMonthPivot.Row row : pivot.getRows()) {
+                long previous = 0, current = 0;
+                for (int month = 0; month < months; month++) {
+                    previous += row.getMonthCents(month);
+                    current += row.getMonthCents(12 + month);
+                }
+                if (previous != 0 || current != 0) {
+                    rows.add(new YearOverYear(row.getCategoryId(), row.getCategoryName(), previous, current));
+                }
+            }
+            rows.sort(Comparator.comparingLong(YearOverYear::getCurrentCents).reversed());
+            return List.copyOf(rows);
+        });
+    }
+
+    // CACHE
+    @SuppressWarnings("unchecked")
+    private <T> T cached(Key key, OperationStats stats, Supplier<T> report) {
+        long generationBefore;
+        boolean current;
+        synchronized (cache) {
+            // Behind the bus: a write has landed whose invalidation is still on its way
+            current = appliedSequence >= storage.getEventBus().lastSequence();
+            Object hit = current ? cache.get(key) : null;
+            if (hit != null) {
+                hits++;
+                return (T) hit;
+            }
+            misses++;
+            generationBefore = generation;
+        }
+        T result;
+        try (OperationStats.Sample sample = stats.start()) {
+            result = report.get();
+            if (result instanceof List<?> rows) sample.rows(rows.size());
+        }
+        synchronized (cache) {
+            if (current && generation == generationBefore) cache.put(key, result);
+        }
+        return result;
+    }
+
+    private void invalidate(ChangeEvent event) {
+        if (event instanceof ChangeEvent.TransactionAdded added) {
+            invalidate(event.getUserId(), added.getTransaction().getDate(), null);
+        } else if (event instanceof ChangeEvent.TransactionUpdated updated) {
+            invalidate(event.getUserId(), updated.getTransaction().getDate(), updated.getPreviousDate());
+        } else if (event instanceof ChangeEvent.TransactionDeleted deleted) {
+            invalidate(event.getUserId(), deleted.getDate(), null);
+        }
+    }
+
+    private void invalidate(int userId, LocalDate date, LocalDate previousDate) {
+        synchronized (cache) {
+            generation++;
+            cache.keySet().removeIf(key -> {
+                boolean stale = key.covers(userId, date) || (previousDate != null && key.covers(userId, previousDate));
+                if (stale) invalidations++;
+                return stale;
+            });
+        }
+    }
+
+    private void applied(long sequence) {
+        synchronized (cache) {
+            appliedSequence = Math.max(appliedSequence, sequence);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            generation++;
+            invalidations += cache.size();
+            cache.clear();
+        }
+    }
+
+    public void printStats() {
+        synchronized (cache) {
+            long lookups = hits + misses;
+            System.out.println(String.format("  Report cache: %d cached, %d hits / %d misses (%.1f%% hit), %d invalidated",
+                    cache.size(), hits, misses, lookups == 0 ? 0.0 : hits * 100.0 / lookups, invalidations));
+        }
+    }
+
+    @Override
+    public void close() {
+        subscription.close();
+        printStats();
+    }
+}
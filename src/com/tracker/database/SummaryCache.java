@@ -0,0 +1,69 @@
+package com.tracker.database;
+
+import com.tracker.model.Summary;
+
+// Materialized copy of the calculateSummary() totals. Loaded once from the database,
+// then adjusted by each successful write so reading it never touches the table.
+// Totals are centavos, so any number of deltas adds up to exactly what SUM(amount) returns.
+public class SummaryCache {
+    private long actualAllowance;
+    private long expectedAllowance;
+    private long actualExpenses;
+    private long expectedExpenses;
+    private boolean loaded;
+    // Bumped around every write so a reconcile can tell whether one raced with its query
+    private long version;
+    private int pendingWrites;
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized boolean hasPendingWrites() {
+        return pendingWrites > 0;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // Writers call beginWrite() before touching the table and endWrite() once the
+    // delta (if any) has been applied
+    public synchronized void beginWrite() {
+        pendingWrites++;
+        version++;
+    }
+
+    public synchronized void endWrite() {
+        pendingWrites--;
+        version++;
+    }
+
+    // Replaces the totals with a fresh database result, unless a write was in progress or
+    // finished after versionBeforeQuery was read (the result might then count it twice or not at all)
+    public synchronized boolean resetIfUnchanged(Summary summary, long versionBeforeQuery) {
+        if (loaded && (pendingWrites > 0 || version != versionBeforeQuery)) return false;
+        actualAllowance = summary.getActualAllowanceCents();
+        expectedAllowance = summary.getExpectedAllowanceCents();
+        actualExpenses = summary.getActualExpensesCents();
+        expectedExpenses = summary.getExpectedExpensesCents();
+        loaded = true;
+        return true;
+    }
+
+    // Adds centsDelta to the bucket for this type/expected pair; other types
+    // (e.g. savings) are not part of the summary, same as the SQL aggregate
+    public synchronized void apply(String type, boolean isExpected, long centsDelta) {
+        if ("allowance".equals(type)) {
+            if (isExpected) expectedAllowance += centsDelta;
+            else actualAllowance += centsDelta;
+        } else if ("expense".equals(type)) {
+            if (isExpected) expectedExpenses += centsDelta;
+            else actualExpenses += centsDelta;
+        }
+    }
+
+    public synchronized Summary snapshot() {
+        return Summary.ofCents(actualAllowance, expectedAllowance, actualExpenses, expectedExpenses);
+    }
+}
@@ -0,0 +1,152 @@
+package com.tracker.database;
+
+import com.tracker.events.ChangeEventBus;
+import com.tracker.model.*;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// Everything the controller, importer and exporter need from where the data lives.
+// DatabaseManager (MySQL) is the default; MappedLogStorage keeps everything in a local
+// memory-mapped file and needs no server. -Dtracker.storage=mysql|mapped picks one at startup.
+// Both publish the same ChangeEvents, so the layers above cannot tell them apart.
+public interface TrackerStorage extends AutoCloseable {
+    // The user the desktop app runs as (created on first start if missing)
+    int DEFAULT_USER_ID = Integer.getInteger("tracker.userId", 1);
+    // Rows per INSERT batch (and per commit) for addTransactions
+    int DEFAULT_BATCH_SIZE = Integer.getInteger("tracker.batchSize", 500);
+
+    static TrackerStorage open() {
+        String kind = System.getProperty("tracker.storage", "mysql");
+        switch (kind) {
+            case "mysql":
+                return new DatabaseManager();
+            case "mapped":
+                return new MappedLogStorage(Path.of(System.getProperty("tracker.storage.dir",
+                        Path.of(System.getProperty("user.home"), ".allowance-tracker").toString())));
+            default:
+                throw new IllegalArgumentException("Unknown tracker.storage '" + kind + "' (expected mysql or mapped)");
+        }
+    }
+
+    boolean testConnection();
+
+    // USERS
+    boolean userExists(int userId);
+
+    // TRANSACTIONS
+    // Returns the new id (also set on the Transaction), or -1 on failure
+    int addTransaction(int userId, Transaction transaction);
+
+    // Returns how many rows were inserted, committed batchSize rows at a time; stops at the first failed batch
+    int addTransactions(int userId, Iterable<Transaction> transactions, int batchSize);
+
+    default int addTransactions(int userId, Iterable<Transaction> transactions) {
+        return addTransactions(userId, transactions, DEFAULT_BATCH_SIZE);
+    }
+
+    // Newest first (date, then id)
+    List<Transaction> getAllTransactions(int userId);
+
+    // Keyset pagination in getAllTransactions() order: afterDate = null for the first page,
+    // otherwise the date and id of the last row of the previous page
+    List<Transaction> getTransactionsPage(int userId, LocalDate afterDate, int afterId, int limit);
+
+    // Oldest first, without holding the whole result in memory. Any filter left null is not
+    // applied. Returns the number of rows handed to the action, or -1 on error.
+    long forEachTransaction(int userId, LocalDate fromDate, LocalDate toDate, Integer categoryId,
+                            String type, Consumer<Transaction> action);
+
+    // Only the rows the query matches, in its order, at most its limit
+    List<Transaction> queryTransactions(int userId, TransactionQuery query);
+
+    int countTransactions(int userId);
+
+    // Rows with an id above afterId, lowest id first: what was added since a client last looked
+    List<Transaction> getTransactionsAfterId(int userId, int afterId, int limit);
+
+    // Highest transaction id the user has, 0 if none
+    int getMaxTransactionId(int userId);
+
+    // Update and delete return the rows changed: 1, 0 if the user has no such transaction, or
+    // -1 if the write failed (already reported). This form takes pesos as typed into the form.
+    default int updateTransaction(int userId, int id, String description, double amount,
+                                  int categoryId, String paymentMethod, LocalDate date) {
+        return updateTransactionCents(userId, id, description, Money.toCents(amount), categoryId, paymentMethod, date);
+    }
+
+    int updateTransactionCents(int userId, int id, String description, long amountCents,
+                               int categoryId, String paymentMethod, LocalDate date);
+
+    int deleteTransaction(int userId, int transactionId);
+
+    // Newest first; every word of the query has to match description, category or payment method
+    List<Transaction> searchTransactions(int userId, String query, int limit);
+
+    // Built on first call and kept current by every write after that; null if the rows could not be read
+    TransactionSearchIndex enableSearchIndex(int userId);
+
+    // The user's rows as primitive columns for reports (see ReportEngine), built on first call
+    // and kept current by every write after that; null if the rows could not be read
+    ColumnarTransactionStore enableColumnarStore(int userId);
+
+    // Queued writes; only DatabaseManager can defer them (-Dtracker.writeBehind), everywhere
+    // else they run on the calling thread and return a completed future
+    default boolean isWriteBehindEnabled() {
+        return false;
+    }
+
+    default CompletableFuture<Integer> submitAddTransaction(int userId, Transaction transaction) {
+        return CompletableFuture.completedFuture(addTransaction(userId, transaction));
+    }
+
+    default CompletableFuture<Integer> submitUpdateTransaction(int userId, int id, String description, double amount,
+                                                               int categoryId, String paymentMethod, LocalDate date) {
+        return submitUpdateTransactionCents(userId, id, description, Money.toCents(amount), categoryId, paymentMethod, date);
+    }
+
+    default CompletableFuture<Integer> submitUpdateTransactionCents(int userId, int id, String description, long amountCents,
+                                                                    int categoryId, String paymentMethod, LocalDate date) {
+        return CompletableFuture.completedFuture(updateTransactionCents(userId, id, description, amountCents, categoryId, paymentMethod, date));
+    }
+
+    default CompletableFuture<Integer> submitDeleteTransaction(int userId, int transactionId) {
+        return CompletableFuture.completedFuture(deleteTransaction(userId, transactionId));
+    }
+
+    // SUMMARIES
+    Summary calculateSummary(int userId);
+
+    // Recomputes the totals from the stored rows instead of the running totals
+    Summary reconcileSummary(int userId);
+
+    // Per-month Summary for every month in [from, to] that has data, oldest first
+    Map<YearMonth, Summary> getMonthlySummaries(int userId, YearMonth from, YearMonth to);
+
+    // Actual (non-expected) totals per category for [from, to], largest first; type may be null for all
+    List<CategoryTotal> getCategoryTotals(int userId, YearMonth from, YearMonth to, String type);
+
+    // CATEGORIES AND BUDGETS
+    List<Category> getAllCategories();
+
+    // "" if there is no such category
+    String getCategoryName(int categoryId);
+
+    void addBudget(int userId, int categoryId, double monthlyLimit, double alertThreshold, String monthYear);
+
+    List<BudgetStatus> getBudgetStatuses(int userId, YearMonth month);
+
+    // Committed changes of every user, including budget alerts
+    ChangeEventBus getEventBus();
+
+    // Cached pivot reports for every user, created on first use and closed with the storage.
+    // One per storage, so the bus has one report subscriber however many controllers there are.
+    ReportEngine getReportEngine();
+
+    @Override
+    void close();
+}
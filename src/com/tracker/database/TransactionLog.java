@@ -0,0 +1,366 @@
+package com.tracker.database;
+
+import com.tracker.model.Transaction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+// Append-only file of fixed-width transaction records, memory-mapped SEGMENT_BYTES at a time.
+// A record is never changed once written: an update appends the new version under the same
+// id and a delete appends a tombstone, so the last record for an id wins. Offsets are byte
+// positions in the file and stay valid until compact(), which copies the live records into
+// the next generation (transactions-<n>.log) and switches to it.
+//
+// Not thread-safe; MappedLogStorage serializes writers and keeps readers out during compact().
+class TransactionLog implements AutoCloseable {
+    static final int RECORD_BYTES = 256;
+    // Fixed so a record never straddles two mappings
+    static final int SEGMENT_BYTES = 8 * 1024 * 1024;
+    // UTF-8 bytes; longer values are rejected (checkFits), never cut
+    static final int DESCRIPTION_BYTES = 192;
+    static final int PAYMENT_METHOD_BYTES = 32;
+
+    static final byte EMPTY = 0; // Never written: the end of the log
+    static final byte LIVE = 1;
+    static final byte TOMBSTONE = 2;
+
+    private static final long MAGIC = 0x41544C4F47303031L; // "ATLOG001"
+    private static final String[] TYPES = { "allowance", "expense", "savings" };
+
+    // Header (the first record slot): magic, record size, next transaction id
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_RECORD_BYTES = 8;
+    private static final int HEADER_NEXT_ID = 16;
+
+    // Record fields
+    private static final int STATE = 0;
+    private static final int TYPE = 1;
+    private static final int EXPECTED = 2;
+    private static final int ID = 4;
+    private static final int USER_ID = 8;
+    private static final int CATEGORY_ID = 12;
+    private static final int EPOCH_DAY = 16;
+    private static final int DESCRIPTION_LENGTH = 20;
+    private static final int PAYMENT_METHOD_LENGTH = 22;
+    private static final int AMOUNT_CENTS = 24;
+    private static final int DESCRIPTION = 32;
+    private static final int PAYMENT_METHOD = DESCRIPTION + DESCRIPTION_BYTES;
+
+    private final Path dir;
+    private int generation;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Offset the next record goes to
+    private long tail;
+    private long records;
+    private long liveRecords;
+
+    private TransactionLog(Path dir) {
+        this.dir = dir;
+    }
+
+    // Opens the newest generation in dir (creating the first one if there is none) and
+    // drops whatever older generations or unfinished compactions are left behind
+    static TransactionLog open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        TransactionLog log = new TransactionLog(dir);
+        int newest = -1;
+        List<Path> stale = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "transactions-*.log*")) {
+            for (Path file : files) {
+                int fileGeneration = generationOf(file);
+                if (fileGeneration < 0 || file.toString().endsWith(".tmp")) {
+                    stale.add(file);
+                } else if (fileGeneration > newest) {
+                    if (newest >= 0) stale.add(log.file(newest));
+                    newest = fileGeneration;
+                } else {
+                    stale.add(file);
+                }
+            }
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+        log.generation = Math.max(newest, 0);
+        log.map(log.file(log.generation));
+        return log;
+    }
+
+    Path getFile() { return file(generation); }
+    long getRecordCount() { return records; }
+    long getLiveRecordCount() { return liveRecords; }
+    long getSizeBytes() { return tail; }
+
+    // Calls visitor with the offset of every record, oldest first
+    void scan(LongConsumer visitor) {
+        for (long offset = RECORD_BYTES; offset < tail; offset += RECORD_BYTES) {
+            visitor.accept(offset);
+        }
+    }
+
+    // WRITES
+    // Ids come from the header, so they are never reused even after the highest one is
+    // deleted and compacted away
+    int allocateId() {
+        ByteBuffer header = segments.get(0);
+        long next = header.getLong(HEADER_NEXT_ID);
+        header.putLong(HEADER_NEXT_ID, next + 1);
+        return (int) next;
+    }
+
+    long appendLive(int userId, Transaction t) {
+        // Checked before the slot is taken: a reserved slot left EMPTY would end the log there
+        byte type = typeCode(t.getType());
+        checkFits(t.getDescription(), t.getPaymentMethod());
+        long offset = reserve();
+        ByteBuffer buffer = segment(offset);
+        int at = position(offset);
+        buffer.put(at + TYPE, type);
+        buffer.put(at + EXPECTED, (byte) (t.isExpected() ? 1 : 0));
+        buffer.putInt(at + ID, t.getId());
+        buffer.putInt(at + USER_ID, userId);
+        buffer.putInt(at + CATEGORY_ID, t.getCategoryId());
+        buffer.putInt(at + EPOCH_DAY, (int) t.getDate().toEpochDay());
+        buffer.putShort(at + DESCRIPTION_LENGTH, putString(buffer, at + DESCRIPTION, t.getDescription()));
+        buffer.putShort(at + PAYMENT_METHOD_LENGTH, putString(buffer, at + PAYMENT_METHOD, t.getPaymentMethod()));
+        buffer.putLong(at + AMOUNT_CENTS, t.getAmountCents());
+        // Written last: a record cut short by a crash still reads as EMPTY, i.e. the end of the log
+        buffer.put(at + STATE, LIVE);
+        liveRecords++;
+        return offset;
+    }
+
+    long appendTombstone(int userId, int transactionId) {
+        long offset = reserve();
+        ByteBuffer buffer = segment(offset);
+        int at = position(offset);
+        buffer.putInt(at + ID, transactionId);
+        buffer.putInt(at + USER_ID, userId);
+        buffer.put(at + STATE, TOMBSTONE);
+        return offset;
+    }
+
+    // A live record was superseded by a later one (update or tombstone)
+    void markSuperseded() {
+        liveRecords--;
+    }
+
+    // Flushes written records to disk. Without it they still survive the process dying
+    // (the OS owns the pages), just not the machine going down.
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    // Copies the records isLive accepts into the next generation, in order, and switches to
+    // it. Every offset changes, so the caller has to rescan. The old file is deleted once it
+    // is no longer mapped (on Windows possibly only at the next open).
+    void compact(LongPredicate isLive) throws IOException {
+        Path next = file(generation + 1);
+        Path temp = Path.of(next + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+            // Header as is, including the next id
+            copyRecord(0, record);
+            writeFully(out, record);
+            for (long offset = RECORD_BYTES; offset < tail; offset += RECORD_BYTES) {
+                if (state(offset) != LIVE || !isLive.test(offset)) continue;
+                copyRecord(offset, record);
+                writeFully(out, record);
+            }
+            out.force(true);
+        }
+        Files.move(temp, next, StandardCopyOption.ATOMIC_MOVE);
+
+        Path old = getFile();
+        close();
+        generation++;
+        map(next);
+        try {
+            Files.deleteIfExists(old);
+        } catch (IOException e) {
+            System.err.println("⚠ Could not delete " + old.getFileName() + " yet: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        segments.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("⚠ Error closing " + getFile().getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    // READS
+    byte state(long offset) { return segment(offset).get(position(offset) + STATE); }
+    int id(long offset) { return segment(offset).getInt(position(offset) + ID); }
+    int userId(long offset) { return segment(offset).getInt(position(offset) + USER_ID); }
+    int categoryId(long offset) { return segment(offset).getInt(position(offset) + CATEGORY_ID); }
+    int epochDay(long offset) { return segment(offset).getInt(position(offset) + EPOCH_DAY); }
+    long amountCents(long offset) { return segment(offset).getLong(position(offset) + AMOUNT_CENTS); }
+    String type(long offset) { return TYPES[segment(offset).get(position(offset) + TYPE)]; }
+    boolean isExpected(long offset) { return segment(offset).get(position(offset) + EXPECTED) != 0; }
+
+    String description(long offset) {
+        ByteBuffer buffer = segment(offset);
+        int at = position(offset);
+        return getString(buffer, at + DESCRIPTION, buffer.getShort(at + DESCRIPTION_LENGTH));
+    }
+
+    String paymentMethod(long offset) {
+        ByteBuffer buffer = segment(offset);
+        int at = position(offset);
+        return getString(buffer, at + PAYMENT_METHOD, buffer.getShort(at + PAYMENT_METHOD_LENGTH));
+    }
+
+    Transaction read(long offset, IntFunction<String> categoryNames) {
+        int categoryId = categoryId(offset);
+        return Transaction.ofCents(id(offset), categoryId, categoryNames.apply(categoryId),
+                LocalDate.ofEpochDay(epochDay(offset)), description(offset), amountCents(offset),
+                type(offset), isExpected(offset), paymentMethod(offset));
+    }
+
+    static void checkFits(String description, String paymentMethod) {
+        checkFits("description", description, DESCRIPTION_BYTES);
+        checkFits("payment method", paymentMethod, PAYMENT_METHOD_BYTES);
+    }
+
+    private static void checkFits(String field, String value, int capacity) {
+        if (value != null && value.getBytes(StandardCharsets.UTF_8).length > capacity) {
+            throw new IllegalArgumentException(field + " is longer than " + capacity + " bytes (UTF-8)");
+        }
+    }
+
+    static byte typeCode(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) return (byte) i;
+        }
+        throw new IllegalArgumentException("Unknown transaction type: " + type);
+    }
+
+    // INTERNALS
+    private Path file(int fileGeneration) {
+        return dir.resolve("transactions-" + fileGeneration + ".log");
+    }
+
+    private static int generationOf(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf(".log");
+        try {
+            return Integer.parseInt(name.substring("transactions-".length(), end));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    // Maps the whole file and finds the tail: the first slot that was never written
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        do {
+            addSegment();
+        } while ((long) segments.size() * SEGMENT_BYTES < size);
+
+        ByteBuffer header = segments.get(0);
+        if (header.getLong(HEADER_MAGIC) == 0) {
+            header.putLong(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_RECORD_BYTES, RECORD_BYTES);
+            header.putLong(HEADER_NEXT_ID, 1);
+        } else if (header.getLong(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_RECORD_BYTES) != RECORD_BYTES) {
+            throw new IOException(file + " is not a transaction log this version can read");
+        }
+
+        records = 0;
+        liveRecords = 0;
+        tail = RECORD_BYTES;
+        long end = (long) segments.size() * SEGMENT_BYTES;
+        int maxId = 0;
+        while (tail < end && state(tail) != EMPTY) {
+            records++;
+            // The owner calls markSuperseded() for the older versions as it replays
+            if (state(tail) == LIVE) liveRecords++;
+            maxId = Math.max(maxId, id(tail));
+            tail += RECORD_BYTES;
+        }
+        // The header page and the record pages reach the disk independently, so after a power
+        // loss the next id can lag the records; handing it out again would merge two transactions
+        if (header.getLong(HEADER_NEXT_ID) <= maxId) {
+            System.err.println("⚠ " + file.getFileName() + ": next id " + header.getLong(HEADER_NEXT_ID) +
+                    " is behind the records, continuing from " + (maxId + 1));
+            header.putLong(HEADER_NEXT_ID, maxId + 1);
+        }
+    }
+
+    private void addSegment() throws IOException {
+        long start = (long) segments.size() * SEGMENT_BYTES;
+        // Mapping past the end grows the file
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, start, SEGMENT_BYTES));
+    }
+
+    private long reserve() {
+        if (tail == (long) segments.size() * SEGMENT_BYTES) {
+            try {
+                addSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        long offset = tail;
+        tail += RECORD_BYTES;
+        records++;
+        return offset;
+    }
+
+    private ByteBuffer segment(long offset) {
+        return segments.get((int) (offset / SEGMENT_BYTES));
+    }
+
+    private static int position(long offset) {
+        return (int) (offset % SEGMENT_BYTES);
+    }
+
+    private void copyRecord(long offset, ByteBuffer record) {
+        record.clear();
+        segment(offset).get(position(offset), record.array(), 0, RECORD_BYTES);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer record) throws IOException {
+        record.rewind();
+        while (record.hasRemaining()) out.write(record);
+    }
+
+    // The caller has checked that value fits (checkFits)
+    private static short putString(ByteBuffer buffer, int at, String value) {
+        if (value == null) return -1;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.put(at, bytes, 0, bytes.length);
+        return (short) bytes.length;
+    }
+
+    private static String getString(ByteBuffer buffer, int at, short length) {
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(at, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
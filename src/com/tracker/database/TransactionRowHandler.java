@@ -0,0 +1,10 @@
+package com.tracker.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Callback for streaming reads: called once per row with the cursor positioned on it.
+// The ResultSet is only valid for the duration of the call.
+public interface TransactionRowHandler {
+    void onRow(ResultSet rs) throws SQLException;
+}
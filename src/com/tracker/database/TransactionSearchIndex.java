@@ -0,0 +1,428 @@
+package com.tracker.database;
+
+import com.tracker.model.Transaction;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+// In-memory n-gram index for type-ahead search over description, category name and payment
+// method. Every word of a row's text is indexed by its trigrams and by its 1- and 2-letter
+// prefixes, each pointing at a posting list of row slots in ascending order. A query term of
+// three or more letters matches anywhere inside a word, a shorter one matches word starts;
+// either way a lookup is a few sorted int arrays to intersect, never a scan of the rows.
+// Loaded by DatabaseManager.enableSearchIndex() and kept in sync by its write paths.
+public class TransactionSearchIndex {
+    // Rebuild the postings once this share of slots belongs to removed or replaced rows
+    private static final double MAX_DEAD_FRACTION = 0.5;
+    private static final int MIN_COMPACT_SLOTS = 1024;
+
+    private final IntFunction<String> categoryNames;
+
+    // Slot-indexed rows. Slots are only ever appended, so posting lists stay sorted; a
+    // changed row gets a new slot and the old one becomes a tombstone (text == null).
+    private int[] ids = new int[1024];
+    private int[] epochDays = new int[1024];
+    private String[] texts = new String[1024];
+    // Highest sort key among slots 0..i, so a backwards walk knows when nothing older can
+    // still make the top N. Rows mostly arrive in date order, making this a tight bound.
+    private long[] maxKeyUpTo = new long[1024];
+    private int slots;
+    private int dead;
+
+    // transaction_id -> slot, open addressing with linear probing (key 0 = empty slot)
+    private int[] indexKeys = new int[16];
+    private int[] indexSlots = new int[16];
+    private int indexCount;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    // Ids written through the hooks while the initial load streams in; the load must not
+    // overwrite them with its older snapshot of the row
+    private Set<Integer> touchedDuringLoad;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TransactionSearchIndex(IntFunction<String> categoryNames) {
+        this.categoryNames = categoryNames;
+    }
+
+    // LOADING
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void loadRow(int id, LocalDate date, String description, String categoryName, String paymentMethod) {
+        String text = normalize(description, categoryName, paymentMethod);
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad != null && touchedDuringLoad.contains(id)) return;
+            put(id, (int) date.toEpochDay(), text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = null;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // False between beginLoad() and endLoad(): the index is already taking writes but is
+    // still missing rows, so a search would come back short
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return touchedDuringLoad == null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // WRITES (called by DatabaseManager after a successful commit)
+    // Insert, or replace if the id is already present
+    public void upsert(int id, LocalDate date, int categoryId, String description, String paymentMethod) {
+        // Resolved before taking the lock: a category miss may go to the database
+        String text = normalize(description, categoryNames.apply(categoryId), paymentMethod);
+        lock.writeLock().lock();
+        try {
+            touch(id);
+            put(id, (int) date.toEpochDay(), text);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Transaction t) {
+        upsert(t.getId(), t.getDate(), t.getCategoryId(), t.getDescription(), t.getPaymentMethod());
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            touch(id);
+            int slot = findSlot(id);
+            if (slot < 0) return;
+            indexRemove(id);
+            kill(slot);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // SEARCH
+    // Ids of the newest matching rows (date, then id, descending), at most limit of them.
+    // Every word of the query must match; an empty query matches nothing.
+    public int[] search(String query, int limit) {
+        List<String> terms = words(query.toLowerCase(Locale.ROOT));
+        if (terms.isEmpty() || limit <= 0) return new int[0];
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            List<String> toVerify = new ArrayList<>();
+            for (String term : terms) {
+                long[] grams = term.length() < 3 ? new long[] { prefixGram(term, term.length()) } : trigrams(term);
+                for (long gram : grams) {
+                    Postings list = postings.get(gram);
+                    if (list == null) return new int[0];
+                    lists.add(list);
+                }
+                // Sharing all trigrams does not prove the term is there; one trigram or a prefix does
+                if (term.length() > 3) toVerify.add(term);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+            Postings smallest = lists.get(0);
+            // Exclusive upper bound per list; the walk only moves down, so neither do these
+            int[] bounds = new int[lists.size()];
+            for (int l = 1; l < bounds.length; l++) bounds[l] = lists.get(l).size;
+
+            // Walk the smallest list from the newest slot down, probing the others for each
+            // candidate, until no older slot can beat the oldest of the rows kept so far
+            PriorityQueue<Long> newest = new PriorityQueue<>(limit + 1);
+            candidates:
+            for (int i = smallest.size - 1; i >= 0; i--) {
+                int slot = smallest.slots[i];
+                if (newest.size() == limit && maxKeyUpTo[slot] <= newest.peek()) break;
+                if (texts[slot] == null) continue;
+                for (int l = 1; l < bounds.length; l++) {
+                    Postings other = lists.get(l);
+                    int at = gallopDown(other.slots, bounds[l], slot);
+                    if (at < 0) break candidates; // Nothing at or below this slot left in that list
+                    bounds[l] = at + 1;
+                    if (other.slots[at] != slot) continue candidates;
+                }
+                long key = sortKey(slot);
+                if (newest.size() == limit && key <= newest.peek()) continue;
+                if (!containsAll(texts[slot], toVerify)) continue;
+                newest.add(key);
+                if (newest.size() > limit) newest.poll();
+            }
+
+            int[] result = new int[newest.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = (int) (long) newest.poll();
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // INTERNALS (callers hold the write lock)
+    private void touch(int id) {
+        if (touchedDuringLoad != null) touchedDuringLoad.add(id);
+    }
+
+    private void put(int id, int epochDay, String text) {
+        int old = findSlot(id);
+        if (old >= 0) kill(old);
+
+        if (slots == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            maxKeyUpTo = Arrays.copyOf(maxKeyUpTo, capacity);
+        }
+        int slot = slots++;
+        ids[slot] = id;
+        epochDays[slot] = epochDay;
+        texts[slot] = text;
+        maxKeyUpTo[slot] = slot == 0 ? sortKey(slot) : Math.max(maxKeyUpTo[slot - 1], sortKey(slot));
+        indexPut(id, slot);
+        addPostings(slot, text);
+    }
+
+    private void kill(int slot) {
+        texts[slot] = null;
+        dead++;
+    }
+
+    private void addPostings(int slot, String text) {
+        long[] grams = new long[text.length() * 3];
+        int n = 0;
+        for (String word : words(text)) {
+            grams[n++] = prefixGram(word, 1);
+            if (word.length() >= 2) grams[n++] = prefixGram(word, 2);
+            for (long gram : trigrams(word)) grams[n++] = gram;
+        }
+        // Sorted so a gram repeated within the row is only posted once
+        Arrays.sort(grams, 0, n);
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && grams[i] == grams[i - 1]) continue;
+            postings.computeIfAbsent(grams[i], g -> new Postings()).add(slot);
+        }
+    }
+
+    // Renumbers the live rows into fresh slots (same order) and rebuilds every posting list
+    private void compactIfNeeded() {
+        if (touchedDuringLoad != null) return; // Not while a load is still adding rows
+        if (slots < MIN_COMPACT_SLOTS || dead < slots * MAX_DEAD_FRACTION) return;
+
+        int live = 0;
+        postings.clear();
+        Arrays.fill(indexKeys, 0);
+        indexCount = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (texts[slot] == null) continue;
+            ids[live] = ids[slot];
+            epochDays[live] = epochDays[slot];
+            texts[live] = texts[slot];
+            maxKeyUpTo[live] = live == 0 ? sortKey(live) : Math.max(maxKeyUpTo[live - 1], sortKey(live));
+            indexPut(ids[live], live);
+            addPostings(live, texts[live]);
+            live++;
+        }
+        Arrays.fill(texts, live, slots, null);
+        slots = live;
+        dead = 0;
+    }
+
+    // date then id, so larger means newer
+    private long sortKey(int slot) {
+        return ((long) epochDays[slot] << 32) | (ids[slot] & 0xFFFFFFFFL);
+    }
+
+    private static boolean containsAll(String text, List<String> terms) {
+        for (String term : terms) {
+            if (!text.contains(term)) return false;
+        }
+        return true;
+    }
+
+    // Largest index below hi whose value is <= target (-1 if none): exponential steps
+    // downwards from hi, then a binary search in the last step
+    private static int gallopDown(int[] values, int hi, int target) {
+        int step = 1;
+        int lo = hi - 1;
+        while (lo >= 0 && values[lo] > target) {
+            hi = lo;
+            lo -= step;
+            step <<= 1;
+        }
+        lo = Math.max(lo, 0);
+        // values[lo] <= target unless everything below hi is larger
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= target) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo - 1;
+    }
+
+    // GRAMS
+    // Trigram keys use the low 48 bits (three chars); prefix grams set a length marker above them
+    private static long[] trigrams(String word) {
+        if (word.length() < 3) return new long[0];
+        long[] grams = new long[word.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) word.charAt(i) << 32) | ((long) word.charAt(i + 1) << 16) | word.charAt(i + 2);
+        }
+        return grams;
+    }
+
+    private static long prefixGram(String word, int length) {
+        long gram = (long) length << 48;
+        for (int i = 0; i < length; i++) {
+            gram |= (long) word.charAt(i) << (16 * (length - 1 - i));
+        }
+        return gram;
+    }
+
+    // Letters and digits only; everything else separates words
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) start = i;
+            if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String description, String categoryName, String paymentMethod) {
+        StringBuilder text = new StringBuilder();
+        if (description != null) text.append(description);
+        if (categoryName != null) text.append('\n').append(categoryName);
+        if (paymentMethod != null) text.append('\n').append(paymentMethod);
+        return text.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // id -> slot
+    private int findSlot(int id) {
+        int mask = indexKeys.length - 1;
+        int i = hash(id) & mask;
+        while (indexKeys[i] != 0) {
+            if (indexKeys[i] == id) return indexSlots[i];
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void indexPut(int id, int slot) {
+        if ((indexCount + 1) * 2 > indexKeys.length) resizeIndex(indexKeys.length * 2);
+        int mask = indexKeys.length - 1;
+        int i = hash(id) & mask;
+        while (indexKeys[i] != 0 && indexKeys[i] != id) {
+            i = (i + 1) & mask;
+        }
+        if (indexKeys[i] == 0) indexCount++;
+        indexKeys[i] = id;
+        indexSlots[i] = slot;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void indexRemove(int id) {
+        int mask = indexKeys.length - 1;
+        int i = hash(id) & mask;
+        while (indexKeys[i] != id) {
+            if (indexKeys[i] == 0) return;
+            i = (i + 1) & mask;
+        }
+        indexCount--;
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (indexKeys[j] == 0) break;
+            int home = hash(indexKeys[j]) & mask;
+            // Move j into the hole unless its home lies cyclically in (hole, j]
+            boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!stays) {
+                indexKeys[hole] = indexKeys[j];
+                indexSlots[hole] = indexSlots[j];
+                hole = j;
+            }
+        }
+        indexKeys[hole] = 0;
+    }
+
+    private void resizeIndex(int capacity) {
+        int[] oldKeys = indexKeys;
+        int[] oldSlots = indexSlots;
+        indexKeys = new int[capacity];
+        indexSlots = new int[capacity];
+        indexCount = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) indexPut(oldKeys[i], oldSlots[i]);
+        }
+    }
+
+    private static int hash(int key) {
+        return key * 0x9E3779B9 >>> 7;
+    }
+
+    // Growable sorted int list; appends arrive in slot order
+    private static class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+    }
+}
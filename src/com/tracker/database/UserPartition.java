@@ -0,0 +1,42 @@
+package com.tracker.database;
+
+import java.util.function.IntFunction;
+
+// Everything DatabaseManager keeps in memory for one user: summary totals, budget
+// accumulators and (when enabled) the columnar store and search index. Categories are shared by all users
+// and stay in DatabaseManager's CategoryCache.
+// A partition is created empty and loaded once by DatabaseManager before it is used.
+public class UserPartition {
+    private final int userId;
+    private final SummaryCache summary = new SummaryCache();
+    private final BudgetEngine budgets;
+    private volatile ColumnarTransactionStore columnarStore;
+    private volatile TransactionSearchIndex searchIndex;
+    private volatile boolean loaded;
+    // Held while the columnar store or search index is built, so a second caller waits for that
+    // load instead of starting its own, while other users' loads go ahead
+    final Object columnarStoreLock = new Object();
+    final Object searchIndexLock = new Object();
+
+    UserPartition(int userId, IntFunction<String> categoryNames) {
+        this.userId = userId;
+        this.budgets = new BudgetEngine(categoryNames);
+    }
+
+    public int getUserId() { return userId; }
+    public SummaryCache getSummary() { return summary; }
+    public BudgetEngine getBudgets() { return budgets; }
+    public ColumnarTransactionStore getColumnarStore() { return columnarStore; }
+    void setColumnarStore(ColumnarTransactionStore columnarStore) { this.columnarStore = columnarStore; }
+    public TransactionSearchIndex getSearchIndex() { return searchIndex; }
+    void setSearchIndex(TransactionSearchIndex searchIndex) { this.searchIndex = searchIndex; }
+
+    boolean isLoaded() { return loaded; }
+    void markLoaded() { loaded = true; }
+
+    // Only idle partitions may be evicted: a write in flight would apply its delta to a
+    // partition nobody reads any more, and the reloaded one would never see it
+    boolean isIdle() {
+        return !summary.hasPendingWrites();
+    }
+}
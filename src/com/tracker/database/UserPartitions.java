@@ -0,0 +1,80 @@
+package com.tracker.database;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// The per-user partitions, least recently used first. Each user's in-memory state has a
+// fixed shape (totals, budgets), so capping the number of resident users caps memory, and
+// one busy user can only ever hold their own partition - never crowd out anyone else's rows.
+// When the cap is exceeded the least recently used idle partition is dropped; it is
+// rebuilt from the database the next time that user shows up.
+public class UserPartitions {
+    private final int maxUsers;
+    private final IntFunction<UserPartition> factory;
+    // Access order: iteration starts at the least recently used user
+    private final LinkedHashMap<Integer, UserPartition> partitions = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Statistics
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public UserPartitions(int maxUsers, IntFunction<UserPartition> factory) {
+        this.maxUsers = Math.max(1, maxUsers);
+        this.factory = factory;
+    }
+
+    // The caller still has to make sure the partition is loaded
+    public synchronized UserPartition get(int userId) {
+        UserPartition partition = partitions.get(userId);
+        if (partition != null) {
+            hits++;
+            return partition;
+        }
+        misses++;
+        partition = factory.apply(userId);
+        partitions.put(userId, partition);
+        evictIfNeeded(userId);
+        return partition;
+    }
+
+    // Same as get(), but registers a pending write before the lock is released, so the
+    // partition cannot be evicted until the matching endWrite()
+    public synchronized UserPartition beginWrite(int userId) {
+        UserPartition partition = get(userId);
+        partition.getSummary().beginWrite();
+        return partition;
+    }
+
+    public synchronized List<UserPartition> snapshot() {
+        return new ArrayList<>(partitions.values());
+    }
+
+    public synchronized int size() { return partitions.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+
+    public synchronized void printStats() {
+        long lookups = hits + misses;
+        System.out.println(String.format("  User partitions: %d resident / %d max, %d hits / %d loads (%.1f%% hit), %d evicted",
+                partitions.size(), maxUsers, hits, misses, lookups == 0 ? 0 : 100.0 * hits / lookups, evictions));
+    }
+
+    // Partitions with writes in flight are skipped; the map may briefly run over the cap
+    // while every older partition is busy
+    private void evictIfNeeded(int keepUserId) {
+        Iterator<Map.Entry<Integer, UserPartition>> it = partitions.entrySet().iterator();
+        while (partitions.size() > maxUsers && it.hasNext()) {
+            Map.Entry<Integer, UserPartition> eldest = it.next();
+            if (eldest.getKey() != keepUserId && eldest.getValue().isIdle()) {
+                it.remove();
+                evictions++;
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.tracker.database;
+
+import com.tracker.model.Transaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Group commit for transaction writes. Callers enqueue a Write and get a future back; one
+// writer thread takes whatever has queued up within maxDelayMillis (or maxGroupSize writes,
+// whichever comes first) and hands it to the GroupWriter to run as one database transaction.
+// Futures complete only after that commit, so "completed" always means durable.
+// The queue is bounded: when the database falls behind, submit() blocks instead of buffering forever.
+public class WriteBehindQueue implements WriteBehindQueueMBean {
+    public enum Kind { INSERT, UPDATE, DELETE }
+
+    public interface GroupWriter {
+        // Runs and commits the whole group in one transaction, or throws having committed nothing
+        void writeGroup(List<Write> group) throws Exception;
+        // The write could not be committed, even on its own
+        void writeFailed(Write write, Exception error);
+    }
+
+    private final BlockingQueue<Write> queue;
+    private final GroupWriter writer;
+    private final long maxDelayNanos;
+    private final int maxGroupSize;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    // Statistics
+    private final AtomicLong committedWrites = new AtomicLong();
+    private final AtomicLong committedGroups = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong commitNanos = new AtomicLong();
+    private volatile int largestGroup;
+
+    public WriteBehindQueue(GroupWriter writer, int capacity, long maxDelayMillis, int maxGroupSize) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = writer;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.maxGroupSize = maxGroupSize;
+        this.thread = new Thread(this::run, "write-behind");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Synchronized so close() cannot slip in between the closed check and the put
+    public synchronized CompletableFuture<Integer> submit(Write write) {
+        if (closed) {
+            reject(write, new IllegalStateException("Write-behind queue is closed"));
+            return write.future;
+        }
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(write, e);
+        }
+        return write.future;
+    }
+
+    public int getQueuedCount() { return queue.size(); }
+    public long getCommittedWrites() { return committedWrites.get(); }
+    public long getCommittedGroups() { return committedGroups.get(); }
+    public long getFailedWrites() { return failedWrites.get(); }
+    public int getLargestGroup() { return largestGroup; }
+
+    public double getAverageGroupSize() {
+        long groups = committedGroups.get();
+        return groups == 0 ? 0 : (double) committedWrites.get() / groups;
+    }
+
+    public double getAverageCommitMillis() {
+        long groups = committedGroups.get();
+        return groups == 0 ? 0 : commitNanos.get() / 1e6 / groups;
+    }
+
+    public void printStats() {
+        System.out.println(String.format("  Write-behind: %d writes in %d groups (avg %.1f, largest %d), " +
+                "avg commit %.2f ms, %d failed",
+                getCommittedWrites(), getCommittedGroups(), getAverageGroupSize(), getLargestGroup(),
+                getAverageCommitMillis(), getFailedWrites()));
+    }
+
+    // Stops accepting writes and waits until everything already queued has been committed
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Write> group = new ArrayList<>(maxGroupSize);
+        while (true) {
+            Write first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue; // Only close() ends the loop, so nothing queued is ever dropped
+            }
+            if (first == null) {
+                if (closed && queue.isEmpty()) return;
+                continue;
+            }
+
+            // The first write waits at most maxDelay for company
+            group.add(first);
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while (group.size() < maxGroupSize && !closed) {
+                if (queue.drainTo(group, maxGroupSize - group.size()) > 0) continue;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) break;
+                try {
+                    Write next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    group.add(next);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            if (closed) queue.drainTo(group, maxGroupSize - group.size());
+
+            commit(group);
+            group.clear();
+        }
+    }
+
+    private void commit(List<Write> group) {
+        long start = System.nanoTime();
+        try {
+            writer.writeGroup(group);
+            recordCommit(group, System.nanoTime() - start);
+        } catch (Exception e) {
+            if (group.size() == 1) {
+                fail(group.get(0), e);
+                return;
+            }
+            // One bad write must not take its neighbours down: retry each on its own
+            for (Write write : group) {
+                long single = System.nanoTime();
+                try {
+                    writer.writeGroup(List.of(write));
+                    recordCommit(List.of(write), System.nanoTime() - single);
+                } catch (Exception retryError) {
+                    fail(write, retryError);
+                }
+            }
+        }
+    }
+
+    private void recordCommit(List<Write> group, long nanos) {
+        committedGroups.incrementAndGet();
+        committedWrites.addAndGet(group.size());
+        commitNanos.addAndGet(nanos);
+        if (group.size() > largestGroup) largestGroup = group.size();
+        for (Write write : group) {
+            write.future.complete(write.result);
+        }
+    }
+
+    private void fail(Write write, Exception error) {
+        failedWrites.incrementAndGet();
+        reject(write, error);
+    }
+
+    private void reject(Write write, Exception error) {
+        try {
+            writer.writeFailed(write, error);
+        } finally {
+            write.future.completeExceptionally(error);
+        }
+    }
+
+    // One queued mutation on behalf of one user. An UPDATE carries the new values in a
+    // Transaction whose id names the row.
+    public static class Write {
+        private final Kind kind;
+        private final int userId;
+        private final int transactionId;
+        private final Transaction transaction;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+        private int result;
+
+        private Write(Kind kind, int userId, int transactionId, Transaction transaction) {
+            this.kind = kind;
+            this.userId = userId;
+            this.transactionId = transactionId;
+            this.transaction = transaction;
+        }
+
+        public static Write insert(int userId, Transaction transaction) {
+            return new Write(Kind.INSERT, userId, 0, transaction);
+        }
+
+        public static Write update(int userId, Transaction newValues) {
+            return new Write(Kind.UPDATE, userId, newValues.getId(), newValues);
+        }
+
+        public static Write delete(int userId, int transactionId) {
+            return new Write(Kind.DELETE, userId, transactionId, null);
+        }
+
+        public Kind getKind() { return kind; }
+        public int getUserId() { return userId; }
+        public int getTransactionId() { return transactionId; }
+        public Transaction getTransaction() { return transaction; }
+        public CompletableFuture<Integer> getFuture() { return future; }
+        // What the future completes with: the new id for an INSERT, rows changed (0 or 1) otherwise
+        public void setResult(int result) { this.result = result; }
+    }
+}
@@ -0,0 +1,12 @@
+package com.tracker.database;
+
+// Queue depth and group-commit counters as JMX sees them (com.tracker:type=WriteBehindQueue)
+public interface WriteBehindQueueMBean {
+    int getQueuedCount();
+    long getCommittedWrites();
+    long getCommittedGroups();
+    long getFailedWrites();
+    int getLargestGroup();
+    double getAverageGroupSize();
+    double getAverageCommitMillis();
+}
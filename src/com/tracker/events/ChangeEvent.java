@@ -0,0 +1,106 @@
+package com.tracker.events;
+
+import com.tracker.model.BudgetStatus;
+import com.tracker.model.Transaction;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+// Something that changed in storage, published by the TrackerStorage once it is committed.
+// The bus stamps each event with a sequence number; numbers only ever increase, so a
+// subscriber can remember the last one it saw and replay from there.
+public abstract class ChangeEvent {
+    private final int userId;
+    private volatile long sequence;
+
+    protected ChangeEvent(int userId) {
+        this.userId = userId;
+    }
+
+    public int getUserId() { return userId; }
+    public long getSequence() { return sequence; }
+
+    // Set once, by ChangeEventBus.publish()
+    void setSequence(long sequence) { this.sequence = sequence; }
+
+    // A new row, with its generated id and category name filled in
+    public static class TransactionAdded extends ChangeEvent {
+        private final Transaction transaction;
+
+        public TransactionAdded(int userId, Transaction transaction) {
+            super(userId);
+            this.transaction = transaction;
+        }
+
+        public Transaction getTransaction() { return transaction; }
+
+        @Override
+        public String toString() {
+            return "TransactionAdded #" + getSequence() + " (id " + transaction.getId() + ")";
+        }
+    }
+
+    // The row as it is after the update; previousDate tells where it used to sort
+    public static class TransactionUpdated extends ChangeEvent {
+        private final Transaction transaction;
+        private final LocalDate previousDate;
+
+        public TransactionUpdated(int userId, Transaction transaction, LocalDate previousDate) {
+            super(userId);
+            this.transaction = transaction;
+            this.previousDate = previousDate;
+        }
+
+        public Transaction getTransaction() { return transaction; }
+        public LocalDate getPreviousDate() { return previousDate; }
+
+        @Override
+        public String toString() {
+            return "TransactionUpdated #" + getSequence() + " (id " + transaction.getId() + ")";
+        }
+    }
+
+    public static class TransactionDeleted extends ChangeEvent {
+        private final int transactionId;
+        private final LocalDate date;
+
+        public TransactionDeleted(int userId, int transactionId, LocalDate date) {
+            super(userId);
+            this.transactionId = transactionId;
+            this.date = date;
+        }
+
+        public int getTransactionId() { return transactionId; }
+        public LocalDate getDate() { return date; }
+
+        @Override
+        public String toString() {
+            return "TransactionDeleted #" + getSequence() + " (id " + transactionId + ")";
+        }
+    }
+
+    // A budget was set or changed, or spending crossed its alert threshold (isAlert())
+    public static class BudgetChanged extends ChangeEvent {
+        private final int categoryId;
+        private final YearMonth month;
+        private final BudgetStatus status;
+        private final boolean alert;
+
+        public BudgetChanged(int userId, int categoryId, YearMonth month, BudgetStatus status, boolean alert) {
+            super(userId);
+            this.categoryId = categoryId;
+            this.month = month;
+            this.status = status;
+            this.alert = alert;
+        }
+
+        public int getCategoryId() { return categoryId; }
+        public YearMonth getMonth() { return month; }
+        public BudgetStatus getStatus() { return status; }
+        public boolean isAlert() { return alert; }
+
+        @Override
+        public String toString() {
+            return "BudgetChanged #" + getSequence() + " (category " + categoryId + ", " + month + (alert ? ", alert)" : ")");
+        }
+    }
+}
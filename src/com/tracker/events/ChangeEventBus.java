@@ -0,0 +1,171 @@
+package com.tracker.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// In-process bus for ChangeEvents. Publishing never blocks and takes no locks: the event
+// gets the next sequence number and goes into a ring holding the most recent events, then
+// each subscriber is nudged. A subscriber reads the ring from its own cursor on its own
+// executor, so a burst of events reaches it as one batch and a slow subscriber only ever
+// delays itself. If it falls a whole ring behind, it is told to resync from the database
+// instead of getting a partial history.
+public class ChangeEventBus {
+    public static final int ALL_USERS = -1;
+
+    public interface Listener {
+        // Events in sequence order, all for the subscribed user
+        void onEvents(List<ChangeEvent> events);
+
+        // Events were missed; rebuild whatever was derived from them
+        default void onResync() { }
+    }
+
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // Statistics
+    private final AtomicLong resyncs = new AtomicLong();
+
+    public ChangeEventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    // Called after the change is committed
+    public void publish(ChangeEvent event) {
+        long seq = sequence.incrementAndGet();
+        event.setSequence(seq);
+        ring.set((int) (seq & mask), event);
+        for (Subscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    // Sequence number of the newest event; 0 before the first one
+    public long lastSequence() {
+        return sequence.get();
+    }
+
+    // Every event after afterSequence that is still in the ring, in order, or null if some
+    // of them have already been overwritten (the caller has to resync instead)
+    public List<ChangeEvent> replay(long afterSequence) {
+        List<ChangeEvent> events = new ArrayList<>();
+        long last = sequence.get();
+        if (last - afterSequence > ring.length()) return null;
+        for (long seq = afterSequence + 1; seq <= last; seq++) {
+            ChangeEvent event = ring.get((int) (seq & mask));
+            if (event == null || event.getSequence() < seq) break; // Still being published
+            if (event.getSequence() > seq) return null;
+            events.add(event);
+        }
+        return events;
+    }
+
+    // Delivery starts with the next event published. The listener always runs on executor,
+    // one batch at a time; pass Runnable::run to handle events on the publishing thread.
+    public Subscription subscribe(int userId, Executor executor, Listener listener) {
+        return subscribe(userId, executor, listener, sequence.get());
+    }
+
+    // Replays everything after afterSequence first (or resyncs if that is no longer in the ring)
+    public Subscription subscribe(int userId, Executor executor, Listener listener, long afterSequence) {
+        Subscription subscription = new Subscription(userId, executor, listener, afterSequence);
+        subscriptions.add(subscription);
+        if (afterSequence < sequence.get()) subscription.signal();
+        return subscription;
+    }
+
+    public int getSubscriberCount() { return subscriptions.size(); }
+    public long getResyncCount() { return resyncs.get(); }
+
+    public void printStats() {
+        System.out.println("  Event bus: " + sequence.get() + " published, " + subscriptions.size() +
+                " subscribers, " + resyncs.get() + " resyncs");
+    }
+
+    public class Subscription implements AutoCloseable {
+        private final int userId;
+        private final Executor executor;
+        private final Listener listener;
+        // Last sequence number handed to the listener; only touched inside drain()
+        private long cursor;
+        // Signals not yet drained; whoever moves it off zero schedules the drain, so at
+        // most one drain per subscription runs at a time
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean closed;
+
+        private Subscription(int userId, Executor executor, Listener listener, long cursor) {
+            this.userId = userId;
+            this.executor = executor;
+            this.listener = listener;
+            this.cursor = cursor;
+        }
+
+        public long getCursor() { return cursor; }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+
+        private void signal() {
+            if (pending.getAndIncrement() != 0) return;
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                System.err.println("⚠ Event subscriber's executor is shut down; unsubscribing");
+                close();
+            }
+        }
+
+        private void drain() {
+            int missed = pending.get();
+            while (true) {
+                if (!closed) deliver();
+                missed = pending.addAndGet(-missed);
+                if (missed == 0) return;
+            }
+        }
+
+        private void deliver() {
+            List<ChangeEvent> batch = new ArrayList<>();
+            boolean resync = false;
+            while (true) {
+                long next = cursor + 1;
+                ChangeEvent event = ring.get((int) (next & mask));
+                // Not published yet (or a publisher is between taking the number and
+                // filling the slot; it signals again when it is done)
+                if (event == null || event.getSequence() < next) break;
+                if (event.getSequence() > next) {
+                    // Overwritten: we fell a whole ring behind. Whatever is queued is
+                    // superseded by the resync, so skip straight to the newest event.
+                    resync = true;
+                    batch.clear();
+                    cursor = sequence.get();
+                    continue;
+                }
+                cursor = next;
+                if (userId == ALL_USERS || event.getUserId() == userId) batch.add(event);
+            }
+            try {
+                if (resync) {
+                    resyncs.incrementAndGet();
+                    listener.onResync();
+                }
+                if (!batch.isEmpty()) listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                System.err.println("✗ Event listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.tracker.io;
+
+import com.tracker.database.TrackerStorage;
+import com.tracker.model.Category;
+import com.tracker.model.Money;
+import com.tracker.model.Transaction;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Streams a CSV file (our own export or a bank statement) into the transactions table.
+// Parsing happens on the calling thread while a writer thread inserts the previous chunk
+// with TrackerStorage.addTransactions, so at most QUEUE_CHUNKS + 2 chunks are in memory.
+public class CsvTransactionImporter {
+    public enum Field { DATE, DESCRIPTION, AMOUNT, TYPE, EXPECTED, CATEGORY, PAYMENT_METHOD }
+
+    private static final int QUEUE_CHUNKS = 2;
+    // The transaction_type ENUM; anything else would fail the whole batch at the database
+    private static final Set<String> TYPES = Set.of("allowance", "expense", "savings");
+    private static final List<Transaction> END_OF_INPUT = Collections.emptyList();
+
+    private final TrackerStorage storage;
+    private final int userId;
+    private final Map<Field, String> columnNames = new EnumMap<>(Field.class);
+    private DateTimeFormatter dateFormat = DateTimeFormatter.ISO_LOCAL_DATE;
+    private int chunkSize = TrackerStorage.DEFAULT_BATCH_SIZE;
+    private int defaultExpenseCategoryId = -1;
+    private int defaultAllowanceCategoryId = -1;
+
+    public CsvTransactionImporter(TrackerStorage storage, int userId) {
+        this.storage = storage;
+        this.userId = userId;
+        // Defaults match the column names used by the transactions table
+        columnNames.put(Field.DATE, "transaction_date");
+        columnNames.put(Field.DESCRIPTION, "description");
+        columnNames.put(Field.AMOUNT, "amount");
+        columnNames.put(Field.TYPE, "transaction_type");
+        columnNames.put(Field.EXPECTED, "is_expected");
+        columnNames.put(Field.CATEGORY, "category");
+        columnNames.put(Field.PAYMENT_METHOD, "payment_method");
+    }
+
+    // e.g. mapColumn(Field.DATE, "Posting Date") for a bank statement export
+    public void mapColumn(Field field, String headerName) { columnNames.put(field, headerName); }
+    public void setDateFormat(String pattern) { dateFormat = DateTimeFormatter.ofPattern(pattern); }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    // Used when the file has no category column or names a category we don't know
+    public void setDefaultCategories(int expenseCategoryId, int allowanceCategoryId) {
+        this.defaultExpenseCategoryId = expenseCategoryId;
+        this.defaultAllowanceCategoryId = allowanceCategoryId;
+    }
+
+    public ImportResult importFile(Path file) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Integer> categoryIds = loadCategoryIds();
+
+        BlockingQueue<List<Transaction>> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        AtomicInteger inserted = new AtomicInteger();
+        AtomicReference<Throwable> writerError = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            try {
+                List<Transaction> chunk;
+                while ((chunk = queue.take()) != END_OF_INPUT) {
+                    int count = storage.addTransactions(userId, chunk, chunkSize);
+                    inserted.addAndGet(count);
+                    if (count < chunk.size()) {
+                        throw new IllegalStateException("batch insert failed after " + inserted.get() + " rows");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                writerError.set(e);
+            }
+        }, "csv-import-writer");
+        writer.start();
+
+        int parsed = 0;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> header = readRecord(reader);
+            if (header == null) throw new IOException("File is empty");
+            Map<Field, Integer> columns = resolveColumns(header);
+
+            List<Transaction> chunk = new ArrayList<>(chunkSize);
+            List<String> record;
+            int line = 1;
+            while ((record = readRecord(reader)) != null) {
+                line++;
+                if (record.size() == 1 && record.get(0).isBlank()) continue;
+                try {
+                    chunk.add(toTransaction(record, columns, categoryIds));
+                    parsed++;
+                } catch (RuntimeException e) {
+                    skipped++;
+                    System.err.println("⚠ Skipping line " + line + ": " + e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    if (!handOff(queue, chunk, writer)) break;
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) handOff(queue, chunk, writer);
+        } finally {
+            handOff(queue, END_OF_INPUT, writer);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (writerError.get() != null) {
+            throw new IOException("Import stopped: " + writerError.get().getMessage(), writerError.get());
+        }
+        ImportResult result = new ImportResult(parsed, inserted.get(), skipped, System.nanoTime() - start);
+        System.out.println("✓ " + result);
+        return result;
+    }
+
+    // Blocks while the writer is two chunks behind, which is what keeps memory bounded
+    private boolean handOff(BlockingQueue<List<Transaction>> queue, List<Transaction> chunk, Thread writer) {
+        try {
+            while (writer.isAlive()) {
+                if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private Map<String, Integer> loadCategoryIds() {
+        Map<String, Integer> ids = new HashMap<>();
+        for (Category category : storage.getAllCategories()) {
+            ids.put(category.getName().toLowerCase(Locale.ROOT), category.getCategoryId());
+            ids.put(String.valueOf(category.getCategoryId()), category.getCategoryId());
+        }
+        return ids;
+    }
+
+    private Map<Field, Integer> resolveColumns(List<String> header) throws IOException {
+        Map<Field, Integer> columns = new EnumMap<>(Field.class);
+        for (Map.Entry<Field, String> entry : columnNames.entrySet()) {
+            for (int i = 0; i < header.size(); i++) {
+                // Excel likes to start UTF-8 files with a byte order mark
+                if (header.get(i).replace("\uFEFF", "").trim().equalsIgnoreCase(entry.getValue())) {
+                    columns.put(entry.getKey(), i);
+                    break;
+                }
+            }
+        }
+        if (!columns.containsKey(Field.DATE) || !columns.containsKey(Field.AMOUNT)) {
+            throw new IOException("CSV needs at least a '" + columnNames.get(Field.DATE) +
+                                  "' and an '" + columnNames.get(Field.AMOUNT) + "' column");
+        }
+        return columns;
+    }
+
+    private Transaction toTransaction(List<String> record, Map<Field, Integer> columns,
+                                      Map<String, Integer> categoryIds) {
+        LocalDate date;
+        try {
+            date = LocalDate.parse(value(record, columns, Field.DATE), dateFormat);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("bad date '" + value(record, columns, Field.DATE) + "'");
+        }
+
+        String rawAmount = value(record, columns, Field.AMOUNT).replace(",", "").replace("₱", "");
+        // Parsed as a decimal so "19.99" becomes exactly 1999 centavos
+        long amountCents;
+        try {
+            amountCents = Money.toCents(new BigDecimal(rawAmount));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("bad amount '" + rawAmount + "'");
+        }
+
+        // Bank statements usually have no type column: money out is negative
+        String type = value(record, columns, Field.TYPE).toLowerCase(Locale.ROOT);
+        if (type.isEmpty()) type = amountCents < 0 ? "expense" : "allowance";
+        if (!TYPES.contains(type)) throw new IllegalArgumentException("bad type '" + type + "'");
+        amountCents = Math.abs(amountCents);
+
+        String expected = value(record, columns, Field.EXPECTED).toLowerCase(Locale.ROOT);
+        boolean isExpected = expected.equals("1") || expected.equals("true") || expected.equals("yes");
+
+        String categoryName = value(record, columns, Field.CATEGORY).toLowerCase(Locale.ROOT);
+        Integer categoryId = categoryIds.get(categoryName);
+        if (categoryId == null) {
+            categoryId = "allowance".equals(type) ? defaultAllowanceCategoryId : defaultExpenseCategoryId;
+            if (categoryId < 0) throw new IllegalArgumentException("unknown category '" + categoryName + "'");
+        }
+
+        String paymentMethod = value(record, columns, Field.PAYMENT_METHOD);
+        return Transaction.ofCents(0, categoryId, "", date, value(record, columns, Field.DESCRIPTION),
+                               amountCents, type, isExpected, paymentMethod.isEmpty() ? null : paymentMethod);
+    }
+
+    private static String value(List<String> record, Map<Field, Integer> columns, Field field) {
+        Integer index = columns.get(field);
+        if (index == null || index >= record.size()) return "";
+        return record.get(index).trim();
+    }
+
+    // Reads one RFC 4180 record: quoted fields may contain commas, "" and line breaks
+    static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) break;
+            line = reader.readLine();
+            if (line == null) break; // Unterminated quote: keep what we have
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    public static class ImportResult {
+        private final int parsedRows;
+        private final int insertedRows;
+        private final int skippedRows;
+        private final long elapsedNanos;
+
+        ImportResult(int parsedRows, int insertedRows, int skippedRows, long elapsedNanos) {
+            this.parsedRows = parsedRows;
+            this.insertedRows = insertedRows;
+            this.skippedRows = skippedRows;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getParsedRows() { return parsedRows; }
+        public int getInsertedRows() { return insertedRows; }
+        public int getSkippedRows() { return skippedRows; }
+        public double getElapsedSeconds() { return elapsedNanos / 1e9; }
+
+        @Override
+        public String toString() {
+            double seconds = getElapsedSeconds();
+            return String.format("Imported %d of %d rows (%d skipped) in %.2f s (%.0f rows/sec)",
+                insertedRows, parsedRows, skippedRows, seconds, seconds > 0 ? insertedRows / seconds : 0);
+        }
+    }
+}
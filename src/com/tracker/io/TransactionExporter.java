@@ -0,0 +1,202 @@
+package com.tracker.io;
+
+import com.tracker.database.TrackerStorage;
+import com.tracker.model.Money;
+import com.tracker.model.Transaction;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+// Writes transactions to CSV or JSON Lines while they stream from storage. Rows go
+// straight into a buffered file channel as they are read, so heap use stays flat no
+// matter how many rows are exported. The CSV columns match what CsvTransactionImporter reads.
+public class TransactionExporter {
+    public enum Format { CSV, JSON_LINES }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] COLUMNS = {
+        "transaction_id", "transaction_date", "description", "amount", "transaction_type",
+        "is_expected", "category", "payment_method"
+    };
+
+    private final TrackerStorage storage;
+    private final int userId;
+    private Format format = Format.CSV;
+    private boolean gzip;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Integer categoryId;
+    private String type;
+
+    public TransactionExporter(TrackerStorage storage, int userId) {
+        this.storage = storage;
+        this.userId = userId;
+    }
+
+    public void setFormat(Format format) { this.format = format; }
+    public void setGzip(boolean gzip) { this.gzip = gzip; }
+    // Filters are applied by the storage; null means "no filter"
+    public void setDateRange(LocalDate fromDate, LocalDate toDate) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+    public void setCategoryId(Integer categoryId) { this.categoryId = categoryId; }
+    public void setType(String type) { this.type = type; }
+
+    // Picks format and compression from the name: .csv, .jsonl, optionally followed by .gz
+    public static TransactionExporter forFile(TrackerStorage storage, int userId, Path file) {
+        TransactionExporter exporter = new TransactionExporter(storage, userId);
+        String name = file.getFileName().toString().toLowerCase();
+        exporter.setGzip(name.endsWith(".gz"));
+        if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        exporter.setFormat(name.endsWith(".jsonl") || name.endsWith(".json") ? Format.JSON_LINES : Format.CSV);
+        return exporter;
+    }
+
+    public ExportResult exportTo(Path file) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer out = openWriter(Channels.newOutputStream(channel))) {
+
+            if (format == Format.CSV) {
+                out.write(String.join(",", COLUMNS));
+                out.write('\n');
+            }
+            try {
+                rows = storage.forEachTransaction(userId, fromDate, toDate, categoryId, type, t -> writeRow(out, t));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (rows < 0) throw new IOException("Export failed while reading transactions");
+        }
+
+        ExportResult result = new ExportResult(rows, Files.size(file), System.nanoTime() - start);
+        System.out.println("✓ Exported to " + file.getFileName() + ": " + result);
+        return result;
+    }
+
+    private Writer openWriter(OutputStream channelStream) throws IOException {
+        OutputStream stream = gzip ? new GZIPOutputStream(channelStream, BUFFER_SIZE) : channelStream;
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private void writeRow(Writer out, Transaction t) {
+        String categoryName = t.getCategoryName();
+        if (categoryName == null || categoryName.isEmpty()) categoryName = storage.getCategoryName(t.getCategoryId());
+        String[] values = {
+            String.valueOf(t.getId()),
+            t.getDate().toString(),
+            t.getDescription(),
+            // Two decimals, as DECIMAL(10,2) prints
+            Money.toDecimal(t.getAmountCents()).toPlainString(),
+            t.getType(),
+            t.isExpected() ? "1" : "0",
+            categoryName,
+            t.getPaymentMethod()
+        };
+        try {
+            if (format == Format.CSV) writeCsv(out, values);
+            else writeJson(out, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsv(Writer out, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            String value = values[i];
+            if (value == null) continue;
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (quote) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeJson(Writer out, String[] values) throws IOException {
+        out.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            out.write('"');
+            out.write(COLUMNS[i]);
+            out.write("\":");
+            String value = values[i];
+            boolean numeric = i == 0 || i == 3;
+            if (value == null) {
+                out.write("null");
+            } else if (numeric) {
+                out.write(value);
+            } else if (i == 5) {
+                out.write(value.equals("1") ? "true" : "false");
+            } else {
+                writeJsonString(out, value);
+            }
+        }
+        out.write("}\n");
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) out.write(String.format("\\u%04x", (int) c));
+                    else out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    public static class ExportResult {
+        private final long rows;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        ExportResult(long rows, long bytes, long elapsedNanos) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRows() { return rows; }
+        public long getBytes() { return bytes; }
+        public double getElapsedSeconds() { return elapsedNanos / 1e9; }
+        public double getRowsPerSecond() {
+            double seconds = getElapsedSeconds();
+            return seconds > 0 ? rows / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows, %.1f KB in %.2f s (%.0f rows/sec)",
+                rows, bytes / 1024.0, getElapsedSeconds(), getRowsPerSecond());
+        }
+    }
+}
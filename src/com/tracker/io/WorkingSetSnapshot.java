@@ -0,0 +1,321 @@
+package com.tracker.io;
+
+import com.tracker.events.ChangeEvent;
+import com.tracker.events.ChangeEventBus;
+import com.tracker.model.Summary;
+import com.tracker.model.Transaction;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// What the main window shows before storage is open: the newest page of transactions, the
+// row count, the summary and the highest transaction id seen (the high-water mark). Saved
+// on shutdown to snapshot-<storage>-<user>.bin; on the next start the window is drawn from
+// it straight away and the view only asks storage for ids above the high-water mark.
+//
+// Changes made while the app runs are appended to a journal next to the snapshot and
+// replayed on load, so a crash costs nothing but the catch-up query. A clean shutdown
+// writes a new snapshot and deletes the journal.
+public class WorkingSetSnapshot {
+    // -Dtracker.snapshot=false starts from storage every time
+    public static final boolean ENABLED = !"false".equals(System.getProperty("tracker.snapshot"));
+    // One table page
+    public static final int ROWS = 200;
+
+    private static final Path DIR = Path.of(System.getProperty("tracker.snapshot.dir",
+            Path.of(System.getProperty("user.home"), ".allowance-tracker").toString()));
+    private static final String STORAGE = System.getProperty("tracker.storage", "mysql");
+    private static final int MAGIC = 0x41545353; // "ATSS"
+    // 2: amounts as long centavos instead of doubles
+    private static final int VERSION = 2;
+
+    // Journal record kinds
+    private static final byte ADDED = 1;
+    private static final byte UPDATED = 2;
+    private static final byte DELETED = 3;
+    private static final byte SUMMARY = 4;
+    private static final byte RESYNC = 5;
+
+    private int transactionCount;
+    private int highWaterMark;
+    private Summary summary;
+    // Newest first: always the newest newestRows.size() rows of the user, but possibly
+    // fewer than ROWS after deletes
+    private final List<Transaction> newestRows;
+    // False once the journal missed events; only the high-water mark can be trusted then
+    private boolean complete = true;
+
+    public WorkingSetSnapshot(int transactionCount, int highWaterMark, Summary summary, List<Transaction> newestRows) {
+        this.transactionCount = transactionCount;
+        this.highWaterMark = highWaterMark;
+        this.summary = summary;
+        this.newestRows = new ArrayList<>(newestRows);
+    }
+
+    public int getTransactionCount() { return transactionCount; }
+    public int getHighWaterMark() { return highWaterMark; }
+    public Summary getSummary() { return summary; }
+    public List<Transaction> getNewestRows() { return newestRows; }
+    public boolean isComplete() { return complete; }
+
+    // LOADING
+    // The saved snapshot with the journal applied, or null if there is none (or it is unreadable)
+    public static WorkingSetSnapshot load(int userId) {
+        if (!ENABLED) return null;
+        long start = System.nanoTime();
+        WorkingSetSnapshot snapshot;
+        try (DataInputStream in = open(snapshotFile(userId))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != userId) {
+                System.err.println("⚠ Ignoring snapshot from another version or user");
+                return null;
+            }
+            int count = in.readInt();
+            int highWaterMark = in.readInt();
+            Summary summary = readSummary(in);
+            int rows = in.readInt();
+            List<Transaction> newestRows = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                newestRows.add(readTransaction(in));
+            }
+            snapshot = new WorkingSetSnapshot(count, highWaterMark, summary, newestRows);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("⚠ Ignoring unreadable snapshot: " + e.getMessage());
+            return null;
+        }
+
+        int replayed = snapshot.replayJournal(userId);
+        System.out.println(String.format("✓ Snapshot loaded: %d of %d rows, %d journal records in %.1f ms",
+                snapshot.newestRows.size(), snapshot.transactionCount, replayed, (System.nanoTime() - start) / 1e6));
+        return snapshot;
+    }
+
+    // A record cut short by a crash ends the replay
+    private int replayJournal(int userId) {
+        int records = 0;
+        try (DataInputStream in = open(journalFile(userId))) {
+            while (true) {
+                byte kind;
+                try {
+                    kind = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                switch (kind) {
+                    case ADDED: added(readTransaction(in)); break;
+                    case UPDATED: updated(readTransaction(in)); break;
+                    case DELETED: deleted(in.readInt()); break;
+                    case SUMMARY: summary = readSummary(in); break;
+                    case RESYNC: complete = false; break;
+                    default: throw new IOException("unknown journal record " + kind);
+                }
+                records++;
+            }
+        } catch (NoSuchFileException e) {
+            // Clean shutdown last time
+        } catch (EOFException e) {
+            System.err.println("⚠ Journal ends in a partial record; replayed " + records);
+        } catch (IOException e) {
+            System.err.println("⚠ Journal unreadable after " + records + " records: " + e.getMessage());
+            complete = false;
+        }
+        return records;
+    }
+
+    private void added(Transaction t) {
+        transactionCount++;
+        highWaterMark = Math.max(highWaterMark, t.getId());
+        insert(t);
+    }
+
+    private void updated(Transaction t) {
+        removeRow(t.getId());
+        insert(t);
+    }
+
+    private void deleted(int id) {
+        transactionCount--;
+        removeRow(id);
+    }
+
+    // Only rows that belong among the newest ones are kept; anything older is unknown territory
+    private void insert(Transaction t) {
+        int i = 0;
+        while (i < newestRows.size() && isNewer(newestRows.get(i), t)) i++;
+        boolean allRowsKnown = newestRows.size() >= transactionCount - 1;
+        if (i == newestRows.size() && !allRowsKnown) return;
+        newestRows.add(i, t);
+        if (newestRows.size() > ROWS) newestRows.remove(newestRows.size() - 1);
+    }
+
+    private void removeRow(int id) {
+        newestRows.removeIf(row -> row.getId() == id);
+    }
+
+    // Table order: date, then id, newest first
+    private static boolean isNewer(Transaction a, Transaction b) {
+        int byDate = a.getDate().compareTo(b.getDate());
+        return byDate > 0 || (byDate == 0 && a.getId() > b.getId());
+    }
+
+    // SAVING
+    // Written to a temporary file and moved into place, then the journal it covers is removed
+    public void save(int userId) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(DIR);
+        Path file = snapshotFile(userId);
+        Path temp = Path.of(file + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(userId);
+            out.writeInt(transactionCount);
+            out.writeInt(highWaterMark);
+            writeSummary(out, summary);
+            out.writeInt(newestRows.size());
+            for (Transaction t : newestRows) {
+                writeTransaction(out, t);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(journalFile(userId));
+        System.out.println(String.format("✓ Snapshot saved: %d rows in %.1f ms",
+                newestRows.size(), (System.nanoTime() - start) / 1e6));
+    }
+
+    // JOURNAL
+    // Appends to whatever journal the last run left, so it stays relative to the saved snapshot
+    public static Journal openJournal(int userId, Supplier<Summary> summaries) throws IOException {
+        Files.createDirectories(DIR);
+        return new Journal(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile(userId),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))), summaries);
+    }
+
+    // Subscribe it to the user's events. Each batch is flushed to the OS as one write, so a
+    // crash of the app loses nothing; it is not forced to disk.
+    public static class Journal implements ChangeEventBus.Listener, AutoCloseable {
+        private final DataOutputStream out;
+        private final Supplier<Summary> summaries;
+        private boolean closed;
+
+        private Journal(DataOutputStream out, Supplier<Summary> summaries) {
+            this.out = out;
+            this.summaries = summaries;
+        }
+
+        @Override
+        public synchronized void onEvents(List<ChangeEvent> events) {
+            if (closed) return;
+            try {
+                boolean rowsChanged = false;
+                for (ChangeEvent event : events) {
+                    if (event instanceof ChangeEvent.TransactionAdded added) {
+                        out.writeByte(ADDED);
+                        writeTransaction(out, added.getTransaction());
+                    } else if (event instanceof ChangeEvent.TransactionUpdated updated) {
+                        out.writeByte(UPDATED);
+                        writeTransaction(out, updated.getTransaction());
+                    } else if (event instanceof ChangeEvent.TransactionDeleted deleted) {
+                        out.writeByte(DELETED);
+                        out.writeInt(deleted.getTransactionId());
+                    } else {
+                        continue;
+                    }
+                    rowsChanged = true;
+                }
+                if (!rowsChanged) return;
+                // The summary as of this batch; the running totals make this O(1)
+                out.writeByte(SUMMARY);
+                writeSummary(out, summaries.get());
+                out.flush();
+            } catch (IOException e) {
+                System.err.println("⚠ Could not write snapshot journal: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public synchronized void onResync() {
+            if (closed) return;
+            try {
+                out.writeByte(RESYNC);
+                out.flush();
+            } catch (IOException e) {
+                System.err.println("⚠ Could not write snapshot journal: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("⚠ Error closing snapshot journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // FORMAT
+    private static Path snapshotFile(int userId) {
+        return DIR.resolve("snapshot-" + STORAGE + "-" + userId + ".bin");
+    }
+
+    private static Path journalFile(int userId) {
+        return DIR.resolve("journal-" + STORAGE + "-" + userId + ".bin");
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    private static void writeSummary(DataOutputStream out, Summary summary) throws IOException {
+        out.writeLong(summary.getActualAllowanceCents());
+        out.writeLong(summary.getExpectedAllowanceCents());
+        out.writeLong(summary.getActualExpensesCents());
+        out.writeLong(summary.getExpectedExpensesCents());
+    }
+
+    private static Summary readSummary(DataInputStream in) throws IOException {
+        return Summary.ofCents(in.readLong(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+    private static void writeTransaction(DataOutputStream out, Transaction t) throws IOException {
+        out.writeInt(t.getId());
+        out.writeInt(t.getCategoryId());
+        writeNullable(out, t.getCategoryName());
+        out.writeLong(t.getDate().toEpochDay());
+        writeNullable(out, t.getDescription());
+        out.writeLong(t.getAmountCents());
+        out.writeUTF(t.getType());
+        out.writeBoolean(t.isExpected());
+        writeNullable(out, t.getPaymentMethod());
+    }
+
+    private static Transaction readTransaction(DataInputStream in) throws IOException {
+        return Transaction.ofCents(in.readInt(), in.readInt(), readNullable(in), LocalDate.ofEpochDay(in.readLong()),
+                readNullable(in), in.readLong(), in.readUTF(), in.readBoolean(), readNullable(in));
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
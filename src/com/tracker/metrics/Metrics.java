@@ -0,0 +1,92 @@
+package com.tracker.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Process-wide registry of OperationStats. Every operation is published as a JMX MBean
+// (jconsole / VisualVM: com.tracker > Operation), and startReporter() prints one line per
+// interval listing the operations that ran, slowest total time first.
+public class Metrics {
+    private static final ConcurrentMap<String, OperationStats> OPERATIONS = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService reporter;
+
+    private Metrics() {
+    }
+
+    // Names are "<layer>.<operation>", e.g. db.getAllTransactions or ui.refreshSummary
+    public static OperationStats operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, n -> {
+            OperationStats stats = new OperationStats(n);
+            registerMBean("com.tracker:type=Operation,name=" + n, stats);
+            return stats;
+        });
+    }
+
+    public static Collection<OperationStats> operations() {
+        return OPERATIONS.values();
+    }
+
+    // For other components with a standard MBean interface (the connection pool, ...)
+    public static void registerMBean(String objectName, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(mbean, name);
+        } catch (JMException e) {
+            System.err.println("⚠ Could not register " + objectName + " with JMX: " + e.getMessage());
+        }
+    }
+
+    public static synchronized void startReporter(long intervalSeconds) {
+        if (reporter != null || intervalSeconds <= 0) return;
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        Map<String, LatencyHistogram.Snapshot> previous = new HashMap<>();
+        reporter.scheduleAtFixedRate(() -> report(intervalSeconds, previous),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopReporter() {
+        if (reporter != null) reporter.shutdownNow();
+        reporter = null;
+    }
+
+    private static void report(long intervalSeconds, Map<String, LatencyHistogram.Snapshot> previous) {
+        Map<String, LatencyHistogram.Snapshot> active = new HashMap<>();
+        for (OperationStats stats : OPERATIONS.values()) {
+            LatencyHistogram.Snapshot now = stats.snapshot();
+            LatencyHistogram.Snapshot before = previous.put(stats.getName(), now);
+            LatencyHistogram.Snapshot interval = before == null ? now : now.minus(before);
+            if (interval.getCount() > 0) active.put(stats.getName(), interval);
+        }
+        if (active.isEmpty()) return;
+
+        List<String> names = new ArrayList<>(active.keySet());
+        names.sort((a, b) -> Long.compare(active.get(b).getTotalNanos(), active.get(a).getTotalNanos()));
+        StringBuilder line = new StringBuilder("  → Metrics (last " + intervalSeconds + "s): ");
+        for (int i = 0; i < names.size(); i++) {
+            LatencyHistogram.Snapshot interval = active.get(names.get(i));
+            if (i > 0) line.append(" | ");
+            line.append(String.format("%s %d× p50 %.1f p99 %.1f max %.1f ms", names.get(i), interval.getCount(),
+                interval.getValueAtPercentile(50) / 1e6, interval.getValueAtPercentile(99) / 1e6,
+                interval.getMaxNanos() / 1e6));
+        }
+        System.out.println(line);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Calls, errors, rows and a latency histogram for one named operation. Typical use:
+//
+//     try (OperationStats.Sample sample = GET_ALL.start()) {
+//         ...
+//         sample.rows(list.size());      // in a catch block: sample.fail()
+//     }
+public class OperationStats implements OperationStatsMBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    public Sample start() {
+        return new Sample(this);
+    }
+
+    public void record(long nanos, long rowCount, boolean failed) {
+        latency.record(nanos);
+        if (rowCount > 0) rows.add(rowCount);
+        if (failed) errors.increment();
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+        return latency.snapshot();
+    }
+
+    @Override public String getName() { return name; }
+    @Override public long getCount() { return latency.snapshot().getCount(); }
+    @Override public long getErrorCount() { return errors.sum(); }
+    @Override public long getRowCount() { return rows.sum(); }
+    @Override public double getMeanMillis() { return latency.snapshot().getMeanNanos() / 1e6; }
+    @Override public double getP50Millis() { return percentileMillis(50); }
+    @Override public double getP90Millis() { return percentileMillis(90); }
+    @Override public double getP99Millis() { return percentileMillis(99); }
+    @Override public double getP999Millis() { return percentileMillis(99.9); }
+    @Override public double getMaxMillis() { return latency.snapshot().getMaxNanos() / 1e6; }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+        rows.reset();
+    }
+
+    private double percentileMillis(double percentile) {
+        return latency.snapshot().getValueAtPercentile(percentile) / 1e6;
+    }
+
+    // One timed call; recorded when closed
+    public static class Sample implements AutoCloseable {
+        private final OperationStats stats;
+        private final long startNanos = System.nanoTime();
+        private long rowCount;
+        private boolean failed;
+
+        Sample(OperationStats stats) {
+            this.stats = stats;
+        }
+
+        public void rows(long count) { rowCount = count; }
+        public void fail() { failed = true; }
+
+        @Override
+        public void close() {
+            stats.record(System.nanoTime() - startNanos, rowCount, failed);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.tracker.metrics;
+
+// What JMX shows for each timed operation (com.tracker:type=Operation,name=...)
+public interface OperationStatsMBean {
+    String getName();
+    long getCount();
+    long getErrorCount();
+    long getRowCount();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP90Millis();
+    double getP99Millis();
+    double getP999Millis();
+    double getMaxMillis();
+    void reset();
+}
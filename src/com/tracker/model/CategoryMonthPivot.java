@@ -0,0 +1,74 @@
+package com.tracker.model;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Actual (non-expected) totals of one transaction type per category and month over a range.
+// Rows are the categories that have data, largest total first; every row has one cell per month.
+public class CategoryMonthPivot {
+    private final String type;
+    private final YearMonth from;
+    private final YearMonth to;
+    private final List<Row> rows;
+
+    public CategoryMonthPivot(String type, YearMonth from, YearMonth to, List<Row> rows) {
+        this.type = type;
+        this.from = from;
+        this.to = to;
+        this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+    }
+
+    public String getType() { return type; }
+    public YearMonth getFrom() { return from; }
+    public YearMonth getTo() { return to; }
+    public List<Row> getRows() { return rows; }
+
+    public List<YearMonth> getMonths() {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    // Column total for the month at that index of getMonths()
+    public long getMonthTotalCents(int month) {
+        long total = 0;
+        for (Row row : rows) total += row.monthCents[month];
+        return total;
+    }
+
+    public long getTotalCents() {
+        long total = 0;
+        for (Row row : rows) total += row.totalCents;
+        return total;
+    }
+
+    public static class Row {
+        private final int categoryId;
+        private final String categoryName;
+        private final long[] monthCents;
+        private final long totalCents;
+        private final int count;
+
+        public Row(int categoryId, String categoryName, long[] monthCents, int count) {
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.monthCents = monthCents.clone();
+            long total = 0;
+            for (long cents : monthCents) total += cents;
+            this.totalCents = total;
+            this.count = count;
+        }
+
+        public int getCategoryId() { return categoryId; }
+        public String getCategoryName() { return categoryName; }
+        public long getMonthCents(int month) { return monthCents[month]; }
+        public int getMonthCount() { return monthCents.length; }
+        public long getTotalCents() { return totalCents; }
+        public double getTotal() { return Money.toDouble(totalCents); }
+        public int getCount() { return count; }
+    }
+}
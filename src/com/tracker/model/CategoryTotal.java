@@ -0,0 +1,24 @@
+package com.tracker.model;
+
+public class CategoryTotal {
+    private int categoryId;
+    private String categoryName;
+    private String type;
+    private long totalCents;
+    private int count;
+
+    public CategoryTotal(int categoryId, String categoryName, String type, long totalCents, int count) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.type = type;
+        this.totalCents = totalCents;
+        this.count = count;
+    }
+
+    public int getCategoryId() { return categoryId; }
+    public String getCategoryName() { return categoryName; }
+    public String getType() { return type; }
+    public double getTotal() { return Money.toDouble(totalCents); }
+    public long getTotalCents() { return totalCents; }
+    public int getCount() { return count; }
+}
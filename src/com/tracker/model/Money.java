@@ -0,0 +1,38 @@
+package com.tracker.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Amounts are carried as long centavos everywhere below the view, so sums are exact and
+// never drift the way repeated double additions do. These are the only conversions:
+// DECIMAL(10,2) columns on the way in and out of SQL, doubles typed into the form.
+public final class Money {
+    // Largest amount a DECIMAL(10,2) column holds: 99,999,999.99
+    public static final long MAX_CENTS = 9_999_999_999L;
+
+    private Money() {
+    }
+
+    // Nearest centavo of a peso amount typed or parsed as a double
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // A DECIMAL column read from JDBC; null counts as zero (SUM over no rows)
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) return 0;
+        // DECIMAL(10,2) always arrives with scale 2, so this is the usual path
+        if (amount.scale() == 2) return amount.unscaledValue().longValueExact();
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // For binding a DECIMAL parameter; exact, unlike setDouble
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // For display and for callers that still take pesos
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+}
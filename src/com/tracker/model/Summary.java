@@ -1,27 +1,48 @@
 package com.tracker.model;
 
+// Totals are kept in centavos (see Money); the double getters are for display
 public class Summary {
-    private double actualAllowance;
-    private double expectedAllowance;
-    private double actualExpenses;
-    private double expectedExpenses;
+    private long actualAllowanceCents;
+    private long expectedAllowanceCents;
+    private long actualExpensesCents;
+    private long expectedExpensesCents;
 
     public Summary(double actualAllowance, double expectedAllowance,
                   double actualExpenses, double expectedExpenses) {
-        this.actualAllowance = actualAllowance;
-        this.expectedAllowance = expectedAllowance;
-        this.actualExpenses = actualExpenses;
-        this.expectedExpenses = expectedExpenses;
+        this.actualAllowanceCents = Money.toCents(actualAllowance);
+        this.expectedAllowanceCents = Money.toCents(expectedAllowance);
+        this.actualExpensesCents = Money.toCents(actualExpenses);
+        this.expectedExpensesCents = Money.toCents(expectedExpenses);
     }
 
-    public double getActualAllowance() { return actualAllowance; }
-    public double getExpectedAllowance() { return expectedAllowance; }
-    public double getTotalAllowance() { return actualAllowance + expectedAllowance; }
-    public double getActualExpenses() { return actualExpenses; }
-    public double getExpectedExpenses() { return expectedExpenses; }
-    public double getTotalExpenses() { return actualExpenses + expectedExpenses; }
-    public double getActualSavings() { return actualAllowance - actualExpenses; }
+    private Summary() {
+    }
+
+    // A factory rather than a long constructor, which int literals would silently pick
+    public static Summary ofCents(long actualAllowanceCents, long expectedAllowanceCents,
+                                  long actualExpensesCents, long expectedExpensesCents) {
+        Summary summary = new Summary();
+        summary.actualAllowanceCents = actualAllowanceCents;
+        summary.expectedAllowanceCents = expectedAllowanceCents;
+        summary.actualExpensesCents = actualExpensesCents;
+        summary.expectedExpensesCents = expectedExpensesCents;
+        return summary;
+    }
+
+    public long getActualAllowanceCents() { return actualAllowanceCents; }
+    public long getExpectedAllowanceCents() { return expectedAllowanceCents; }
+    public long getActualExpensesCents() { return actualExpensesCents; }
+    public long getExpectedExpensesCents() { return expectedExpensesCents; }
+
+    public double getActualAllowance() { return Money.toDouble(actualAllowanceCents); }
+    public double getExpectedAllowance() { return Money.toDouble(expectedAllowanceCents); }
+    public double getTotalAllowance() { return Money.toDouble(actualAllowanceCents + expectedAllowanceCents); }
+    public double getActualExpenses() { return Money.toDouble(actualExpensesCents); }
+    public double getExpectedExpenses() { return Money.toDouble(expectedExpensesCents); }
+    public double getTotalExpenses() { return Money.toDouble(actualExpensesCents + expectedExpensesCents); }
+    public double getActualSavings() { return Money.toDouble(actualAllowanceCents - actualExpensesCents); }
     public double getPredictedRemaining() { 
-        return (actualAllowance + expectedAllowance) - (actualExpenses + expectedExpenses); 
+        return Money.toDouble((actualAllowanceCents + expectedAllowanceCents) -
+                              (actualExpensesCents + expectedExpensesCents)); 
     }
-}
\ No newline at end of file
+}
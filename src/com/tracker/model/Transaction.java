@@ -8,7 +8,8 @@ public class Transaction {
     private String categoryName;
     private LocalDate date;
     private String description;
-    private double amount;
+    // Centavos; see Money
+    private long amountCents;
     private String type;
     private boolean isExpected;
     private String paymentMethod;
@@ -21,19 +22,30 @@ public class Transaction {
         this.categoryName = categoryName;
         this.date = date;
         this.description = description;
-        this.amount = amount;
+        this.amountCents = Money.toCents(amount);
         this.type = type;
         this.isExpected = isExpected;
         this.paymentMethod = paymentMethod;
     }
 
+    // Same as the constructor above, with the amount already in centavos (no rounding)
+    public static Transaction ofCents(int id, int categoryId, String categoryName, LocalDate date,
+                                      String description, long amountCents, String type,
+                                      boolean isExpected, String paymentMethod) {
+        Transaction t = new Transaction(id, categoryId, categoryName, date, description, 0, type,
+                                        isExpected, paymentMethod);
+        t.amountCents = amountCents;
+        return t;
+    }
+
     // Getters
     public int getId() { return id; }
     public int getCategoryId() { return categoryId; }
     public String getCategoryName() { return categoryName; }
     public LocalDate getDate() { return date; }
     public String getDescription() { return description; }
-    public double getAmount() { return amount; }
+    public double getAmount() { return Money.toDouble(amountCents); }
+    public long getAmountCents() { return amountCents; }
     public String getType() { return type; }
     public boolean isExpected() { return isExpected; }
     public String getPaymentMethod() { return paymentMethod; }
@@ -44,7 +56,8 @@ public class Transaction {
     public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
     public void setDate(LocalDate date) { this.date = date; }
     public void setDescription(String description) { this.description = description; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public void setAmount(double amount) { this.amountCents = Money.toCents(amount); }
+    public void setAmountCents(long amountCents) { this.amountCents = amountCents; }
     public void setType(String type) { this.type = type; }
     public void setExpected(boolean expected) { isExpected = expected; }
     public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
@@ -0,0 +1,186 @@
+package com.tracker.model;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+
+// A filtered, sorted read of one user's transactions:
+//
+//   TransactionQuery.builder().from(start).to(end).category(2).type("expense").limit(100).build()
+//
+// Every filter left unset matches everything. Storage runs it where the rows are:
+// DatabaseManager compiles it to one parameterized SELECT per shape (which filters are set),
+// MappedLogStorage walks its date index with matches(). Immutable once built.
+public final class TransactionQuery {
+    public enum Sort {
+        // The table's order: date, then id, newest first
+        DATE_DESC, DATE_ASC, AMOUNT_DESC, AMOUNT_ASC
+    }
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 10_000;
+    private static final Set<String> TYPES = Set.of("allowance", "expense", "savings");
+
+    // Both ends inclusive
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    // Ascending; empty means every category
+    private final Set<Integer> categoryIds;
+    private final String type;
+    private final Boolean expected;
+    private final String paymentMethod;
+    private final Long minAmountCents;
+    private final Long maxAmountCents;
+    private final Sort sort;
+    private final int limit;
+    // Keyset paging: the last row of the previous page, or null for the first page
+    private final Transaction after;
+    private final Comparator<Transaction> order;
+
+    private TransactionQuery(Builder b) {
+        this.fromDate = b.fromDate;
+        this.toDate = b.toDate;
+        this.categoryIds = Collections.unmodifiableSet(new TreeSet<>(b.categoryIds));
+        this.type = b.type;
+        this.expected = b.expected;
+        this.paymentMethod = b.paymentMethod;
+        this.minAmountCents = b.minAmountCents;
+        this.maxAmountCents = b.maxAmountCents;
+        this.sort = b.sort;
+        this.limit = b.limit;
+        this.after = b.after;
+        Comparator<Transaction> ascending = sort == Sort.DATE_DESC || sort == Sort.DATE_ASC
+                ? Comparator.comparing(Transaction::getDate).thenComparingInt(Transaction::getId)
+                : Comparator.comparingLong(Transaction::getAmountCents).thenComparingInt(Transaction::getId);
+        this.order = sort == Sort.DATE_DESC || sort == Sort.AMOUNT_DESC ? ascending.reversed() : ascending;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // The same query for the page after last (a row this query returned)
+    public TransactionQuery after(Transaction last) {
+        return toBuilder().after(last).build();
+    }
+
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.fromDate = fromDate;
+        b.toDate = toDate;
+        b.categoryIds.addAll(categoryIds);
+        b.type = type;
+        b.expected = expected;
+        b.paymentMethod = paymentMethod;
+        b.minAmountCents = minAmountCents;
+        b.maxAmountCents = maxAmountCents;
+        b.sort = sort;
+        b.limit = limit;
+        b.after = after;
+        return b;
+    }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public LocalDate getToDate() { return toDate; }
+    public Set<Integer> getCategoryIds() { return categoryIds; }
+    public String getType() { return type; }
+    public Boolean getExpected() { return expected; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public Long getMinAmountCents() { return minAmountCents; }
+    public Long getMaxAmountCents() { return maxAmountCents; }
+    public Sort getSort() { return sort; }
+    public int getLimit() { return limit; }
+    public Transaction getAfter() { return after; }
+
+    // False when the query is the plain table listing (every row, newest first)
+    public boolean isFiltered() {
+        return fromDate != null || toDate != null || !categoryIds.isEmpty() || type != null ||
+               expected != null || paymentMethod != null || minAmountCents != null ||
+               maxAmountCents != null || sort != Sort.DATE_DESC;
+    }
+
+    // The filters and the page bound, without the limit
+    public boolean matches(Transaction t) {
+        if (fromDate != null && t.getDate().isBefore(fromDate)) return false;
+        if (toDate != null && t.getDate().isAfter(toDate)) return false;
+        if (!categoryIds.isEmpty() && !categoryIds.contains(t.getCategoryId())) return false;
+        if (type != null && !type.equals(t.getType())) return false;
+        if (expected != null && expected != t.isExpected()) return false;
+        if (paymentMethod != null && !paymentMethod.equals(t.getPaymentMethod())) return false;
+        if (minAmountCents != null && t.getAmountCents() < minAmountCents) return false;
+        if (maxAmountCents != null && t.getAmountCents() > maxAmountCents) return false;
+        return after == null || order.compare(t, after) > 0;
+    }
+
+    // Result order; ties on date or amount go by id, so the order is total and pages never overlap
+    public Comparator<Transaction> comparator() {
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("TransactionQuery[");
+        if (fromDate != null) s.append("from=").append(fromDate).append(' ');
+        if (toDate != null) s.append("to=").append(toDate).append(' ');
+        if (!categoryIds.isEmpty()) s.append("categories=").append(categoryIds).append(' ');
+        if (type != null) s.append("type=").append(type).append(' ');
+        if (expected != null) s.append("expected=").append(expected).append(' ');
+        if (paymentMethod != null) s.append("payment=").append(paymentMethod).append(' ');
+        if (minAmountCents != null) s.append("min=").append(Money.toDecimal(minAmountCents)).append(' ');
+        if (maxAmountCents != null) s.append("max=").append(Money.toDecimal(maxAmountCents)).append(' ');
+        if (after != null) s.append("after=").append(after.getId()).append(' ');
+        return s.append(sort).append(" limit=").append(limit).append(']').toString();
+    }
+
+    // Setters return the builder; build() checks the combination
+    public static class Builder {
+        private LocalDate fromDate;
+        private LocalDate toDate;
+        private final Set<Integer> categoryIds = new TreeSet<>();
+        private String type;
+        private Boolean expected;
+        private String paymentMethod;
+        private Long minAmountCents;
+        private Long maxAmountCents;
+        private Sort sort = Sort.DATE_DESC;
+        private int limit = DEFAULT_LIMIT;
+        private Transaction after;
+
+        private Builder() {
+        }
+
+        public Builder from(LocalDate date) { this.fromDate = date; return this; }
+        public Builder to(LocalDate date) { this.toDate = date; return this; }
+        public Builder category(int categoryId) { categoryIds.add(categoryId); return this; }
+        public Builder categories(Collection<Integer> ids) { categoryIds.addAll(ids); return this; }
+        // null for any
+        public Builder type(String type) { this.type = type; return this; }
+        public Builder expected(Boolean expected) { this.expected = expected; return this; }
+        public Builder paymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; return this; }
+        public Builder minAmountCents(Long cents) { this.minAmountCents = cents; return this; }
+        public Builder maxAmountCents(Long cents) { this.maxAmountCents = cents; return this; }
+        public Builder sort(Sort sort) { this.sort = sort; return this; }
+        public Builder limit(int limit) { this.limit = limit; return this; }
+        public Builder after(Transaction last) { this.after = last; return this; }
+
+        public TransactionQuery build() {
+            if (fromDate != null && toDate != null && toDate.isBefore(fromDate)) {
+                throw new IllegalArgumentException("Date range ends before it starts");
+            }
+            if (minAmountCents != null && maxAmountCents != null && maxAmountCents < minAmountCents) {
+                throw new IllegalArgumentException("Maximum amount is below the minimum");
+            }
+            if (type != null && !TYPES.contains(type)) {
+                throw new IllegalArgumentException("type must be one of " + TYPES);
+            }
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+            }
+            if (sort == null) sort = Sort.DATE_DESC;
+            return new TransactionQuery(this);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.tracker.model;
+
+// One category's actual total for a stretch of months against the same months a year earlier
+public class YearOverYear {
+    private int categoryId;
+    private String categoryName;
+    private long previousCents;
+    private long currentCents;
+
+    public YearOverYear(int categoryId, String categoryName, long previousCents, long currentCents) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.previousCents = previousCents;
+        this.currentCents = currentCents;
+    }
+
+    public int getCategoryId() { return categoryId; }
+    public String getCategoryName() { return categoryName; }
+    public long getPreviousCents() { return previousCents; }
+    public long getCurrentCents() { return currentCents; }
+    public double getPrevious() { return Money.toDouble(previousCents); }
+    public double getCurrent() { return Money.toDouble(currentCents); }
+    public double getChange() { return Money.toDouble(currentCents - previousCents); }
+    // NaN when there was nothing a year earlier
+    public double getChangePercent() {
+        return previousCents == 0 ? Double.NaN : (currentCents - previousCents) * 100.0 / previousCents;
+    }
+}
@@ -0,0 +1,627 @@
+package com.tracker.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tracker.controller.TrackerController;
+import com.tracker.database.ConnectionPool;
+import com.tracker.database.DatabaseManager;
+import com.tracker.database.TrackerStorage;
+import com.tracker.metrics.LatencyHistogram;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.OperationStats;
+import com.tracker.model.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless mode (Main --server): the TrackerController operations as a JSON API on the JDK's
+// built-in HTTP server. Every request runs on its own virtual thread, so thousands of slow
+// clients cost thousands of cheap virtual threads rather than platform threads; the connection
+// pool is what actually bounds the work. Requests are let in only while the pool can serve them
+// soon (see admit()); the rest get 429 with Retry-After instead of queueing without limit.
+//
+// The user is chosen per request with the X-User-Id header (default -Dtracker.userId). There is
+// no authentication, so the server listens on 127.0.0.1 unless -Dtracker.server.host says otherwise.
+public class ApiServer implements AutoCloseable {
+    private static final String HOST = System.getProperty("tracker.server.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("tracker.server.port", 8080);
+    private static final int BACKLOG = Integer.getInteger("tracker.server.backlog", 1024);
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_PAGE_ROWS = 1000;
+    // Controllers kept for recently seen users; the least recently used one is closed past this
+    private static final int MAX_USERS = Integer.getInteger("tracker.server.maxUsers", 1024);
+    private static final Set<String> TYPES = Set.of("allowance", "expense", "savings");
+
+    private static final OperationStats REJECTED = Metrics.operation("http.rejected");
+
+    private interface Handler {
+        // Writes the response body (if any) and returns the status code
+        int handle(Request request, Json.Writer out) throws Exception;
+    }
+
+    private static class Route {
+        private final Handler handler;
+        private final OperationStats stats;
+        // Health and metrics answer even when the pool is saturated
+        private final boolean admitted;
+
+        Route(String name, Handler handler, boolean admitted) {
+            this.handler = handler;
+            this.stats = Metrics.operation("http." + name);
+            this.admitted = admitted;
+        }
+    }
+
+    private final TrackerStorage storage;
+    // Null for storage without a pool (mapped); then only maxInFlight applies
+    private final ConnectionPool pool;
+    private final int maxQueued;
+    private final Semaphore inFlight;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Least recently used first; guarded by itself
+    private final Map<Integer, TrackerController> controllers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, TrackerController> eldest) {
+            if (size() <= MAX_USERS) return false;
+            // Requests still holding it finish normally; close() only stops its async executor
+            eldest.getValue().close();
+            return true;
+        }
+    };
+    // "METHOD /path"; "/api/transactions/{id}" stands for any numeric id
+    private final Map<String, Route> routes = new HashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+
+    public ApiServer(TrackerStorage storage) throws IOException {
+        this.storage = storage;
+        this.pool = storage instanceof DatabaseManager db ? db.getConnectionPool() : null;
+        // Threads allowed to wait for a connection before new requests are turned away
+        this.maxQueued = Integer.getInteger("tracker.server.maxQueued", pool == null ? 0 : pool.getMaxSize());
+        int maxInFlight = Integer.getInteger("tracker.server.maxInFlight",
+                pool == null ? 256 : pool.getMaxSize() + maxQueued);
+        this.inFlight = new Semaphore(maxInFlight);
+        registerRoutes();
+        this.server = HttpServer.create(new InetSocketAddress(HOST, PORT), BACKLOG);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    // Headless entry point; needs no JavaFX on the module path, unlike Main --server
+    public static void main(String[] args) {
+        run();
+    }
+
+    // Opens storage the same way the desktop app does and serves until the process is stopped
+    public static void run() {
+        System.out.println("=== ALLOWANCE TRACKER API SERVER STARTING ===");
+        TrackerStorage storage = TrackerStorage.open();
+        if (!storage.testConnection()) {
+            System.err.println("✗ Storage is not available; server not started");
+            storage.close();
+            return;
+        }
+        try {
+            ApiServer server = new ApiServer(storage);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "api-server-shutdown"));
+            Metrics.startReporter(Long.getLong("tracker.metrics.logSeconds", 60L));
+            server.start();
+        } catch (IOException e) {
+            System.err.println("✗ Could not start API server: " + e.getMessage());
+            storage.close();
+        }
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("✓ API server listening on http://" + HOST + ":" + server.getAddress().getPort() +
+                "/api/ (" + inFlight.availablePermits() + " requests in flight max)");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        synchronized (controllers) {
+            for (TrackerController controller : controllers.values()) {
+                controller.close();
+            }
+        }
+        System.out.println(String.format("✓ API server stopped: %d requests, %d rejected with 429",
+                requests.get(), REJECTED.getCount()));
+        storage.close();
+    }
+
+    // ROUTES
+    private void registerRoutes() {
+        route("GET /api/health", "health", false, (req, out) -> {
+            out.beginObject().field("status", "ok").endObject();
+            return 200;
+        });
+        route("GET /api/metrics", "metrics", false, (req, out) -> {
+            writeMetrics(out);
+            return 200;
+        });
+
+        // ?afterDate=YYYY-MM-DD&afterId=N&limit=N, newest first (keyset paging like the table)
+        route("GET /api/transactions", "getTransactionsPage", true, (req, out) -> {
+            String afterDate = req.param("afterDate");
+            List<Transaction> page = req.controller().getTransactionsPage(
+                    afterDate == null ? null : LocalDate.parse(afterDate), req.intParam("afterId", 0),
+                    Math.min(req.intParam("limit", 200), MAX_PAGE_ROWS));
+            writeTransactions(out, page);
+            return 200;
+        });
+        route("GET /api/transactions/count", "countTransactions", true, (req, out) -> {
+            out.beginObject().field("count", req.controller().countTransactions()).endObject();
+            return 200;
+        });
+        // ?from=&to=YYYY-MM-DD, category=1,2, type=, expected=true|false, payment=, min=&max= (pesos),
+        // sort=DATE_DESC|DATE_ASC|AMOUNT_DESC|AMOUNT_ASC, limit=N; filtered in storage
+        route("GET /api/transactions/query", "queryTransactions", true, (req, out) -> {
+            writeTransactions(out, req.controller().queryTransactions(req.query()));
+            return 200;
+        });
+        // ?afterId=N&limit=N: rows added since a client last looked, lowest id first
+        route("GET /api/transactions/since", "getTransactionsAfterId", true, (req, out) -> {
+            writeTransactions(out, req.controller().getTransactionsAfterId(req.intParam("afterId", 0),
+                    Math.min(req.intParam("limit", 200), MAX_PAGE_ROWS)));
+            return 200;
+        });
+        route("POST /api/transactions", "addTransaction", true, (req, out) -> {
+            Map<String, Object> body = req.body();
+            String type = requiredString(body, "type");
+            if (!TYPES.contains(type)) throw new IllegalArgumentException("type must be one of " + TYPES);
+            Transaction saved = req.controller().addTransactionCents(LocalDate.parse(requiredString(body, "date")),
+                    optionalString(body, "description", ""), amountCents(body), type,
+                    Boolean.TRUE.equals(body.get("expected")), requiredInt(body, "categoryId"),
+                    optionalString(body, "paymentMethod", null));
+            if (saved.getId() <= 0) {
+                out.beginObject().field("error", "Transaction was not saved").endObject();
+                return 500;
+            }
+            writeTransaction(out, saved);
+            return 201;
+        });
+        // Type and expected flag cannot be changed, same as in the window
+        route("PUT /api/transactions/{id}", "updateTransaction", true, (req, out) -> {
+            Map<String, Object> body = req.body();
+            return writeResult(out, req.controller().updateTransactionCents(req.id, optionalString(body, "description", ""),
+                    amountCents(body), requiredInt(body, "categoryId"),
+                    optionalString(body, "paymentMethod", null), LocalDate.parse(requiredString(body, "date"))));
+        });
+        route("DELETE /api/transactions/{id}", "deleteTransaction", true,
+                (req, out) -> writeResult(out, req.controller().deleteTransaction(req.id)));
+        // ?q=words&limit=N
+        route("GET /api/search", "searchTransactions", true, (req, out) -> {
+            String query = req.param("q");
+            if (query == null) throw new IllegalArgumentException("q is required");
+            writeTransactions(out, req.controller().searchTransactions(query,
+                    Math.min(req.intParam("limit", 50), MAX_PAGE_ROWS)));
+            return 200;
+        });
+
+        route("GET /api/summary", "calculateSummary", true, (req, out) -> {
+            writeSummary(out, req.controller().calculateSummary());
+            return 200;
+        });
+        route("GET /api/categories", "getAllCategories", true, (req, out) -> {
+            out.beginArray();
+            for (Category category : req.controller().getAllCategories()) {
+                out.beginObject()
+                   .field("id", category.getCategoryId())
+                   .field("name", category.getName())
+                   .field("type", category.getType())
+                   .field("icon", category.getIcon())
+                   .endObject();
+            }
+            out.endArray();
+            return 200;
+        });
+        // ?month=YYYY-MM (default this month)
+        route("GET /api/budgets", "getBudgetStatuses", true, (req, out) -> {
+            out.beginArray();
+            for (BudgetStatus status : req.controller().getBudgetStatuses(req.monthParam("month", YearMonth.now()))) {
+                out.beginObject()
+                   .field("categoryName", status.getCategoryName())
+                   .field("monthlyLimit", status.getMonthlyLimit())
+                   .field("spent", status.getCurrentSpending())
+                   .field("utilizationPercent", status.getUtilizationPercent())
+                   .field("alertThreshold", status.getAlertThreshold())
+                   .field("status", status.getStatus())
+                   .endObject();
+            }
+            out.endArray();
+            return 200;
+        });
+
+        // Reports take ?from=YYYY-MM&to=YYYY-MM (default the last twelve months) and ?type=
+        route("GET /api/reports/monthly", "getMonthlySummaries", true, (req, out) -> {
+            out.beginArray();
+            for (Map.Entry<YearMonth, Summary> month : req.controller().getMonthlySummaries(req.from(), req.to()).entrySet()) {
+                out.beginObject().field("month", month.getKey().toString()).key("summary");
+                writeSummary(out, month.getValue());
+                out.endObject();
+            }
+            out.endArray();
+            return 200;
+        });
+        route("GET /api/reports/categories", "getCategoryTotals", true, (req, out) -> {
+            writeCategoryTotals(out, req.controller().getCategoryTotals(req.from(), req.to(), req.param("type")));
+            return 200;
+        });
+        route("GET /api/reports/pivot", "getCategoryMonthPivot", true, (req, out) -> {
+            writePivot(out, req.controller().getCategoryMonthPivot(req.from(), req.to(), req.type()));
+            return 200;
+        });
+        // ...&n=N
+        route("GET /api/reports/top", "getTopCategories", true, (req, out) -> {
+            writeCategoryTotals(out, req.controller().getTopCategories(req.from(), req.to(), req.type(),
+                    req.intParam("n", 5)));
+            return 200;
+        });
+        // ?through=YYYY-MM (default this month)
+        route("GET /api/reports/yoy", "getYearOverYear", true, (req, out) -> {
+            out.beginArray();
+            for (YearOverYear row : req.controller().getYearOverYear(req.monthParam("through", YearMonth.now()), req.type())) {
+                out.beginObject()
+                   .field("categoryId", row.getCategoryId())
+                   .field("categoryName", row.getCategoryName())
+                   .field("previous", Money.toDecimal(row.getPreviousCents()))
+                   .field("current", Money.toDecimal(row.getCurrentCents()))
+                   .field("changePercent", row.getChangePercent())
+                   .endObject();
+            }
+            out.endArray();
+            return 200;
+        });
+    }
+
+    private void route(String key, String name, boolean admitted, Handler handler) {
+        routes.put(key, new Route(name, handler, admitted));
+    }
+
+    // DISPATCH (on the request's virtual thread)
+    private void handle(HttpExchange exchange) {
+        requests.incrementAndGet();
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            Integer id = null;
+            Route route = routes.get(method + " " + path);
+            if (route == null && path.startsWith("/api/transactions/")) {
+                try {
+                    id = Integer.valueOf(path.substring("/api/transactions/".length()));
+                    route = routes.get(method + " /api/transactions/{id}");
+                } catch (NumberFormatException e) {
+                    // Not an id: falls through to 404
+                }
+            }
+            if (route == null) {
+                boolean otherMethod = routes.keySet().stream().anyMatch(k -> k.endsWith(" " + path)) ||
+                        (id != null && routes.keySet().stream().anyMatch(k -> k.endsWith(" /api/transactions/{id}")));
+                sendError(exchange, otherMethod ? 405 : 404, otherMethod ? "Method not allowed" : "Not found");
+                return;
+            }
+            if (route.admitted && !admit()) {
+                long start = System.nanoTime();
+                try {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    sendError(exchange, 429, "Server busy, retry shortly");
+                } finally {
+                    // Counted even if the client is already gone
+                    REJECTED.record(System.nanoTime() - start, 0, false);
+                }
+                return;
+            }
+            try {
+                dispatch(exchange, route, new Request(exchange, id));
+            } finally {
+                if (route.admitted) inFlight.release();
+            }
+        } catch (IOException e) {
+            // Client went away mid-response; nothing left to tell it
+        }
+    }
+
+    private void dispatch(HttpExchange exchange, Route route, Request request) throws IOException {
+        Json.Writer out = new Json.Writer();
+        int status;
+        try (OperationStats.Sample sample = route.stats.start()) {
+            try {
+                status = route.handler.handle(request, out);
+            } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+                // NumberFormatException is an IllegalArgumentException
+                sample.fail();
+                sendError(exchange, 400, e.getMessage());
+                return;
+            } catch (Exception e) {
+                sample.fail();
+                System.err.println("✗ " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + e);
+                sendError(exchange, 500, "Internal error");
+                return;
+            }
+            if (status >= 500) sample.fail();
+        }
+        send(exchange, status, status == 204 ? null : out.toString());
+    }
+
+    // A request gets a permit only if it can be served soon: within maxInFlight, and while no
+    // more than maxQueued threads are already waiting on the connection pool (the window,
+    // write-behind and other clients share it, so its own queue is the honest signal)
+    private boolean admit() {
+        if (!inFlight.tryAcquire()) return false;
+        if (pool != null && pool.getWaitingThreadCount() > maxQueued) {
+            inFlight.release();
+            return false;
+        }
+        return true;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, new Json.Writer().beginObject().field("error", message).endObject().toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    // REQUESTS
+    private class Request {
+        private final HttpExchange exchange;
+        private final Integer id;
+        private final Map<String, String> params;
+
+        Request(HttpExchange exchange, Integer id) {
+            this.exchange = exchange;
+            this.id = id;
+            this.params = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+
+        // One controller per user, shared by all of that user's requests. Unknown users are
+        // turned away before any state is created for them; the lookup runs once per user
+        // while their controller stays cached.
+        TrackerController controller() {
+            String header = exchange.getRequestHeaders().getFirst("X-User-Id");
+            int userId = header == null ? TrackerStorage.DEFAULT_USER_ID : Integer.parseInt(header.trim());
+            synchronized (controllers) {
+                TrackerController controller = controllers.get(userId);
+                if (controller != null) return controller;
+            }
+            if (!storage.userExists(userId)) throw new IllegalArgumentException("Unknown user " + userId);
+            synchronized (controllers) {
+                return controllers.computeIfAbsent(userId, u -> new TrackerController(storage, u));
+            }
+        }
+
+        String param(String name) {
+            return params.get(name);
+        }
+
+        int intParam(String name, int defaultValue) {
+            String value = params.get(name);
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+
+        YearMonth monthParam(String name, YearMonth defaultValue) {
+            String value = params.get(name);
+            return value == null ? defaultValue : YearMonth.parse(value);
+        }
+
+        YearMonth to() {
+            return monthParam("to", YearMonth.now());
+        }
+
+        YearMonth from() {
+            return monthParam("from", to().minusMonths(11));
+        }
+
+        String type() {
+            String type = params.getOrDefault("type", "expense");
+            if (!TYPES.contains(type)) throw new IllegalArgumentException("type must be one of " + TYPES);
+            return type;
+        }
+
+        TransactionQuery query() {
+            TransactionQuery.Builder query = TransactionQuery.builder();
+            if (params.containsKey("from")) query.from(LocalDate.parse(params.get("from")));
+            if (params.containsKey("to")) query.to(LocalDate.parse(params.get("to")));
+            if (params.containsKey("category")) {
+                for (String id : params.get("category").split(",")) query.category(Integer.parseInt(id.trim()));
+            }
+            query.type(params.get("type"));
+            if (params.containsKey("expected")) query.expected(Boolean.parseBoolean(params.get("expected")));
+            query.paymentMethod(params.get("payment"));
+            if (params.containsKey("min")) query.minAmountCents(Money.toCents(new BigDecimal(params.get("min"))));
+            if (params.containsKey("max")) query.maxAmountCents(Money.toCents(new BigDecimal(params.get("max"))));
+            if (params.containsKey("sort")) query.sort(TransactionQuery.Sort.valueOf(params.get("sort")));
+            return query.limit(Math.min(intParam("limit", TransactionQuery.DEFAULT_LIMIT), MAX_PAGE_ROWS)).build();
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body() throws IOException {
+            byte[] bytes;
+            try (InputStream in = exchange.getRequestBody()) {
+                bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            }
+            if (bytes.length > MAX_BODY_BYTES) throw new IllegalArgumentException("Request body too large");
+            Object json = Json.parse(new String(bytes, StandardCharsets.UTF_8));
+            if (!(json instanceof Map)) throw new IllegalArgumentException("Request body must be a JSON object");
+            return (Map<String, Object>) json;
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.putIfAbsent(name, value);
+        }
+        return params;
+    }
+
+    private static String requiredString(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String s)) throw new IllegalArgumentException(name + " is required");
+        return s;
+    }
+
+    private static String optionalString(Map<String, Object> body, String name, String defaultValue) {
+        Object value = body.get(name);
+        return value instanceof String s ? s : defaultValue;
+    }
+
+    private static int requiredInt(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof BigDecimal number)) throw new IllegalArgumentException(name + " is required");
+        return number.intValueExact();
+    }
+
+    // Positive, at most two decimals and within DECIMAL(10,2); read from the JSON number text
+    // and passed on as centavos, never through a double
+    private static long amountCents(Map<String, Object> body) {
+        Object value = body.get("amount");
+        if (!(value instanceof BigDecimal amount)) throw new IllegalArgumentException("amount is required");
+        if (amount.signum() <= 0) throw new IllegalArgumentException("amount must be positive");
+        if (amount.stripTrailingZeros().scale() > 2) throw new IllegalArgumentException("amount has more than two decimals");
+        if (amount.compareTo(Money.toDecimal(Money.MAX_CENTS)) > 0) {
+            throw new IllegalArgumentException("amount must be at most " + Money.toDecimal(Money.MAX_CENTS));
+        }
+        return Money.toCents(amount);
+    }
+
+    // RESPONSES
+    // For an update or delete: 404 when the user has no such transaction (someone else's id
+    // included), 500 when the write failed
+    private static int writeResult(Json.Writer out, int rows) {
+        if (rows > 0) return 204;
+        out.beginObject().field("error", rows == 0 ? "Transaction not found" : "Transaction was not saved").endObject();
+        return rows == 0 ? 404 : 500;
+    }
+
+    private static void writeTransactions(Json.Writer out, List<Transaction> transactions) {
+        out.beginArray();
+        for (Transaction t : transactions) writeTransaction(out, t);
+        out.endArray();
+    }
+
+    private static void writeTransaction(Json.Writer out, Transaction t) {
+        out.beginObject()
+           .field("id", t.getId())
+           .field("date", t.getDate().toString())
+           .field("description", t.getDescription())
+           .field("amount", Money.toDecimal(t.getAmountCents()))
+           .field("type", t.getType())
+           .field("expected", t.isExpected())
+           .field("categoryId", t.getCategoryId())
+           .field("categoryName", t.getCategoryName())
+           .field("paymentMethod", t.getPaymentMethod())
+           .endObject();
+    }
+
+    private static void writeSummary(Json.Writer out, Summary summary) {
+        out.beginObject()
+           .field("actualAllowance", Money.toDecimal(summary.getActualAllowanceCents()))
+           .field("expectedAllowance", Money.toDecimal(summary.getExpectedAllowanceCents()))
+           .field("actualExpenses", Money.toDecimal(summary.getActualExpensesCents()))
+           .field("expectedExpenses", Money.toDecimal(summary.getExpectedExpensesCents()))
+           .field("actualSavings", Money.toDecimal(summary.getActualAllowanceCents() - summary.getActualExpensesCents()))
+           .endObject();
+    }
+
+    private static void writeCategoryTotals(Json.Writer out, List<CategoryTotal> totals) {
+        out.beginArray();
+        for (CategoryTotal total : totals) {
+            out.beginObject()
+               .field("categoryId", total.getCategoryId())
+               .field("categoryName", total.getCategoryName())
+               .field("type", total.getType())
+               .field("total", Money.toDecimal(total.getTotalCents()))
+               .field("count", total.getCount())
+               .endObject();
+        }
+        out.endArray();
+    }
+
+    private static void writePivot(Json.Writer out, CategoryMonthPivot pivot) {
+        List<YearMonth> months = pivot.getMonths();
+        out.beginObject().field("type", pivot.getType()).key("months").beginArray();
+        for (YearMonth month : months) out.value(month.toString());
+        out.endArray().key("rows").beginArray();
+        for (CategoryMonthPivot.Row row : pivot.getRows()) {
+            out.beginObject()
+               .field("categoryId", row.getCategoryId())
+               .field("categoryName", row.getCategoryName())
+               .field("total", Money.toDecimal(row.getTotalCents()))
+               .field("count", row.getCount())
+               .key("months").beginArray();
+            for (int month = 0; month < months.size(); month++) out.value(Money.toDecimal(row.getMonthCents(month)));
+            out.endArray().endObject();
+        }
+        out.endArray().key("monthTotals").beginArray();
+        for (int month = 0; month < months.size(); month++) out.value(Money.toDecimal(pivot.getMonthTotalCents(month)));
+        out.endArray().field("total", Money.toDecimal(pivot.getTotalCents())).endObject();
+    }
+
+    // Every operation that has run (db.*, log.*, report.*, http.*), plus the pool
+    private void writeMetrics(Json.Writer out) {
+        out.beginObject().field("requests", requests.get()).field("inFlightAvailable", inFlight.availablePermits());
+        if (pool != null) {
+            out.key("pool").beginObject()
+               .field("active", pool.getActiveCount())
+               .field("max", pool.getMaxSize())
+               .field("waiting", pool.getWaitingThreadCount())
+               .field("timeouts", pool.getTimeoutCount())
+               .endObject();
+        }
+        out.key("operations").beginArray();
+        Collection<OperationStats> operations = Metrics.operations();
+        for (OperationStats stats : operations) {
+            LatencyHistogram.Snapshot latency = stats.snapshot();
+            if (latency.getCount() == 0) continue;
+            out.beginObject()
+               .field("name", stats.getName())
+               .field("count", latency.getCount())
+               .field("errors", stats.getErrorCount())
+               .field("meanMillis", latency.getMeanNanos() / 1e6)
+               .field("p50Millis", stats.getP50Millis())
+               .field("p99Millis", stats.getP99Millis())
+               .field("maxMillis", latency.getMaxNanos() / 1e6)
+               .endObject();
+        }
+        out.endArray().endObject();
+    }
+}
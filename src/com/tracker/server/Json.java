@@ -0,0 +1,242 @@
+package com.tracker.server;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough JSON for the API, with no library on the classpath. Writer appends straight
+// into one StringBuilder per response; parse() reads a request body into Map / List /
+// String / BigDecimal / Boolean / null, keeping numbers exact so amounts stay centavo-precise.
+public final class Json {
+    private Json() {
+    }
+
+    // WRITING
+    // Commas are placed automatically; keys are only valid directly inside an object
+    public static class Writer {
+        private final StringBuilder out = new StringBuilder(256);
+        // One flag per open object/array: has it had a value yet?
+        private final List<Boolean> hasValue = new ArrayList<>();
+        private boolean afterKey;
+
+        public Writer beginObject() { value(); out.append('{'); hasValue.add(false); return this; }
+        public Writer endObject() { hasValue.remove(hasValue.size() - 1); out.append('}'); return this; }
+        public Writer beginArray() { value(); out.append('['); hasValue.add(false); return this; }
+        public Writer endArray() { hasValue.remove(hasValue.size() - 1); out.append(']'); return this; }
+
+        public Writer key(String name) {
+            value();
+            string(name);
+            out.append(':');
+            afterKey = true;
+            return this;
+        }
+
+        public Writer value(String value) {
+            value();
+            if (value == null) out.append("null");
+            else string(value);
+            return this;
+        }
+
+        public Writer value(long value) { value(); out.append(value); return this; }
+        public Writer value(boolean value) { value(); out.append(value); return this; }
+
+        // NaN and infinities have no JSON form
+        public Writer value(double value) {
+            value();
+            if (Double.isNaN(value) || Double.isInfinite(value)) out.append("null");
+            else out.append(value);
+            return this;
+        }
+
+        // Written as a number with its scale, e.g. 12.50
+        public Writer value(BigDecimal value) {
+            value();
+            out.append(value == null ? "null" : value.toPlainString());
+            return this;
+        }
+
+        public Writer field(String name, String value) { return key(name).value(value); }
+        public Writer field(String name, long value) { return key(name).value(value); }
+        public Writer field(String name, boolean value) { return key(name).value(value); }
+        public Writer field(String name, double value) { return key(name).value(value); }
+        public Writer field(String name, BigDecimal value) { return key(name).value(value); }
+
+        @Override
+        public String toString() {
+            return out.toString();
+        }
+
+        // Separator before a value (or key) unless it directly follows a key or an opening bracket
+        private void value() {
+            if (afterKey) {
+                afterKey = false;
+                return;
+            }
+            int depth = hasValue.size();
+            if (depth == 0) return;
+            if (hasValue.get(depth - 1)) out.append(',');
+            else hasValue.set(depth - 1, true);
+        }
+
+        private void string(String s) {
+            out.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> out.append("\\\"");
+                    case '\\' -> out.append("\\\\");
+                    case '\n' -> out.append("\\n");
+                    case '\r' -> out.append("\\r");
+                    case '\t' -> out.append("\\t");
+                    default -> {
+                        if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                        else out.append(c);
+                    }
+                }
+            }
+            out.append('"');
+        }
+    }
+
+    // READING
+    // Throws IllegalArgumentException (turned into a 400) on anything malformed
+    public static Object parse(String text) {
+        Parser parser = new Parser(text);
+        Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) throw parser.error("unexpected trailing characters");
+        return value;
+    }
+
+    private static class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            skipWhitespace();
+            if (pos >= s.length()) throw error("unexpected end of input");
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) return number();
+                    throw error("unexpected '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek('}')) return map;
+            while (true) {
+                skipWhitespace();
+                if (pos >= s.length() || s.charAt(pos) != '"') throw error("expected a key");
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                map.put(key, value());
+                skipWhitespace();
+                if (peek('}')) return map;
+                expect(',');
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek(']')) return list;
+            while (true) {
+                list.add(value());
+                skipWhitespace();
+                if (peek(']')) return list;
+                expect(',');
+            }
+        }
+
+        private String string() {
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= s.length()) break;
+                char escape = s.charAt(pos++);
+                switch (escape) {
+                    case '"', '\\', '/' -> sb.append(escape);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > s.length()) throw error("bad \\u escape");
+                        try {
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("bad \\u escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("bad escape \\" + escape);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private BigDecimal number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            try {
+                return new BigDecimal(s.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("bad number");
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!s.startsWith(word, pos)) throw error("unexpected token");
+            pos += word.length();
+            return value;
+        }
+
+        private boolean peek(char c) {
+            if (pos < s.length() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            skipWhitespace();
+            if (!peek(c)) throw error("expected '" + c + "'");
+        }
+
+        void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Malformed JSON at " + pos + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.tracker.view;
+
+import com.tracker.controller.TrackerController;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.OperationStats;
+import com.tracker.model.Transaction;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Virtualized backing list for the transaction table. Only the size is known up front;
+// rows are fetched a page at a time (keyset pagination) as the table asks for them, and
+// pages far from the one being viewed are dropped again. Must be used on the FX thread.
+//
+// Local edits are applied in place instead of reloading: insertSorted(), removeById() and
+// replace() change one page and fire a single-row change, so the table keeps its scroll
+// position and selection. Pages therefore vary in size; a Fenwick tree over the page sizes
+// maps a row index to its page (and back) in O(log pages).
+public class PagedTransactionList extends ObservableListBase<Transaction> {
+    static final int PAGE_SIZE = 200;
+    // Pages further than this from the most recently loaded page are evicted
+    static final int KEEP_PAGES_AROUND = 4;
+    // A loaded page that grows past this from inserts is split in two
+    static final int MAX_PAGE_SIZE = 2 * PAGE_SIZE;
+
+    // reload() until the new size is applied to the table
+    private static final OperationStats REFRESH_TABLE = Metrics.operation("ui.refreshTable");
+    // requestPage() until the page's rows are installed
+    private static final OperationStats PAGE_LOAD = Metrics.operation("ui.pageLoad");
+
+    // Null until storage is open; a seeded list shows its rows before that
+    private TrackerController controller;
+    private int size;
+    // Every page fetched so far, newest first. Rows past the last one are the unfetched tail.
+    private final List<Page> pages = new ArrayList<>();
+    // Fenwick tree over pages.get(i).count (1-based)
+    private int[] tree = new int[16];
+    // Rows of the loaded pages, by transaction_id
+    private final Map<Integer, Transaction> loadedById = new HashMap<>();
+    private int loadingPage = -1;
+    private int wantedPage = -1;
+    private int generation;
+    // Bumped by every local edit; a page fetched across an edit is stale and fetched again
+    private int edits;
+
+    public PagedTransactionList(TrackerController controller) {
+        this.controller = controller;
+    }
+
+    // Starts from a saved first page (newest first) of a table of count rows, so the table has
+    // rows before anything has been fetched; the rest is paged in once connect() is called
+    public void seed(int count, List<Transaction> newestRows) {
+        ++generation;
+        reset(count, newestRows);
+    }
+
+    public void connect(TrackerController controller) {
+        this.controller = controller;
+        if (wantedPage >= 0) requestPage(wantedPage);
+    }
+
+    // Drops everything and starts again from the newest transaction
+    public void reload() {
+        if (controller == null) return;
+        int thisGeneration = ++generation;
+        OperationStats.Sample sample = REFRESH_TABLE.start();
+        controller.countTransactionsAsync().whenComplete((count, error) -> Platform.runLater(() -> {
+            if (error != null) sample.fail();
+            sample.close();
+            if (thisGeneration != generation || error != null) return;
+            reset(count, List.of());
+        }));
+    }
+
+    private void reset(int newSize, List<Transaction> firstPage) {
+        int oldSize = size;
+        pages.clear();
+        Arrays.fill(tree, 0);
+        loadedById.clear();
+        loadingPage = -1;
+        wantedPage = -1;
+        size = newSize;
+        if (!firstPage.isEmpty()) {
+            Transaction last = firstPage.get(firstPage.size() - 1);
+            pages.add(new Page(new ArrayList<>(firstPage), firstPage.size(), last.getDate(), last.getId()));
+            treeAdd(0, firstPage.size());
+            for (Transaction t : firstPage) loadedById.put(t.getId(), t);
+        }
+
+        beginChange();
+        if (oldSize > 0) nextRemove(0, Collections.nCopies(oldSize, (Transaction) null));
+        if (newSize > 0) nextAdd(0, newSize);
+        endChange();
+    }
+
+    // LOCAL EDITS (call after the write has committed)
+    // Adds a new row at its place in the date/id order
+    public void insertSorted(Transaction t) {
+        if (loadedById.containsKey(t.getId())) {
+            replace(t);
+            return;
+        }
+        edits++;
+        int page = pageForKey(t.getDate(), t.getId());
+        if (page == pages.size()) {
+            // Older than every fetched row: it is part of the tail and arrives with it
+            size++;
+            fireAdd(size - 1);
+            return;
+        }
+        Page p = pages.get(page);
+        int offset = 0;
+        if (p.rows != null) {
+            offset = insertionPoint(p.rows, t.getDate(), t.getId());
+            p.rows.add(offset, t);
+            loadedById.put(t.getId(), t);
+        }
+        p.count++;
+        treeAdd(page, 1);
+        size++;
+        // An evicted page only needs the count; its rows show up when it is fetched again
+        fireAdd(pageStart(page) + offset);
+        splitIfLarge(page);
+    }
+
+    // Rows that are not loaded (scrolled away or never fetched) fall back to a reload,
+    // since only a loaded row tells us where it sits
+    public void removeById(int id) {
+        Transaction old = loadedById.remove(id);
+        if (old == null) {
+            reload();
+            return;
+        }
+        edits++;
+        int page = pageForKey(old.getDate(), old.getId());
+        Page p = pages.get(page);
+        int offset = insertionPoint(p.rows, old.getDate(), old.getId());
+        p.rows.remove(offset);
+        p.count--;
+        treeAdd(page, -1);
+        size--;
+
+        beginChange();
+        nextRemove(pageStart(page) + offset, old);
+        endChange();
+    }
+
+    // Swaps in the edited row; moves it if its date changed
+    public void replace(Transaction updated) {
+        Transaction old = loadedById.get(updated.getId());
+        if (old == null) {
+            reload();
+            return;
+        }
+        if (!old.getDate().equals(updated.getDate())) {
+            removeById(updated.getId());
+            insertSorted(updated);
+            return;
+        }
+        edits++;
+        int page = pageForKey(old.getDate(), old.getId());
+        Page p = pages.get(page);
+        int offset = insertionPoint(p.rows, old.getDate(), old.getId());
+        p.rows.set(offset, updated);
+        loadedById.put(updated.getId(), updated);
+
+        beginChange();
+        nextSet(pageStart(page) + offset, old);
+        endChange();
+    }
+
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        int page = pageAt(index);
+        if (page < pages.size()) {
+            Page p = pages.get(page);
+            int offset = index - pageStart(page);
+            if (p.rows != null && offset < p.rows.size()) {
+                return p.rows.get(offset);
+            }
+        }
+        requestPage(page);
+        return null; // Row shows empty until its page arrives
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // LOADING
+    private void requestPage(int page) {
+        wantedPage = page;
+        if (loadingPage >= 0) return; // Picked up when the current load finishes
+        if (controller == null) return; // Picked up by connect()
+
+        // Known pages are fetched again by their own bounds; new pages only come after the
+        // last known one, so walk forward from there
+        int next = Math.min(page, pages.size());
+        Page after = next == 0 ? null : pages.get(next - 1);
+        int limit = next < pages.size() ? pages.get(next).count : PAGE_SIZE;
+        loadingPage = next;
+
+        int thisGeneration = generation;
+        int thisEdits = edits;
+        OperationStats.Sample sample = PAGE_LOAD.start();
+        controller.getTransactionsPageAsync(after == null ? null : after.lastDate, after == null ? 0 : after.lastId, limit)
+            .whenComplete((rows, error) -> Platform.runLater(() -> {
+                if (thisGeneration != generation) return;
+                loadingPage = -1;
+                if (error != null) {
+                    sample.fail();
+                    sample.close();
+                    System.err.println("✗ Error loading transaction page: " + error.getMessage());
+                    return;
+                }
+                sample.rows(rows.size());
+                sample.close();
+                if (thisEdits != edits) {
+                    // Fetched before a local edit moved things; ask again
+                    requestPage(wantedPage >= 0 ? wantedPage : next);
+                    return;
+                }
+                if (!installPage(next, rows)) {
+                    // Rows were added or deleted elsewhere since we counted; start over
+                    reload();
+                    return;
+                }
+                if (wantedPage >= 0 && (wantedPage >= pages.size() || pages.get(wantedPage).rows == null)) {
+                    requestPage(wantedPage);
+                }
+            }));
+    }
+
+    // Returns false if the rows do not match what we expected to be there
+    private boolean installPage(int page, List<Transaction> rows) {
+        if (page == pages.size()) {
+            int fetched = pageStart(page);
+            if (fetched + rows.size() > size) return false;
+            if (rows.size() < PAGE_SIZE && fetched + rows.size() < size) return false;
+            if (rows.isEmpty()) return true;
+            Transaction last = rows.get(rows.size() - 1);
+            pages.add(new Page(new ArrayList<>(rows), rows.size(), last.getDate(), last.getId()));
+            if (pages.size() >= tree.length) rebuildTree();
+            else treeAdd(page, rows.size());
+        } else {
+            Page p = pages.get(page);
+            if (rows.size() != p.count) return false;
+            // The bound row itself may have been deleted since, but nothing may come from past it
+            if (!rows.isEmpty()) {
+                Transaction last = rows.get(rows.size() - 1);
+                if (compareKeys(last.getDate(), last.getId(), p.lastDate, p.lastId) < 0) return false;
+            }
+            p.rows = new ArrayList<>(rows);
+        }
+        for (Transaction t : rows) loadedById.put(t.getId(), t);
+        evictPagesFarFrom(page);
+
+        int from = pageStart(page);
+        int to = from + rows.size();
+        if (from < to) {
+            beginChange();
+            nextReplace(from, to, Collections.nCopies(to - from, (Transaction) null));
+            endChange();
+        }
+        splitIfLarge(page);
+        return true;
+    }
+
+    private void evictPagesFarFrom(int page) {
+        for (int i = 0; i < pages.size(); i++) {
+            Page p = pages.get(i);
+            if (p.rows != null && Math.abs(i - page) > KEEP_PAGES_AROUND) {
+                for (Transaction t : p.rows) loadedById.remove(t.getId());
+                p.rows = null;
+            }
+        }
+    }
+
+    // The first half becomes a page of its own, bounded by its last row; the second half
+    // keeps the original bound. Page indexes shift, so the tree is rebuilt.
+    private void splitIfLarge(int page) {
+        Page p = pages.get(page);
+        if (p.rows == null || p.rows.size() <= MAX_PAGE_SIZE) return;
+        int half = p.rows.size() / 2;
+        List<Transaction> head = new ArrayList<>(p.rows.subList(0, half));
+        Transaction last = head.get(half - 1);
+        p.rows = new ArrayList<>(p.rows.subList(half, p.rows.size()));
+        p.count = p.rows.size();
+        pages.add(page, new Page(head, half, last.getDate(), last.getId()));
+        rebuildTree();
+        edits++;
+    }
+
+    // POSITIONS
+    // Pages are newest first and page i holds the keys from its own bound up to, but not
+    // including, the bound of page i - 1. pages.size() means the tail.
+    private int pageForKey(LocalDate date, int id) {
+        int lo = 0;
+        int hi = pages.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            Page p = pages.get(mid);
+            if (compareKeys(date, id, p.lastDate, p.lastId) >= 0) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    // Index in rows (sorted newest first) of the row with this key, or where it would go
+    private static int insertionPoint(List<Transaction> rows, LocalDate date, int id) {
+        int lo = 0;
+        int hi = rows.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            Transaction t = rows.get(mid);
+            if (compareKeys(date, id, t.getDate(), t.getId()) >= 0) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    // Same order as the query: date, then id
+    private static int compareKeys(LocalDate date, int id, LocalDate otherDate, int otherId) {
+        int byDate = date.compareTo(otherDate);
+        return byDate != 0 ? byDate : Integer.compare(id, otherId);
+    }
+
+    private void fireAdd(int index) {
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    // Rows before page i
+    private int pageStart(int page) {
+        int sum = 0;
+        for (int i = Math.min(page, pages.size()); i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    // Page holding row index, or pages.size() if it falls in the tail
+    private int pageAt(int index) {
+        int page = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = page + step;
+            if (next < tree.length && next <= pages.size() && tree[next] <= remaining) {
+                page = next;
+                remaining -= tree[next];
+            }
+        }
+        return page;
+    }
+
+    private void treeAdd(int page, int delta) {
+        for (int i = page + 1; i < tree.length; i += i & -i) tree[i] += delta;
+    }
+
+    private void rebuildTree() {
+        int capacity = tree.length;
+        while (capacity <= pages.size()) capacity *= 2;
+        tree = new int[capacity];
+        for (int i = 0; i < pages.size(); i++) treeAdd(i, pages.get(i).count);
+    }
+
+    private static class Page {
+        // null until loaded, and again after eviction
+        private List<Transaction> rows;
+        private int count;
+        // Seek key: the page's last row when first fetched. It stays the boundary with the
+        // next page even if that row is deleted, and is kept after eviction so the page and
+        // the one after it can be fetched again without OFFSET
+        private final LocalDate lastDate;
+        private final int lastId;
+
+        Page(List<Transaction> rows, int count, LocalDate lastDate, int lastId) {
+            this.rows = rows;
+            this.count = count;
+            this.lastDate = lastDate;
+            this.lastId = lastId;
+        }
+    }
+}
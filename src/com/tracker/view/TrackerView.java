@@ -1,9 +1,17 @@
 package com.tracker.view;
 
 import com.tracker.controller.TrackerController;
+import com.tracker.events.ChangeEvent;
+import com.tracker.events.ChangeEventBus;
+import com.tracker.io.WorkingSetSnapshot;
+import com.tracker.metrics.Metrics;
+import com.tracker.metrics.OperationStats;
 import com.tracker.model.*;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -11,20 +19,68 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import java.io.File;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class TrackerView {
+    // Continuations that touch nodes must run on the JavaFX Application Thread
+    private static final Executor FX_THREAD = Platform::runLater;
+    private static final OperationStats REFRESH_SUMMARY = Metrics.operation("ui.refreshSummary");
+    private static final int SEARCH_LIMIT = 200;
+    // Change batches with more rows than this reload the table instead of patching it
+    private static final int COALESCE_LIMIT = 100;
+    private static final Category ALL_CATEGORIES = new Category(0, "All categories", null, "🗂");
+    private static final String ANY_TYPE = "Any type";
+    private static final String ANY_PAYMENT = "Any payment";
+    // Indexes match TransactionQuery.Sort
+    private static final List<String> SORTS = List.of("Newest first", "Oldest first", "Largest first", "Smallest first");
+    private static final List<String> EXPECTED_CHOICES = List.of("Actual & expected", "Actual only", "Expected only");
+
     private Stage stage;
+    // Null until storage is open (see connect())
     private TrackerController controller;
+    // Drawn before connect(); cleared once caught up
+    private WorkingSetSnapshot snapshot;
+    // Disabled until connect()
+    private final List<Node> storageControls = new ArrayList<>();
     private TableView<Transaction> transactionTable;
+    private PagedTransactionList transactionList;
+    private TextField searchField;
+    // Bumped per keystroke so an older, slower search cannot overwrite a newer one
+    private long searchSequence;
+    // Filter bar; see buildFilter()
+    private DatePicker fromFilter;
+    private DatePicker toFilter;
+    private ComboBox<Category> categoryFilter;
+    private ComboBox<String> typeFilter;
+    private ComboBox<String> expectedFilter;
+    private ComboBox<String> paymentFilter;
+    private TextField minAmountFilter;
+    private TextField maxAmountFilter;
+    private ComboBox<String> sortFilter;
+    private Label filterStatus;
+    // Set while clearFilters() resets the controls, so they do not each run a query
+    private boolean clearingFilters;
     private VBox summaryCardsContainer;
     private VBox summaryTableContainer;
+    private GridPane summaryGrid;
+
+    // Refresh coalescing: at most one refresh in flight, plus one queued behind it
+    private boolean refreshInFlight;
+    private boolean refreshPending;
 
-    public TrackerView(Stage stage, TrackerController controller) {
+    // snapshot may be null (first start); the window then stays empty until connect()
+    public TrackerView(Stage stage, WorkingSetSnapshot snapshot) {
         this.stage = stage;
-        this.controller = controller;
+        this.snapshot = snapshot;
         initializeUI();
     }
 
@@ -54,10 +110,59 @@ public class TrackerView {
         Scene scene = new Scene(root, 1200, 800);
         stage.setScene(scene);
         stage.setTitle("Allowance Tracker - XAMPP SQL");
+
         stage.setOnCloseRequest(e -> {
-            controller.closeDatabase();
+            if (controller != null) controller.closeDatabase();
             System.out.println("Application closed");
         });
+
+        for (Node control : storageControls) control.setDisable(true);
+        if (snapshot != null) {
+            transactionList.seed(snapshot.getTransactionCount(), snapshot.getNewestRows());
+            renderSummaryCards(snapshot.getSummary());
+            renderExpectedVsActual(snapshot.getSummary());
+        }
+    }
+
+    // Called on the FX thread once storage is open. With a snapshot on screen only the rows
+    // added since it was saved are fetched; without one (or if it no longer adds up) the
+    // table and summary load from scratch.
+    public void connect(TrackerController controller) {
+        if (!stage.isShowing()) {
+            // Closed while storage was still opening
+            controller.closeDatabase();
+            return;
+        }
+        this.controller = controller;
+        transactionList.connect(controller);
+        controller.subscribe(FX_THREAD, new ChangeEventBus.Listener() {
+            @Override
+            public void onEvents(List<ChangeEvent> events) {
+                applyChanges(events);
+            }
+
+            @Override
+            public void onResync() {
+                refreshAll();
+            }
+        });
+
+        controller.startSnapshotJournal();
+        for (Node control : storageControls) control.setDisable(false);
+        controller.getAllCategoriesAsync().thenAcceptAsync(categories -> {
+            categoryFilter.getItems().setAll(ALL_CATEGORIES);
+            categoryFilter.getItems().addAll(categories);
+            categoryFilter.setValue(ALL_CATEGORIES);
+        }, FX_THREAD).exceptionally(this::handleAsyncError);
+
+        if (snapshot != null && snapshot.isComplete()) {
+            catchUp(snapshot);
+        } else {
+            refreshAll();
+        }
+        snapshot = null;
+        // Built in the background so the first keystroke in the search box is already instant
+        controller.enableSearchIndexAsync().exceptionally(this::handleAsyncError);
     }
 
     private HBox createHeader() {
@@ -81,27 +186,47 @@ public class TrackerView {
         addButton.setStyle("-fx-background-color: #4f46e5; -fx-text-fill: white; " +
                           "-fx-font-size: 14px; -fx-padding: 10 20; " +
                           "-fx-background-radius: 8; -fx-cursor: hand;");
-        addButton.setOnAction(e -> showAddTransactionDialog());
+        addButton.setOnAction(e -> controller.getAllCategoriesAsync()
+            .thenAcceptAsync(this::showAddTransactionDialog, FX_THREAD)
+            .exceptionally(this::handleAsyncError));
 
         Button refreshButton = new Button("🔄 Refresh");
         refreshButton.setStyle("-fx-background-color: #10b981; -fx-text-fill: white; " +
                               "-fx-font-size: 14px; -fx-padding: 10 20; " +
                               "-fx-background-radius: 8; -fx-cursor: hand;");
-        refreshButton.setOnAction(e -> refreshAll());
+        // An explicit refresh also re-checks the cached totals against the database
+        refreshButton.setOnAction(e -> controller.reconcileSummaryAsync()
+            .thenRunAsync(this::refreshAll, FX_THREAD)
+            .exceptionally(this::handleAsyncError));
+
+        Button importButton = new Button("📥 Import CSV");
+        importButton.setStyle("-fx-background-color: #6b7280; -fx-text-fill: white; " +
+                             "-fx-font-size: 14px; -fx-padding: 10 20; " +
+                             "-fx-background-radius: 8; -fx-cursor: hand;");
+        importButton.setOnAction(e -> showImportDialog());
+
+        Button exportButton = new Button("📤 Export");
+        exportButton.setStyle("-fx-background-color: #6b7280; -fx-text-fill: white; " +
+                             "-fx-font-size: 14px; -fx-padding: 10 20; " +
+                             "-fx-background-radius: 8; -fx-cursor: hand;");
+        exportButton.setOnAction(e -> showExportDialog());
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        header.getChildren().addAll(titleBox, spacer, refreshButton, addButton);
+        header.getChildren().addAll(titleBox, spacer, importButton, exportButton, refreshButton, addButton);
+        storageControls.addAll(List.of(importButton, exportButton, refreshButton, addButton));
         return header;
     }
 
     private VBox createSummaryCards() {
         VBox container = new VBox(15);
         container.setPadding(new Insets(10, 0, 0, 0));
+        // Filled in by refreshAll() once the first summary arrives
+        return container;
+    }
 
-        Summary summary = controller.calculateSummary();
-
+    private void renderSummaryCards(Summary summary) {
         GridPane grid = new GridPane();
         grid.setHgap(15);
 
@@ -136,8 +261,7 @@ public class TrackerView {
         col.setPercentWidth(33.33);
         grid.getColumnConstraints().addAll(col, col, col);
 
-        container.getChildren().add(grid);
-        return container;
+        summaryCardsContainer.getChildren().setAll(grid);
     }
 
     private VBox createCard(String title, String value, String subtitle, String color) {
@@ -171,12 +295,18 @@ public class TrackerView {
         Label title = new Label("📊 Expected vs Actual Summary");
         title.setFont(Font.font("System", FontWeight.BOLD, 18));
 
-        GridPane grid = new GridPane();
-        grid.setHgap(20);
-        grid.setVgap(10);
-        grid.setPadding(new Insets(15, 0, 0, 0));
+        summaryGrid = new GridPane();
+        summaryGrid.setHgap(20);
+        summaryGrid.setVgap(10);
+        summaryGrid.setPadding(new Insets(15, 0, 0, 0));
+
+        container.getChildren().addAll(title, summaryGrid);
+        return container;
+    }
 
-        Summary summary = controller.calculateSummary();
+    private void renderExpectedVsActual(Summary summary) {
+        GridPane grid = summaryGrid;
+        grid.getChildren().clear();
 
         grid.add(createHeaderLabel("Type"), 0, 0);
         grid.add(createHeaderLabel("Expected"), 1, 0);
@@ -202,9 +332,6 @@ public class TrackerView {
         grid.add(createValueLabel(String.format("₱%.2f", summary.getActualSavings()), "#6366f1"), 2, 3);
         grid.add(createValueLabel(String.format("₱%.2f", summary.getPredictedRemaining()),
                 summary.getPredictedRemaining() >= 0 ? "#10b981" : "#ef4444"), 3, 3);
-
-        container.getChildren().addAll(title, grid);
-        return container;
     }
 
     private Label createHeaderLabel(String text) {
@@ -230,7 +357,9 @@ public class TrackerView {
         Label title = new Label("📝 Transaction History");
         title.setFont(Font.font("System", FontWeight.BOLD, 18));
 
-        transactionTable = new TableView<>();
+        // Connected to the controller later, in connect()
+        transactionList = new PagedTransactionList(null);
+        transactionTable = new TableView<>(transactionList);
         
         // FIXED: Use non-deprecated resize policy
         transactionTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
@@ -277,14 +406,16 @@ public class TrackerView {
                                      "-fx-font-size: 12px; -fx-padding: 5 10; -fx-cursor: hand;");
                     deleteBtn.setOnAction(e -> {
                         Transaction t = getTableView().getItems().get(getIndex());
+                        if (t == null || controller == null) return; // Page still loading
                         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
                         confirm.setTitle("Delete Transaction");
                         confirm.setHeaderText("Are you sure?");
                         confirm.setContentText("Delete: " + t.getDescription());
                         
                         if (confirm.showAndWait().get() == ButtonType.OK) {
-                            controller.deleteTransaction(t.getId());
-                            refreshAll();
+                            // The table and summary follow from the TransactionDeleted event
+                            controller.deleteTransactionAsync(t.getId())
+                                .exceptionally(TrackerView.this::handleAsyncError);
                         }
                     });
                 }
@@ -301,14 +432,195 @@ public class TrackerView {
         // FIXED: Suppress type safety warning (this is safe code)
         transactionTable.getColumns().addAll(dateCol, descCol, categoryCol, amountCol, 
                                             typeCol, expectedCol, methodCol, actionCol);
-        refreshTable();
 
-        container.getChildren().addAll(title, transactionTable);
+        searchField = new TextField();
+        searchField.setPromptText("🔍 Search description, category or payment method");
+        searchField.textProperty().addListener((obs, oldText, newText) -> runSearch());
+
+        storageControls.add(searchField);
+        FlowPane filterBar = createFilterBar();
+
+        container.getChildren().addAll(title, searchField, filterBar, transactionTable);
         VBox.setVgrow(transactionTable, Priority.ALWAYS);
         return container;
     }
 
-    private void showAddTransactionDialog() {
+    // Every change re-runs the query, like a keystroke in the search box
+    private FlowPane createFilterBar() {
+        fromFilter = new DatePicker();
+        fromFilter.setPromptText("From");
+        fromFilter.setPrefWidth(130);
+        toFilter = new DatePicker();
+        toFilter.setPromptText("To");
+        toFilter.setPrefWidth(130);
+
+        // Filled in by connect()
+        categoryFilter = new ComboBox<>(FXCollections.observableArrayList(ALL_CATEGORIES));
+        categoryFilter.setValue(ALL_CATEGORIES);
+
+        typeFilter = new ComboBox<>(FXCollections.observableArrayList(ANY_TYPE, "allowance", "expense", "savings"));
+        typeFilter.setValue(ANY_TYPE);
+        expectedFilter = new ComboBox<>(FXCollections.observableArrayList(EXPECTED_CHOICES));
+        expectedFilter.setValue(EXPECTED_CHOICES.get(0));
+        paymentFilter = new ComboBox<>(FXCollections.observableArrayList(
+            ANY_PAYMENT, "Cash", "GCash", "Bank Transfer", "Credit Card"));
+        paymentFilter.setValue(ANY_PAYMENT);
+
+        minAmountFilter = new TextField();
+        minAmountFilter.setPromptText("Min ₱");
+        minAmountFilter.setPrefWidth(80);
+        maxAmountFilter = new TextField();
+        maxAmountFilter.setPromptText("Max ₱");
+        maxAmountFilter.setPrefWidth(80);
+
+        sortFilter = new ComboBox<>(FXCollections.observableArrayList(SORTS));
+        sortFilter.setValue(SORTS.get(0));
+
+        Button clearButton = new Button("Clear filters");
+        clearButton.setOnAction(e -> clearFilters());
+
+        filterStatus = new Label();
+        filterStatus.setTextFill(Color.web("#6b7280"));
+
+        fromFilter.valueProperty().addListener((obs, oldValue, newValue) -> runSearch());
+        toFilter.valueProperty().addListener((obs, oldValue, newValue) -> runSearch());
+        categoryFilter.valueProperty().addListener((obs, oldValue, newValue) -> runSearch());
+        typeFilter.valueProperty().addListener((obs, oldValue, newValue) -> runSearch());
+        expectedFilter.valueProperty().addListener((obs, oldValue, newValue) -> runSearch());
+        paymentFilter.valueProperty().addListener((obs, oldValue, newValue) -> runSearch());
+        minAmountFilter.textProperty().addListener((obs, oldText, newText) -> runSearch());
+        maxAmountFilter.textProperty().addListener((obs, oldText, newText) -> runSearch());
+        sortFilter.valueProperty().addListener((obs, oldValue, newValue) -> runSearch());
+
+        FlowPane bar = new FlowPane(8, 8, fromFilter, toFilter, categoryFilter, typeFilter, expectedFilter,
+            paymentFilter, minAmountFilter, maxAmountFilter, sortFilter, clearButton, filterStatus);
+        bar.setAlignment(Pos.CENTER_LEFT);
+        storageControls.addAll(List.of(fromFilter, toFilter, categoryFilter, typeFilter, expectedFilter,
+            paymentFilter, minAmountFilter, maxAmountFilter, sortFilter, clearButton));
+        return bar;
+    }
+
+    private void clearFilters() {
+        clearingFilters = true;
+        fromFilter.setValue(null);
+        toFilter.setValue(null);
+        categoryFilter.setValue(ALL_CATEGORIES);
+        typeFilter.setValue(ANY_TYPE);
+        expectedFilter.setValue(EXPECTED_CHOICES.get(0));
+        paymentFilter.setValue(ANY_PAYMENT);
+        minAmountFilter.clear();
+        maxAmountFilter.clear();
+        sortFilter.setValue(SORTS.get(0));
+        clearingFilters = false;
+        runSearch();
+    }
+
+    // The filter bar as a query, or null when it shows everything in the normal order.
+    // Throws IllegalArgumentException for an amount that does not parse or a backwards range.
+    private TransactionQuery buildFilter() {
+        TransactionQuery.Builder filter = TransactionQuery.builder()
+            .from(fromFilter.getValue())
+            .to(toFilter.getValue())
+            .minAmountCents(parseAmountFilter(minAmountFilter))
+            .maxAmountCents(parseAmountFilter(maxAmountFilter))
+            .sort(TransactionQuery.Sort.values()[Math.max(SORTS.indexOf(sortFilter.getValue()), 0)]);
+        Category category = categoryFilter.getValue();
+        if (category != null && category != ALL_CATEGORIES) filter.category(category.getCategoryId());
+        if (typeFilter.getValue() != null && !ANY_TYPE.equals(typeFilter.getValue())) filter.type(typeFilter.getValue());
+        int expected = EXPECTED_CHOICES.indexOf(expectedFilter.getValue());
+        if (expected > 0) filter.expected(expected == 2);
+        if (paymentFilter.getValue() != null && !ANY_PAYMENT.equals(paymentFilter.getValue())) {
+            filter.paymentMethod(paymentFilter.getValue());
+        }
+        TransactionQuery query = filter.build();
+        return query.isFiltered() ? query : null;
+    }
+
+    private static Long parseAmountFilter(TextField field) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) return null;
+        try {
+            return Money.toCents(new BigDecimal(text));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Enter amounts like 150.00");
+        }
+    }
+
+    // Search words are answered from the in-memory search index, so it runs on every keystroke
+    // (capped at SEARCH_LIMIT rows); the filter bar becomes a TransactionQuery that storage
+    // answers with only the matching rows. With both, the filters narrow the search results.
+    // With neither, the table goes back to the paged full list.
+    private void runSearch() {
+        if (clearingFilters) return;
+        long sequence = ++searchSequence;
+        String words = searchField.getText().trim();
+        TransactionQuery filter;
+        try {
+            filter = buildFilter();
+        } catch (IllegalArgumentException e) {
+            filterStatus.setText("⚠ " + e.getMessage());
+            return;
+        }
+        if (words.isEmpty() && filter == null) {
+            filterStatus.setText("");
+            if (transactionTable.getItems() != transactionList) transactionTable.setItems(transactionList);
+            return;
+        }
+        CompletableFuture<List<Transaction>> results;
+        if (words.isEmpty()) {
+            results = controller.queryTransactionsAsync(filter);
+        } else if (filter == null) {
+            results = controller.searchTransactionsAsync(words, SEARCH_LIMIT);
+        } else {
+            results = controller.searchTransactionsAsync(words, SEARCH_LIMIT).thenApply(rows -> {
+                List<Transaction> matching = new ArrayList<>();
+                for (Transaction t : rows) {
+                    if (filter.matches(t)) matching.add(t);
+                }
+                matching.sort(filter.comparator());
+                return matching;
+            });
+        }
+        int limit = words.isEmpty() ? filter.getLimit() : SEARCH_LIMIT;
+        results.thenAcceptAsync(rows -> {
+            if (sequence != searchSequence) return;
+            filterStatus.setText(rows.size() >= limit ? "First " + limit + " matching rows" : rows.size() + " matching rows");
+            transactionTable.setItems(FXCollections.observableArrayList(rows));
+        }, FX_THREAD).exceptionally(this::handleAsyncError);
+    }
+
+    private void showImportDialog() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Transactions");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) return;
+
+        // Imported rows reach the table as change events (usually one large batch)
+        controller.importCsvAsync(file.toPath())
+            .thenAcceptAsync(result -> {
+                showSuccess(result.toString());
+            }, FX_THREAD)
+            .exceptionally(this::handleAsyncError);
+    }
+
+    private void showExportDialog() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Transactions");
+        chooser.setInitialFileName("transactions.csv");
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV", "*.csv"),
+            new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"),
+            new FileChooser.ExtensionFilter("Compressed", "*.csv.gz", "*.jsonl.gz"));
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) return;
+
+        controller.exportTransactionsAsync(file.toPath())
+            .thenAcceptAsync(result -> showSuccess("Exported " + result), FX_THREAD)
+            .exceptionally(this::handleAsyncError);
+    }
+
+    private void showAddTransactionDialog(List<Category> categories) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Add New Transaction");
         dialog.setHeaderText("Enter transaction details");
@@ -332,7 +644,6 @@ public class TrackerView {
         CheckBox expectedCheck = new CheckBox("Expected / Forecasted");
         
         ComboBox<Category> categoryBox = new ComboBox<>();
-        List<Category> categories = controller.getAllCategories();
         categoryBox.getItems().addAll(categories);
         if (!categories.isEmpty()) categoryBox.setValue(categories.get(0));
         
@@ -376,7 +687,7 @@ public class TrackerView {
                         return;
                     }
                     
-                    controller.addTransaction(
+                    controller.addTransactionAsync(
                         datePicker.getValue(),
                         descField.getText().trim(),
                         amount,
@@ -384,10 +695,11 @@ public class TrackerView {
                         expectedCheck.isSelected(),
                         categoryBox.getValue().getCategoryId(),
                         expectedCheck.isSelected() ? null : methodBox.getValue()
-                    );
-                    
-                    refreshAll();
-                    showSuccess("Transaction added successfully!");
+                    ).thenAcceptAsync(saved -> {
+                        // The row itself arrives through the TransactionAdded event
+                        if (saved.getId() > 0) showSuccess("Transaction added successfully!");
+                        else showError("The transaction could not be saved.");
+                    }, FX_THREAD).exceptionally(this::handleAsyncError);
                     
                 } catch (NumberFormatException e) {
                     showError("Please enter a valid amount!");
@@ -398,40 +710,101 @@ public class TrackerView {
         });
     }
 
-    private void refreshTable() {
-        transactionTable.getItems().clear();
-        transactionTable.getItems().addAll(controller.getAllTransactions());
+    // Applies one batch of committed changes. Single rows are patched into the table in place;
+    // a burst larger than COALESCE_LIMIT (an import, say) is cheaper as one reload.
+    private void applyChanges(List<ChangeEvent> events) {
+        List<ChangeEvent> rowChanges = new ArrayList<>();
+        for (ChangeEvent event : events) {
+            if (event instanceof ChangeEvent.BudgetChanged budget) {
+                if (budget.isAlert()) showBudgetAlert(budget.getStatus());
+            } else {
+                rowChanges.add(event);
+            }
+        }
+        if (rowChanges.isEmpty()) return;
+        if (rowChanges.size() > COALESCE_LIMIT) {
+            refreshAll();
+            return;
+        }
+        for (ChangeEvent event : rowChanges) {
+            if (event instanceof ChangeEvent.TransactionAdded added) {
+                transactionList.insertSorted(added.getTransaction());
+            } else if (event instanceof ChangeEvent.TransactionUpdated updated) {
+                transactionList.replace(updated.getTransaction());
+            } else if (event instanceof ChangeEvent.TransactionDeleted deleted) {
+                transactionList.removeById(deleted.getTransactionId());
+            }
+        }
+        runSearch();
+        refreshSummary();
     }
 
+    // Rows deleted since the snapshot was saved only show as a count that does not add up, and
+    // then everything is reloaded. Rows edited elsewhere (not by this app, which journals its
+    // own edits) keep their snapshot values until their page is fetched again.
+    private void catchUp(WorkingSetSnapshot snapshot) {
+        CompletableFuture<Integer> count = controller.countTransactionsAsync();
+        controller.getTransactionsAfterIdAsync(snapshot.getHighWaterMark(), COALESCE_LIMIT + 1)
+            .thenAcceptBothAsync(count, (added, total) -> {
+                if (added.size() > COALESCE_LIMIT || snapshot.getTransactionCount() + added.size() != total) {
+                    refreshAll();
+                    return;
+                }
+                for (Transaction t : added) {
+                    transactionList.insertSorted(t);
+                }
+                refreshSummary();
+                System.out.println("✓ Caught up with storage: " + added.size() + " rows added since the snapshot");
+            }, FX_THREAD)
+            .exceptionally(this::handleAsyncError);
+    }
+
+    // Reloads the table from scratch and the summary. Single adds and deletes do not need
+    // this: they patch the loaded rows in place and only refresh the summary.
     private void refreshAll() {
-        refreshTable();
-        
-        Summary summary = controller.calculateSummary();
-        
-        summaryCardsContainer.getChildren().clear();
-        GridPane newGrid = new GridPane();
-        newGrid.setHgap(15);
-        
-        newGrid.add(createCard("Total Allowance", 
-            String.format("₱%.2f", summary.getActualAllowance()),
-            String.format("+ ₱%.2f expected", summary.getExpectedAllowance()), "#10b981"), 0, 0);
-        
-        newGrid.add(createCard("Total Expenses",
-            String.format("₱%.2f", summary.getActualExpenses()),
-            String.format("+ ₱%.2f expected", summary.getExpectedExpenses()), "#ef4444"), 1, 0);
-        
-        String balanceColor = summary.getPredictedRemaining() >= 0 ? "#3b82f6" : "#f59e0b";
-        newGrid.add(createCard("Predicted Balance",
-            String.format("₱%.2f", summary.getPredictedRemaining()),
-            summary.getPredictedRemaining() >= 0 ? "On track!" : "Over budget!", balanceColor), 2, 0);
-        
-        ColumnConstraints col = new ColumnConstraints();
-        col.setPercentWidth(33.33);
-        newGrid.getColumnConstraints().addAll(col, col, col);
-        
-        summaryCardsContainer.getChildren().add(newGrid);
-        
-        System.out.println("View refreshed");
+        // Rows are paged in lazily as the table scrolls
+        transactionList.reload();
+        // A search in progress is re-run so edits and deletes show up in its results
+        runSearch();
+        refreshSummary();
+    }
+
+    // Loads the summary off the FX thread. Calls made while a refresh is running collapse
+    // into a single follow-up refresh.
+    private void refreshSummary() {
+        if (refreshInFlight) {
+            refreshPending = true;
+            return;
+        }
+        refreshInFlight = true;
+        refreshPending = false;
+        // Measured until the summary is on screen
+        OperationStats.Sample sample = REFRESH_SUMMARY.start();
+
+        controller.calculateSummaryAsync().thenAcceptAsync(totals -> {
+            renderSummaryCards(totals);
+            renderExpectedVsActual(totals);
+            System.out.println("View refreshed");
+        }, FX_THREAD).handleAsync((ignored, error) -> {
+            refreshInFlight = false;
+            if (error != null) sample.fail();
+            sample.close();
+            if (error != null) handleAsyncError(error);
+            if (refreshPending) refreshSummary();
+            return null;
+        }, FX_THREAD);
+    }
+
+    private Void handleAsyncError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        Platform.runLater(() -> showError("Error: " + cause.getMessage()));
+        return null;
+    }
+
+    // Storage could not be opened; whatever the snapshot showed stays on screen, read-only
+    public void connectFailed(String message) {
+        showError(message);
     }
 
     private void showError(String message) {
@@ -442,6 +815,15 @@ public class TrackerView {
         alert.showAndWait();
     }
 
+    private void showBudgetAlert(BudgetStatus status) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Budget " + status.getStatus());
+        alert.setHeaderText(status.getCategoryName() + " budget");
+        alert.setContentText(String.format("₱%.2f of ₱%.2f spent this month (%.0f%%).",
+            status.getCurrentSpending(), status.getMonthlyLimit(), status.getUtilizationPercent()));
+        alert.show();
+    }
+
     private void showSuccess(String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Success");